@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.concierge.service.eventadmin;
 
+import org.eclipse.concierge.service.eventadmin.api.BatchEventAdmin;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.event.EventAdmin;
@@ -39,7 +40,15 @@ public class EventAdminActivator implements BundleActivator {
 		context.addBundleListener(eventAdmin);
 		context.addServiceListener(eventAdmin);
 		context.addFrameworkListener(eventAdmin);
-		context.registerService(EventAdmin.class.getName(), eventAdmin, null);
+		context.registerService(new String[] { EventAdmin.class.getName(),
+				BatchEventAdmin.class.getName() }, eventAdmin, null);
+		try {
+			context.registerService(
+					"org.eclipse.concierge.shell.commands.ShellCommandGroup",
+					new EventAdminCommandGroup(eventAdmin), null);
+		} catch (final NoClassDefFoundError ncdfe) {
+			// no shell
+		}
 	}
 
 	/**
@@ -50,7 +59,7 @@ public class EventAdminActivator implements BundleActivator {
 		context.removeBundleListener(eventAdmin);
 		context.removeServiceListener(eventAdmin);
 		context.removeFrameworkListener(eventAdmin);
-		eventAdmin.running = false;
+		eventAdmin.stop();
 		EventAdminActivator.context = null;
 	}
 
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import org.eclipse.concierge.shell.commands.ShellCommandGroup;
+import org.osgi.framework.Constants;
+
+/**
+ * the event admin shell commands. Registered only if the shell is present.
+ */
+final class EventAdminCommandGroup implements ShellCommandGroup {
+
+	/**
+	 * the event admin.
+	 */
+	private final EventAdminImpl eventAdmin;
+
+	/**
+	 * create a new command group.
+	 * 
+	 * @param eventAdmin
+	 *            the event admin.
+	 */
+	EventAdminCommandGroup(final EventAdminImpl eventAdmin) {
+		this.eventAdmin = eventAdmin;
+	}
+
+	/**
+	 * get the group identifier.
+	 * 
+	 * @return the group identifier.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getGroup()
+	 */
+	public String getGroup() {
+		return "eventadmin";
+	}
+
+	/**
+	 * get the help page.
+	 * 
+	 * @return the help page.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getHelp()
+	 */
+	public String getHelp() {
+		return "\teventadmin.{\n\t\thandlers\n\t\tlatency [<service id>]\n\t}";
+	}
+
+	/**
+	 * handle a command.
+	 * 
+	 * @param command
+	 *            the command.
+	 * @param args
+	 *            the arguments.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#handleCommand(java.lang.String,
+	 *      java.lang.String[])
+	 */
+	public void handleCommand(final String command, final String[] args) {
+		final String cmd = command.intern();
+		final Subscription[] subscriptions = eventAdmin.getSubscriptions();
+		if (cmd == "handlers") {
+			System.out.println("Event handlers:");
+			for (int i = 0; i < subscriptions.length; i++) {
+				System.out.println("["
+						+ getServiceId(subscriptions[i])
+						+ "] "
+						+ subscriptions[i]
+						+ ", "
+						+ subscriptions[i].getDeliveries()
+						+ " deliveries, "
+						+ subscriptions[i].getTimeouts()
+						+ " timeouts"
+						+ (subscriptions[i].isBlacklisted() ? ", blacklisted"
+								: ""));
+			}
+			System.out.println(eventAdmin.getDropped()
+					+ " deliveries dropped");
+		} else if (cmd == "latency") {
+			for (int i = 0; i < subscriptions.length; i++) {
+				final Object id = getServiceId(subscriptions[i]);
+				if (args.length > 0 && !args[0].equals(String.valueOf(id))) {
+					continue;
+				}
+				System.out.println("[" + id + "] " + subscriptions[i]);
+				final long[] latencies = subscriptions[i].getLatencies();
+				for (int j = 0; j < latencies.length; j++) {
+					if (latencies[j] > 0) {
+						System.out.println("\t"
+								+ Subscription.LATENCY_LABELS[j] + ": "
+								+ latencies[j]);
+					}
+				}
+			}
+		} else {
+			System.err.println("Unknown command eventadmin." + cmd);
+		}
+	}
+
+	private static Object getServiceId(final Subscription subscription) {
+		return subscription.getReference().getProperty(Constants.SERVICE_ID);
+	}
+
+}
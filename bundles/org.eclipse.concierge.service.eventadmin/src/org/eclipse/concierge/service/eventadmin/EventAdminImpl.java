@@ -17,24 +17,29 @@ package org.eclipse.concierge.service.eventadmin;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Dictionary;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.concierge.service.eventadmin.api.BatchEventAdmin;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleListener;
 import org.osgi.framework.Constants;
-import org.osgi.framework.Filter;
 import org.osgi.framework.FrameworkEvent;
 import org.osgi.framework.FrameworkListener;
-import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceEvent;
 import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.event.Event;
-import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventConstants;
-import org.osgi.service.event.EventHandler;
 import org.osgi.service.event.TopicPermission;
 
 /**
@@ -43,35 +48,93 @@ import org.osgi.service.event.TopicPermission;
  * @author Jan S. Rellermeyer, ETH Zurich
  */
 final class EventAdminImpl implements FrameworkListener, BundleListener,
-		ServiceListener, EventAdmin {
+		ServiceListener, BatchEventAdmin {
 
 	/**
-	 * strings for framework events.
+	 * topics for framework events.
 	 */
-	private static final String[] FRAMEWORK_EVENT = { "STARTED", "ERROR",
-			"PACKAGES_REFRESHED", "STARTLEVEL_CHANGED", "WARNING" };
+	private static final String[] FRAMEWORK_EVENT_TOPICS = {
+			"org/osgi/framework/FrameworkEvent/STARTED",
+			"org/osgi/framework/FrameworkEvent/ERROR",
+			"org/osgi/framework/FrameworkEvent/PACKAGES_REFRESHED",
+			"org/osgi/framework/FrameworkEvent/STARTLEVEL_CHANGED",
+			"org/osgi/framework/FrameworkEvent/WARNING" };
 
 	/**
-	 * strings for bundle events.
+	 * topic for framework events of unknown type.
 	 */
-	private static final String[] BUNDLE_EVENT = { "INSTALLED", "STARTED",
-			"STOPPED", "UPDATED", "UNINSTALLED", "RESOLVED", "UNRESOLVED" };
+	private static final String FRAMEWORK_EVENT_UNDEFINED = "org/osgi/framework/FrameworkEvent/UNDEFINED";
 
 	/**
-	 * strings for service events.
+	 * topics for bundle events.
 	 */
-	private static final String[] SERVICE_EVENT = { "REGISTERED", "MODIFIED",
-			"UNREGISTERING" };
+	private static final String[] BUNDLE_EVENT_TOPICS = {
+			"org/osgi/framework/BundleEvent/INSTALLED",
+			"org/osgi/framework/BundleEvent/STARTED",
+			"org/osgi/framework/BundleEvent/STOPPED",
+			"org/osgi/framework/BundleEvent/UPDATED",
+			"org/osgi/framework/BundleEvent/UNINSTALLED",
+			"org/osgi/framework/BundleEvent/RESOLVED",
+			"org/osgi/framework/BundleEvent/UNRESOLVED" };
 
 	/**
-	 * queue for asynchronous event delivery.
+	 * topic for bundle events of unknown type.
 	 */
-	private List eventQueue = new ArrayList(2);
+	private static final String BUNDLE_EVENT_UNDEFINED = "org/osgi/framework/BundleEvent/UNDEFINED";
 
 	/**
-	 * event handler subscribrions.
+	 * topics for service events.
 	 */
-	private HashMap eventHandlerSubscriptions = new HashMap(2);
+	private static final String[] SERVICE_EVENT_TOPICS = {
+			"org/osgi/framework/ServiceEvent/REGISTERED",
+			"org/osgi/framework/ServiceEvent/MODIFIED",
+			"org/osgi/framework/ServiceEvent/UNREGISTERING" };
+
+	/**
+	 * topic for service events of unknown type.
+	 */
+	private static final String SERVICE_EVENT_UNDEFINED = "org/osgi/framework/ServiceEvent/UNDEFINED";
+
+	/**
+	 * the topic of the event that reports a handler timeout.
+	 */
+	static final String TIMEOUT_TOPIC = "org/eclipse/concierge/service/eventadmin/TIMEOUT";
+
+	/**
+	 * the dispatcher for asynchronous event delivery.
+	 */
+	private final EventDispatcher dispatcher;
+
+	/**
+	 * the tracker of the event handlers.
+	 */
+	private final EventHandlerTracker tracker;
+
+	/**
+	 * the subscriptions, indexed by topic.
+	 */
+	private final TopicIndex topicIndex = new TopicIndex();
+
+	/**
+	 * the delivery timeout in nanoseconds, 0 if deliveries are not watched.
+	 */
+	private final long timeout;
+
+	/**
+	 * blacklist handlers that exceed the timeout.
+	 */
+	private final boolean blacklist;
+
+	/**
+	 * the watchdog, or <code>null</code>.
+	 */
+	private final ScheduledExecutorService watchdog;
+
+	/**
+	 * the subscriptions with a delivery that timed out and has not returned
+	 * yet. Only accessed by the watchdog.
+	 */
+	private final List stuck = new ArrayList();
 
 	/**
 	 * the security manager.
@@ -79,85 +142,182 @@ final class EventAdminImpl implements FrameworkListener, BundleListener,
 	static SecurityManager security;
 
 	/**
-	 * thread variable.
+	 * the cached topic permissions, if there is a security manager.
 	 */
-	boolean running = true;
+	static TopicPermissionCache permissions;
 
 	/**
 	 * create a new EventAdminImpl instance.
 	 */
 	public EventAdminImpl() {
 		security = System.getSecurityManager();
-
-		// bootstrapping: find all registered event handlers
-		ServiceReference[] refs = null;
-		try {
-			refs = EventAdminActivator.context.getServiceReferences(
-					EventHandler.class.getName(), null);
-		} catch (InvalidSyntaxException e) {
-			// does not happen
-			e.printStackTrace();
+		if (security != null) {
+			final String ttl = EventAdminActivator.context
+					.getProperty("org.eclipse.concierge.eventadmin.permission.cache.ttl");
+			permissions = new TopicPermissionCache(security,
+					ttl == null ? 10000 : Long.parseLong(ttl));
 		}
 
-		if (refs != null) {
-			for (int i = 0; i < refs.length; i++) {
-				try {
-					final Object handler = EventAdminActivator.context
-							.getService(refs[i]);
-					if (handler == this) {
-						continue;
+		final String threads = EventAdminActivator.context
+				.getProperty("org.eclipse.concierge.eventadmin.threads");
+		final String capacity = EventAdminActivator.context
+				.getProperty("org.eclipse.concierge.eventadmin.queue.capacity");
+		dispatcher = new EventDispatcher(
+				threads == null
+						? Math.max(2, Runtime.getRuntime().availableProcessors())
+						: Integer.parseInt(threads),
+				capacity == null ? 10000 : Integer.parseInt(capacity),
+				EventDispatcher.parsePolicy(EventAdminActivator.context
+						.getProperty("org.eclipse.concierge.eventadmin.queue.policy")));
+
+		final String timeoutStr = EventAdminActivator.context
+				.getProperty("org.eclipse.concierge.eventadmin.timeout");
+		timeout = TimeUnit.MILLISECONDS.toNanos(timeoutStr == null ? 5000
+				: Long.parseLong(timeoutStr));
+		blacklist = Boolean.valueOf(
+				EventAdminActivator.context
+						.getProperty("org.eclipse.concierge.eventadmin.blacklist"))
+				.booleanValue();
+		if (timeout > 0) {
+			watchdog = Executors
+					.newSingleThreadScheduledExecutor(new ThreadFactory() {
+						public Thread newThread(final Runnable r) {
+							final Thread thread = new Thread(r,
+									"EventAdmin Watchdog");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			final long period = Math.max(timeout / 2,
+					TimeUnit.MILLISECONDS.toNanos(10));
+			watchdog.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					try {
+						checkTimeouts();
+					} catch (final Throwable t) {
+						t.printStackTrace();
 					}
-					final String[] topics = (String[]) refs[i]
-							.getProperty(EventConstants.EVENT_TOPIC);
-					final String filter = (String) refs[i]
-							.getProperty(EventConstants.EVENT_FILTER);
-					final Filter filterObj = filter != null ? EventAdminActivator.context
-							.createFilter(filter)
-							: null;
-					eventHandlerSubscriptions.put(refs[i]
-							.getProperty(Constants.SERVICE_ID),
-							new Subscription((EventHandler) handler, topics,
-									filterObj));
-				} catch (InvalidSyntaxException e) {
-					e.printStackTrace();
 				}
+			}, period, period, TimeUnit.NANOSECONDS);
+		} else {
+			watchdog = null;
+		}
+
+		tracker = new EventHandlerTracker(EventAdminActivator.context,
+				topicIndex);
+		tracker.open();
+	}
+
+	/**
+	 * stop the asynchronous event delivery.
+	 */
+	void stop() {
+		tracker.close();
+		if (watchdog != null) {
+			watchdog.shutdownNow();
+		}
+		dispatcher.shutdown();
+	}
+
+	/**
+	 * get the number of deliveries that have been dropped because the
+	 * capacity of a handler was exhausted.
+	 * 
+	 * @return the number of dropped deliveries.
+	 */
+	long getDropped() {
+		return dispatcher.getDropped();
+	}
+
+	/**
+	 * get the current subscriptions.
+	 * 
+	 * @return the subscriptions.
+	 */
+	Subscription[] getSubscriptions() {
+		final Subscription[] subscriptions = tracker
+				.getServices(new Subscription[0]);
+		return subscriptions == null ? new Subscription[0] : subscriptions;
+	}
+
+	/**
+	 * check for deliveries that exceed the timeout. A pool thread is added
+	 * for every stuck delivery so that the other handlers still receive their
+	 * events, and removed again when the delivery returns.
+	 */
+	void checkTimeouts() {
+		for (int i = stuck.size() - 1; i >= 0; i--) {
+			if (((Subscription) stuck.get(i)).checkReturned()) {
+				stuck.remove(i);
+				dispatcher.removeThread();
 			}
 		}
 
-		new EventDispatchingThread().start();
+		final Subscription[] subscriptions = getSubscriptions();
+		final long now = System.nanoTime();
+		for (int i = 0; i < subscriptions.length; i++) {
+			final long duration = subscriptions[i].checkTimeout(now, timeout);
+			if (duration > 0) {
+				stuck.add(subscriptions[i]);
+				dispatcher.addThread();
+				if (blacklist) {
+					subscriptions[i].blacklist();
+					dispatcher.discard(subscriptions[i]);
+				}
+				reportTimeout(subscriptions[i], duration);
+			}
+		}
 	}
 
 	/**
-	 * receive a <code>FrameworkEvent</code>.
+	 * report a handler that exceeded the timeout.
 	 * 
-	 * @param fEvent
-	 *            the framework event.
-	 * @see org.osgi.framework.FrameworkListener#frameworkEvent(org.osgi.framework.FrameworkEvent)
+	 * @param subscription
+	 *            the subscription of the handler.
+	 * @param duration
+	 *            the duration of the delivery so far, in nanoseconds.
 	 */
-	public void frameworkEvent(final FrameworkEvent fEvent) {
-		Dictionary props = new Hashtable();
-		props.put(EventConstants.EVENT, fEvent);
+	private void reportTimeout(final Subscription subscription,
+			final long duration) {
+		final long millis = TimeUnit.NANOSECONDS.toMillis(duration);
+		System.err.println("EventHandler " + subscription
+				+ " did not return within " + millis + " ms"
+				+ (subscription.isBlacklisted() ? ", blacklisted" : ""));
+
+		final ServiceReference ref = subscription.getReference();
+		final Dictionary props = new Hashtable();
 		props.put(EventConstants.TIMESTAMP,
 				new Long(System.currentTimeMillis()));
-		final Bundle bundle;
-		if ((bundle = fEvent.getBundle()) != null) {
+		props.put(EventConstants.SERVICE, ref);
+		props.put(EventConstants.SERVICE_ID,
+				ref.getProperty(Constants.SERVICE_ID));
+		final Bundle bundle = ref.getBundle();
+		if (bundle != null) {
 			props.put("bundle.id", new Long(bundle.getBundleId()));
-			props.put(EventConstants.BUNDLE_SYMBOLICNAME, "null");
 			props.put("bundle", bundle);
 		}
-		final Throwable throwable;
-		if ((throwable = fEvent.getThrowable()) != null) {
-			props.put(EventConstants.EXECPTION_CLASS, throwable.getClass()
-					.getName());
-			props.put(EventConstants.EXCEPTION_MESSAGE, throwable.getMessage());
-			props.put(EventConstants.EXCEPTION, throwable);
+		props.put("duration", new Long(millis));
+		props.put("blacklisted",
+				Boolean.valueOf(subscription.isBlacklisted()));
+		post(new Event(TIMEOUT_TOPIC, props), false);
+	}
 
+	/**
+	 * receive a <code>FrameworkEvent</code>.
+	 * 
+	 * @param fEvent
+	 *            the framework event.
+	 * @see org.osgi.framework.FrameworkListener#frameworkEvent(org.osgi.framework.FrameworkEvent)
+	 */
+	public void frameworkEvent(final FrameworkEvent fEvent) {
+		final int t = log2(fEvent.getType());
+		final String topic = t < 5 ? FRAMEWORK_EVENT_TOPICS[t]
+				: FRAMEWORK_EVENT_UNDEFINED;
+		if (topicIndex.match(topic).length == 0) {
+			return;
 		}
-		int t = log2(fEvent.getType());
-		String type = t < 5 ? FRAMEWORK_EVENT[t] : "UNDEFINED";
-		Event event = new Event("org/osgi/framework/FrameworkEvent/" + type,
-				props);
-		postEvent(event);
+		post(new Event(topic, new FrameworkEventProperties(fEvent,
+				System.currentTimeMillis())), false);
 	}
 
 	/**
@@ -168,17 +328,21 @@ final class EventAdminImpl implements FrameworkListener, BundleListener,
 	 * @see org.osgi.framework.BundleListener#bundleChanged(org.osgi.framework.BundleEvent)
 	 */
 	public void bundleChanged(final BundleEvent bEvent) {
-		Dictionary props = new Hashtable();
-		props.put(EventConstants.TIMESTAMP,
-				new Long(System.currentTimeMillis()));
-		Bundle bundle = bEvent.getBundle();
-		props.put(EventConstants.EVENT, bEvent);
-		props.put("bundle.id", new Long(bundle.getBundleId()));
-		props.put("bundle", bundle);
-		int t = log2(bEvent.getType());
-		String type = t < 7 ? BUNDLE_EVENT[t] : "UNDEFINED";
-		Event event = new Event("org/osgi/framework/BundleEvent/" + type, props);
-		postEvent(event);
+		if (security != null
+				&& (bEvent.getType() == BundleEvent.UPDATED || bEvent
+						.getType() == BundleEvent.UNINSTALLED)) {
+			// the protection domains of the bundle have changed
+			permissions.clear();
+		}
+
+		final int t = log2(bEvent.getType());
+		final String topic = t < 7 ? BUNDLE_EVENT_TOPICS[t]
+				: BUNDLE_EVENT_UNDEFINED;
+		if (topicIndex.match(topic).length == 0) {
+			return;
+		}
+		post(new Event(topic, new FrameworkEventProperties(bEvent,
+				System.currentTimeMillis())), false);
 	}
 
 	/**
@@ -189,68 +353,24 @@ final class EventAdminImpl implements FrameworkListener, BundleListener,
 	 * @see org.osgi.framework.ServiceListener#serviceChanged(org.osgi.framework.ServiceEvent)
 	 */
 	public void serviceChanged(final ServiceEvent sEvent) {
-		/*
-		 * check if an event handler is affected, in this case, we have to
-		 * update our list of known event handlers
-		 */
 		try {
 			ServiceReference ref = sEvent.getServiceReference();
 			final List objClasses = Arrays.asList((String[]) ref
 					.getProperty("objectClass"));
-			if (objClasses.contains("org.osgi.service.event.EventHandler")) {
-
-				final Long serviceID = (Long) ref
-						.getProperty(Constants.SERVICE_ID);
-
-				final Object handler = EventAdminActivator.context
-						.getService(ref);
-
-				switch (sEvent.getType()) {
-				case ServiceEvent.REGISTERED: {
-					final String[] topics = (String[]) ref
-							.getProperty(EventConstants.EVENT_TOPIC);
-					final String filter = (String) ref
-							.getProperty(EventConstants.EVENT_FILTER);
-					final Filter filterObj = filter != null ? EventAdminActivator.context
-							.createFilter(filter)
-							: null;
-					Subscription ehandler = new Subscription(
-							(EventHandler) handler, topics, filterObj);
-					eventHandlerSubscriptions.put(serviceID, ehandler);
-					break;
-				}
-				case ServiceEvent.UNREGISTERING: {
-					eventHandlerSubscriptions.remove(serviceID);
-					EventAdminActivator.context.ungetService(ref);
-					break;
-				}
-				case ServiceEvent.MODIFIED: {
-					final Subscription subscr = (Subscription) eventHandlerSubscriptions
-							.get(serviceID);
-					if (subscr != null) {
-						final String[] topics = (String[]) ref
-								.getProperty(EventConstants.EVENT_TOPIC);
-						final String filter = (String) ref
-								.getProperty(EventConstants.EVENT_FILTER);
-						final Filter filterObj = filter != null ? EventAdminActivator.context
-								.createFilter(filter)
-								: null;
-						subscr.update(topics, filterObj);
-					}
-				}
-				default:
-				}
+			if (security != null
+					&& (objClasses
+							.contains("org.osgi.service.permissionadmin.PermissionAdmin") || objClasses
+							.contains("org.osgi.service.condpermadmin.ConditionalPermissionAdmin"))) {
+				permissions.clear();
 			}
-			Dictionary props = new Hashtable();
-			props.put(EventConstants.EVENT, sEvent);
-			props.put(EventConstants.TIMESTAMP, new Long(System
-					.currentTimeMillis()));
-			props.put(EventConstants.SERVICE, sEvent.getServiceReference());
-			int t = log2(sEvent.getType());
-			String type = t < 4 ? SERVICE_EVENT[t] : "UNDEFINED";
-			Event event = new Event("org/osgi/framework/ServiceEvent/" + type,
-					props);
-			postEvent(event);
+			final int t = log2(sEvent.getType());
+			final String topic = t < 3 ? SERVICE_EVENT_TOPICS[t]
+					: SERVICE_EVENT_UNDEFINED;
+			if (topicIndex.match(topic).length == 0) {
+				return;
+			}
+			post(new Event(topic, new FrameworkEventProperties(sEvent,
+					System.currentTimeMillis())), false);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -265,25 +385,85 @@ final class EventAdminImpl implements FrameworkListener, BundleListener,
 	 * @see org.osgi.service.event.EventAdmin#postEvent(org.osgi.service.event.Event)
 	 */
 	public void postEvent(final Event event) {
+		post(event, true);
+	}
+
+	/**
+	 * send an event asynchronously.
+	 * 
+	 * @param event
+	 *            the Event.
+	 * @param block
+	 *            <code>false</code> for events that are bridged from the
+	 *            framework, which are dropped instead of blocking the
+	 *            framework thread when the capacity of a handler is
+	 *            exhausted.
+	 */
+	private void post(final Event event, final boolean block) {
 		if (security != null) {
-			// TODO: cache permissions
-			security.checkPermission(new TopicPermission(event.getTopic(),
-					TopicPermission.PUBLISH));
+			permissions.checkPermission(event.getTopic(),
+					TopicPermission.PUBLISH);
 		}
 
-		final Subscription[] subscriptions = (Subscription[]) eventHandlerSubscriptions.values()
-				.toArray(new Subscription[eventHandlerSubscriptions.size()]);
-		final ArrayList handlers = new ArrayList(subscriptions.length);
+		final Subscription[] subscriptions = topicIndex.match(event
+				.getTopic());
+		if (subscriptions.length == 0) {
+			return;
+		}
+		final ArrayList matching = new ArrayList(subscriptions.length);
 		for (int i = 0; i < subscriptions.length; i++) {
 			if (subscriptions[i].matches(event)) {
-				handlers.add(subscriptions[i].getHandler());
+				matching.add(subscriptions[i]);
+			}
+		}
+
+		dispatcher.dispatch(event, (Subscription[]) matching
+				.toArray(new Subscription[matching.size()]), block);
+	}
+
+	/**
+	 * post a batch of events asynchronously.
+	 * 
+	 * @param events
+	 *            the events.
+	 * 
+	 * @see org.eclipse.concierge.service.eventadmin.api.BatchEventAdmin#postEvents(java.util.List)
+	 */
+	public void postEvents(final List<Event> events) {
+		if (security != null) {
+			final Set<String> checked = new HashSet<String>();
+			for (int i = 0; i < events.size(); i++) {
+				final String topic = events.get(i).getTopic();
+				if (checked.add(topic)) {
+					permissions.checkPermission(topic,
+							TopicPermission.PUBLISH);
+				}
 			}
 		}
 
-		synchronized (eventQueue) {
-			eventQueue.add(new QueueElement(event, (EventHandler[]) handlers
-					.toArray(new EventHandler[handlers.size()])));
-			eventQueue.notifyAll();
+		// the topic index caches the matching subscriptions per topic
+		final Map<Subscription, List<Event>> batches = new LinkedHashMap<Subscription, List<Event>>();
+		for (int i = 0; i < events.size(); i++) {
+			final Event event = events.get(i);
+			final Subscription[] subscriptions = topicIndex.match(event
+					.getTopic());
+			for (int j = 0; j < subscriptions.length; j++) {
+				if (subscriptions[j].matches(event)) {
+					List<Event> batch = batches.get(subscriptions[j]);
+					if (batch == null) {
+						batch = new ArrayList<Event>();
+						batches.put(subscriptions[j], batch);
+					}
+					batch.add(event);
+				}
+			}
+		}
+
+		for (final Map.Entry<Subscription, List<Event>> entry : batches
+				.entrySet()) {
+			if (!dispatcher.dispatch(entry.getKey(), entry.getValue())) {
+				return;
+			}
 		}
 	}
 
@@ -296,13 +476,12 @@ final class EventAdminImpl implements FrameworkListener, BundleListener,
 	 */
 	public void sendEvent(final Event event) {
 		if (security != null) {
-			// TODO: cache permissions
-			security.checkPermission(new TopicPermission(event.getTopic(),
-					TopicPermission.PUBLISH));
+			permissions.checkPermission(event.getTopic(),
+					TopicPermission.PUBLISH);
 		}
 
-		final Subscription[] subscriptions = (Subscription[]) eventHandlerSubscriptions.values()
-				.toArray(new Subscription[eventHandlerSubscriptions.size()]);
+		final Subscription[] subscriptions = topicIndex.match(event
+				.getTopic());
 		for (int i = 0; i < subscriptions.length; i++) {
 			if (subscriptions[i].matches(event)) {
 				subscriptions[i].sendEvent(event);
@@ -326,77 +505,4 @@ final class EventAdminImpl implements FrameworkListener, BundleListener,
 		}
 		return j;
 	}
-
-	/**
-	 * EventDispatchingThread dispatches events on the local framework.
-	 */
-	private final class EventDispatchingThread extends Thread {
-		/**
-		 * creates and starts a new EventDispatchingThread.
-		 */
-		private EventDispatchingThread() {
-			setDaemon(true);
-		}
-
-		/**
-		 * thread loop.
-		 * 
-		 * @see java.lang.Thread#run()
-		 */
-		public void run() {
-			try {
-				while (running) {
-					synchronized (eventQueue) {
-						if (eventQueue.isEmpty()) {
-							// wait until something arrives
-							eventQueue.wait();
-						}
-						// get the element and deliver it
-						QueueElement element = (QueueElement) eventQueue
-								.remove(0);
-						final EventHandler[] handlers = element.handlers;
-						final Event event = element.event;
-						try {
-							for (int i = 0; i < handlers.length; i++) {
-								handlers[i].handleEvent(event);
-							}
-						} catch (Throwable t) {
-							t.printStackTrace();
-						}
-					}
-				}
-			} catch (InterruptedException ie) {
-				ie.printStackTrace();
-			}
-		}
-	}
-
-	/**
-	 * Queue element.
-	 */
-	private static final class QueueElement {
-
-		/**
-		 * the event.
-		 */
-		final Event event;
-
-		/**
-		 * the handlers
-		 */
-		final EventHandler[] handlers;
-
-		/**
-		 * create a new QueueElement.
-		 * 
-		 * @param event
-		 *            the event.
-		 * @param handlers
-		 *            the handlers.
-		 */
-		private QueueElement(final Event event, final EventHandler[] handlers) {
-			this.event = event;
-			this.handlers = handlers;
-		}
-	}
 }
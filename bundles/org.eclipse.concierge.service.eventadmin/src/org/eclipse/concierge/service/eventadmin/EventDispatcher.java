@@ -0,0 +1,468 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.osgi.service.event.Event;
+
+/**
+ * <p>
+ * delivers posted events on a bounded pool of threads. Every subscription has
+ * its own queue of pending events which is drained by at most one pool thread
+ * at a time, so a handler receives the events in the order in which they were
+ * posted while a slow handler only delays its own events.
+ * </p>
+ * <p>
+ * The number of pending deliveries of every subscription is bounded. When the
+ * bound is reached, the policy decides whether the publisher blocks, the
+ * delivery is dropped, or the publisher delivers the event itself. Events that
+ * are bridged from the framework never block the publisher, they are dropped
+ * instead.
+ * </p>
+ */
+final class EventDispatcher {
+
+	/**
+	 * block the publisher until there is room for the event.
+	 */
+	static final int BLOCK = 0;
+
+	/**
+	 * drop the event.
+	 */
+	static final int DROP = 1;
+
+	/**
+	 * deliver the event in the thread of the publisher if the handler is idle,
+	 * otherwise block.
+	 */
+	static final int CALLER_RUNS = 2;
+
+	/**
+	 * the maximum number of events a pool thread delivers to a handler before
+	 * it turns to the next handler.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	/**
+	 * the pool.
+	 */
+	private final ThreadPoolExecutor pool;
+
+	/**
+	 * the maximum number of pending deliveries per subscription.
+	 */
+	private final int capacity;
+
+	/**
+	 * the policy when the capacity is exhausted.
+	 */
+	private final int policy;
+
+	/**
+	 * the number of publishers waiting for a subscription to drain. Only
+	 * modified while holding the monitor of the dispatcher.
+	 */
+	private volatile int waiters;
+
+	/**
+	 * set when the dispatcher has been shut down.
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * the number of deliveries that have been dropped.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * create a new dispatcher.
+	 * 
+	 * @param threads
+	 *            the number of threads.
+	 * @param queueCapacity
+	 *            the maximum number of pending deliveries per subscription.
+	 * @param policy
+	 *            the policy when the capacity is exhausted.
+	 */
+	EventDispatcher(final int threads, final int queueCapacity,
+			final int policy) {
+		this.capacity = queueCapacity;
+		this.policy = policy;
+		this.pool = new ThreadPoolExecutor(threads, threads, 0L,
+				TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r,
+								"EventAdmin Dispatcher");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * add a thread to the pool to replace a thread that is stuck in a
+	 * handler.
+	 */
+	synchronized void addThread() {
+		pool.setMaximumPoolSize(pool.getMaximumPoolSize() + 1);
+		pool.setCorePoolSize(pool.getCorePoolSize() + 1);
+	}
+
+	/**
+	 * remove a thread that has been added by {@link #addThread()} once the
+	 * stuck handler has returned.
+	 */
+	synchronized void removeThread() {
+		pool.setCorePoolSize(pool.getCorePoolSize() - 1);
+		pool.setMaximumPoolSize(pool.getMaximumPoolSize() - 1);
+	}
+
+	/**
+	 * get the policy for a policy string.
+	 * 
+	 * @param policy
+	 *            <code>block</code>, <code>drop</code>, or
+	 *            <code>caller-runs</code>.
+	 * @return the policy, BLOCK for unknown strings.
+	 */
+	static int parsePolicy(final String policy) {
+		if ("drop".equals(policy)) {
+			return DROP;
+		} else if ("caller-runs".equals(policy)) {
+			return CALLER_RUNS;
+		}
+		return BLOCK;
+	}
+
+	/**
+	 * get the number of deliveries that have been dropped.
+	 * 
+	 * @return the number of dropped deliveries.
+	 */
+	long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * dispatch an event to the matching subscriptions.
+	 * 
+	 * @param event
+	 *            the event.
+	 * @param subscriptions
+	 *            the subscriptions.
+	 * @param block
+	 *            <code>false</code> if the publisher must not be blocked or
+	 *            run a handler, e.g., because it is a framework thread. The
+	 *            delivery is dropped when the capacity is exhausted.
+	 */
+	void dispatch(final Event event, final Subscription[] subscriptions,
+			final boolean block) {
+		for (int i = 0; i < subscriptions.length; i++) {
+			if (!enqueue(subscriptions[i], event, block)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * dispatch a batch of events to a subscription. The capacity for all
+	 * events is reserved at once and the subscription is scheduled once. If
+	 * there is not enough capacity left, the events are dispatched one by one
+	 * according to the policy.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 * @param events
+	 *            the events.
+	 * @return false if the publisher has been interrupted while waiting or
+	 *         the dispatcher has been shut down.
+	 */
+	boolean dispatch(final Subscription subscription, final List<Event> events) {
+		if (closed) {
+			return false;
+		}
+		if (subscription.isBlacklisted()) {
+			return true;
+		}
+		if (reserve(subscription, events.size())) {
+			subscription.queue.addAll(events);
+			queued(subscription);
+			return true;
+		}
+		for (int i = 0; i < events.size(); i++) {
+			if (!enqueue(subscription, events.get(i), true)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * enqueue an event for a subscription. Blacklisted subscriptions are
+	 * skipped.
+	 * 
+	 * @return false if the publisher has been interrupted while waiting or
+	 *         the dispatcher has been shut down.
+	 */
+	private boolean enqueue(final Subscription subscription,
+			final Event event, final boolean block) {
+		if (closed) {
+			return false;
+		}
+		if (subscription.isBlacklisted()) {
+			return true;
+		}
+		if (!reserve(subscription, 1)) {
+			if (!block) {
+				dropped.incrementAndGet();
+				return true;
+			}
+			switch (policy) {
+			case DROP:
+				dropped.incrementAndGet();
+				return true;
+			case CALLER_RUNS:
+				if (subscription.scheduled.compareAndSet(false, true)) {
+					// the handler is idle, deliver in the calling thread after
+					// the events that are still queued
+					try {
+						deliver(subscription, Integer.MAX_VALUE);
+						subscription.sendEvent(event);
+					} finally {
+						subscription.scheduled.set(false);
+					}
+					if (!subscription.queue.isEmpty()) {
+						schedule(subscription);
+					}
+					return true;
+				}
+				// fall through
+			default:
+				try {
+					if (!await(subscription)) {
+						// shut down or blacklisted while waiting
+						return !closed;
+					}
+				} catch (final InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+
+		subscription.queue.add(event);
+		queued(subscription);
+		return true;
+	}
+
+	/**
+	 * reserve capacity for pending deliveries of a subscription.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 * @param n
+	 *            the number of deliveries.
+	 * @return true if the capacity has been reserved.
+	 */
+	private boolean reserve(final Subscription subscription, final int n) {
+		final AtomicInteger pending = subscription.pending;
+		while (true) {
+			final int current = pending.get();
+			if (current + n > capacity) {
+				return false;
+			}
+			if (pending.compareAndSet(current, current + n)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * wait until capacity for one delivery to a subscription has been
+	 * reserved.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 * @return false if the dispatcher has been shut down or the subscription
+	 *         has been blacklisted while waiting.
+	 * @throws InterruptedException
+	 *             if the publisher has been interrupted.
+	 */
+	private synchronized boolean await(final Subscription subscription)
+			throws InterruptedException {
+		waiters++;
+		try {
+			while (!reserve(subscription, 1)) {
+				if (closed || subscription.isBlacklisted()) {
+					return false;
+				}
+				wait();
+			}
+			return true;
+		} finally {
+			waiters--;
+		}
+	}
+
+	/**
+	 * release the capacity of completed deliveries and wake up the waiting
+	 * publishers, if any.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 * @param n
+	 *            the number of deliveries.
+	 */
+	private void release(final Subscription subscription, final int n) {
+		subscription.pending.addAndGet(-n);
+		if (waiters > 0) {
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * schedule a subscription after events have been added to its queue, or
+	 * discard the events if it has been blacklisted in the meantime.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 */
+	private void queued(final Subscription subscription) {
+		if (subscription.isBlacklisted()) {
+			discard(subscription);
+		} else {
+			schedule(subscription);
+		}
+	}
+
+	/**
+	 * discard the queued events of a blacklisted subscription and release
+	 * their capacity. Publishers that wait for the subscription give up.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 */
+	void discard(final Subscription subscription) {
+		int n = 0;
+		while (subscription.queue.poll() != null) {
+			n++;
+		}
+		subscription.pending.addAndGet(-n);
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+
+	/**
+	 * schedule the delivery of the queued events of a subscription, unless it
+	 * is already scheduled.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 */
+	private void schedule(final Subscription subscription) {
+		if (subscription.scheduled.compareAndSet(false, true)) {
+			try {
+				pool.execute(new Runnable() {
+					public void run() {
+						try {
+							deliver(subscription, BATCH_SIZE);
+						} finally {
+							subscription.scheduled.set(false);
+						}
+						if (!subscription.queue.isEmpty()) {
+							schedule(subscription);
+						}
+					}
+				});
+			} catch (final RejectedExecutionException ree) {
+				// shut down
+				subscription.scheduled.set(false);
+			}
+		}
+	}
+
+	/**
+	 * deliver queued events of a subscription. The caller must own the
+	 * scheduled flag of the subscription.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 * @param max
+	 *            the maximum number of events to deliver.
+	 */
+	private void deliver(final Subscription subscription, final int max) {
+		if (subscription.isBatchHandler()) {
+			final List<Event> batch = new ArrayList<Event>();
+			Event event;
+			while (batch.size() < max
+					&& (event = subscription.queue.poll()) != null) {
+				batch.add(event);
+			}
+			if (batch.isEmpty()) {
+				return;
+			}
+			try {
+				if (batch.size() == 1) {
+					subscription.sendEvent(batch.get(0));
+				} else {
+					subscription.sendEvents(Collections
+							.unmodifiableList(batch));
+				}
+			} finally {
+				release(subscription, batch.size());
+			}
+			return;
+		}
+
+		for (int i = 0; i < max; i++) {
+			final Event event = subscription.queue.poll();
+			if (event == null) {
+				return;
+			}
+			try {
+				subscription.sendEvent(event);
+			} finally {
+				release(subscription, 1);
+			}
+		}
+	}
+
+	/**
+	 * stop delivering events. New events are rejected and waiting publishers
+	 * return.
+	 */
+	void shutdown() {
+		closed = true;
+		synchronized (this) {
+			notifyAll();
+		}
+		pool.shutdownNow();
+	}
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.util.tracker.ServiceTracker;
+
+/**
+ * <p>
+ * tracks the registered event handlers and keeps their subscriptions in the
+ * topic index. A registration, modification, or unregistration only changes
+ * the subscription of the affected handler. The handler service itself is
+ * not retrieved before the first event is delivered to it.
+ * </p>
+ */
+final class EventHandlerTracker extends
+		ServiceTracker<EventHandler, Subscription> {
+
+	/**
+	 * the topic index.
+	 */
+	private final TopicIndex topicIndex;
+
+	/**
+	 * create a new tracker.
+	 * 
+	 * @param context
+	 *            the bundle context.
+	 * @param topicIndex
+	 *            the topic index.
+	 */
+	EventHandlerTracker(final BundleContext context,
+			final TopicIndex topicIndex) {
+		super(context, EventHandler.class, null);
+		this.topicIndex = topicIndex;
+	}
+
+	/**
+	 * @see org.osgi.util.tracker.ServiceTracker#addingService(org.osgi.framework.ServiceReference)
+	 */
+	public Subscription addingService(
+			final ServiceReference<EventHandler> reference) {
+		try {
+			final Subscription subscription = new Subscription(reference,
+					getTopics(reference), getFilter(reference));
+			topicIndex.add(subscription);
+			return subscription;
+		} catch (final InvalidSyntaxException ise) {
+			ise.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * @see org.osgi.util.tracker.ServiceTracker#modifiedService(org.osgi.framework.ServiceReference,
+	 *      java.lang.Object)
+	 */
+	public void modifiedService(final ServiceReference<EventHandler> reference,
+			final Subscription subscription) {
+		try {
+			topicIndex.update(subscription, getTopics(reference),
+					getFilter(reference));
+		} catch (final InvalidSyntaxException ise) {
+			ise.printStackTrace();
+		}
+	}
+
+	/**
+	 * @see org.osgi.util.tracker.ServiceTracker#removedService(org.osgi.framework.ServiceReference,
+	 *      java.lang.Object)
+	 */
+	public void removedService(final ServiceReference<EventHandler> reference,
+			final Subscription subscription) {
+		topicIndex.remove(subscription);
+		subscription.release();
+	}
+
+	private static String[] getTopics(final ServiceReference<?> reference) {
+		final Object topics = reference.getProperty(EventConstants.EVENT_TOPIC);
+		if (topics instanceof String) {
+			return new String[] { (String) topics };
+		}
+		return (String[]) topics;
+	}
+
+	private Filter getFilter(final ServiceReference<?> reference)
+			throws InvalidSyntaxException {
+		final String filter = (String) reference
+				.getProperty(EventConstants.EVENT_FILTER);
+		return filter != null ? context.createFilter(filter) : null;
+	}
+
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventProperties;
+
+/**
+ * <p>
+ * the properties of an event bridged from a framework, bundle, or service
+ * event. The properties are only created from the original event when a
+ * handler reads them. Since the <code>Event</code> keeps instances of
+ * <code>EventProperties</code> as they are, the properties are never copied.
+ * </p>
+ */
+final class FrameworkEventProperties extends EventProperties {
+
+	/**
+	 * the original event.
+	 */
+	private final Object source;
+
+	/**
+	 * the time of the event.
+	 */
+	private final long timestamp;
+
+	/**
+	 * the properties, once they have been created.
+	 */
+	private volatile Map<String, Object> properties;
+
+	/**
+	 * create the properties of a bridged event.
+	 * 
+	 * @param source
+	 *            the <code>FrameworkEvent</code>, <code>BundleEvent</code>,
+	 *            or <code>ServiceEvent</code>.
+	 * @param timestamp
+	 *            the time of the event.
+	 */
+	FrameworkEventProperties(final Object source, final long timestamp) {
+		super((Map<String, ?>) null);
+		this.source = source;
+		this.timestamp = timestamp;
+	}
+
+	private Map<String, Object> getProperties() {
+		Map<String, Object> props = properties;
+		if (props == null) {
+			props = Collections.unmodifiableMap(createProperties());
+			properties = props;
+		}
+		return props;
+	}
+
+	private Map<String, Object> createProperties() {
+		final Map<String, Object> props = new HashMap<String, Object>(8);
+		props.put(EventConstants.EVENT, source);
+		props.put(EventConstants.TIMESTAMP, new Long(timestamp));
+		if (source instanceof FrameworkEvent) {
+			final FrameworkEvent fEvent = (FrameworkEvent) source;
+			final Bundle bundle;
+			if ((bundle = fEvent.getBundle()) != null) {
+				props.put("bundle.id", new Long(bundle.getBundleId()));
+				props.put(EventConstants.BUNDLE_SYMBOLICNAME, "null");
+				props.put("bundle", bundle);
+			}
+			final Throwable throwable;
+			if ((throwable = fEvent.getThrowable()) != null) {
+				props.put(EventConstants.EXECPTION_CLASS, throwable.getClass()
+						.getName());
+				if (throwable.getMessage() != null) {
+					props.put(EventConstants.EXCEPTION_MESSAGE,
+							throwable.getMessage());
+				}
+				props.put(EventConstants.EXCEPTION, throwable);
+			}
+		} else if (source instanceof BundleEvent) {
+			final Bundle bundle = ((BundleEvent) source).getBundle();
+			props.put("bundle.id", new Long(bundle.getBundleId()));
+			props.put("bundle", bundle);
+		} else if (source instanceof ServiceEvent) {
+			props.put(EventConstants.SERVICE,
+					((ServiceEvent) source).getServiceReference());
+		}
+		return props;
+	}
+
+	public boolean containsKey(final Object name) {
+		return getProperties().containsKey(name);
+	}
+
+	public boolean containsValue(final Object value) {
+		return getProperties().containsValue(value);
+	}
+
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return getProperties().entrySet();
+	}
+
+	public Object get(final Object name) {
+		return getProperties().get(name);
+	}
+
+	public boolean isEmpty() {
+		return false;
+	}
+
+	public Set<String> keySet() {
+		return getProperties().keySet();
+	}
+
+	public int size() {
+		return getProperties().size();
+	}
+
+	public Collection<Object> values() {
+		return getProperties().values();
+	}
+
+	public boolean equals(final Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof EventProperties)) {
+			return false;
+		}
+		return getProperties().entrySet().equals(
+				((EventProperties) object).entrySet());
+	}
+
+	public int hashCode() {
+		return getProperties().hashCode();
+	}
+
+	public String toString() {
+		return getProperties().toString();
+	}
+
+}
@@ -15,8 +15,18 @@ package org.eclipse.concierge.service.eventadmin;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.StringTokenizer;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.concierge.service.eventadmin.api.BatchEventHandler;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
 import org.osgi.framework.Filter;
+import org.osgi.framework.ServiceReference;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 import org.osgi.service.event.TopicPermission;
@@ -32,9 +42,32 @@ import org.osgi.service.event.TopicPermission;
  */
 final class Subscription {
 	/**
-	 * the <code>EventHandler</code>.
+	 * the upper bounds of the buckets of the latency histogram, in
+	 * nanoseconds.
 	 */
-	private EventHandler handler;
+	static final long[] LATENCY_BOUNDS = { 10000L, 100000L, 1000000L,
+			10000000L, 100000000L, 1000000000L, 10000000000L, Long.MAX_VALUE };
+
+	/**
+	 * the labels of the buckets of the latency histogram.
+	 */
+	static final String[] LATENCY_LABELS = { "<10us", "<100us", "<1ms",
+			"<10ms", "<100ms", "<1s", "<10s", ">=10s" };
+
+	/**
+	 * the service reference of the handler.
+	 */
+	private final ServiceReference reference;
+
+	/**
+	 * the <code>EventHandler</code>, once it has been retrieved.
+	 */
+	private volatile EventHandler handler;
+
+	/**
+	 * set when the handler has been unregistered.
+	 */
+	private boolean released;
 
 	/**
 	 * an array of topics.
@@ -47,31 +80,71 @@ final class Subscription {
 	private Filter filter;
 
 	/**
-	 * hidden default constructor.
+	 * the posted events that have not been delivered yet.
 	 */
-	private Subscription() {
-	}
+	final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<Event>();
+
+	/**
+	 * set while a thread is scheduled to deliver the queued events.
+	 */
+	final AtomicBoolean scheduled = new AtomicBoolean();
+
+	/**
+	 * the number of events that have been dispatched to the handler and not
+	 * delivered yet.
+	 */
+	final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * the number of deliveries per latency bucket.
+	 */
+	private final AtomicLongArray latencies = new AtomicLongArray(
+			LATENCY_BOUNDS.length);
+
+	/**
+	 * the start of the delivery that is currently watched, or 0.
+	 */
+	private final AtomicLong started = new AtomicLong();
+
+	/**
+	 * the start of the delivery that has been reported as timed out, or 0.
+	 * Only accessed by the watchdog.
+	 */
+	private long reported;
+
+	/**
+	 * the number of deliveries that timed out.
+	 */
+	private volatile int timeouts;
+
+	/**
+	 * set when the handler has been blacklisted and does not receive events
+	 * anymore.
+	 */
+	private volatile boolean blacklisted;
 
 	/**
 	 * creates a new EventHandlerSubscription instance.
 	 * 
-	 * @param handler
-	 *            an <code>EventHandler</code> that wants to subscribe.
+	 * @param reference
+	 *            the service reference of the <code>EventHandler</code>
+	 *            that wants to subscribe. The handler is retrieved when the
+	 *            first event is delivered.
 	 * @param topics
 	 *            an array of strings representing the topics.
 	 * @param filter
 	 *            a <code>Filter</code> for matching event properties.
 	 */
-	Subscription(final EventHandler eventHandler, final String[] topics,
+	Subscription(final ServiceReference reference, final String[] topics,
 			final Filter filter) {
+		this.reference = reference;
 		// security check
-		if (EventAdminImpl.security != null) {
+		if (EventAdminImpl.security != null && topics != null) {
 			ArrayList checkedTopics = new ArrayList(topics.length);
 			for (int i = 0; i < topics.length; i++) {
 				try {
-					EventAdminImpl.security
-							.checkPermission(new TopicPermission(topics[i],
-									TopicPermission.SUBSCRIBE));
+					EventAdminImpl.permissions.checkPermission(topics[i],
+							TopicPermission.SUBSCRIBE);
 					checkedTopics.add(topics[i]);
 				} catch (SecurityException se) {
 					System.err
@@ -84,10 +157,56 @@ final class Subscription {
 		} else {
 			this.topics = topics;
 		}
-		this.handler = eventHandler;
 		this.filter = filter;
 	}
 
+	/**
+	 * get the handler, retrieve it from the service registry when it is
+	 * needed for the first time.
+	 * 
+	 * @return the handler or <code>null</code> if it is not available.
+	 */
+	private EventHandler getHandler() {
+		final EventHandler current = handler;
+		if (current != null) {
+			return current;
+		}
+		final BundleContext context = EventAdminActivator.context;
+		if (context == null) {
+			return null;
+		}
+		final EventHandler service = (EventHandler) context
+				.getService(reference);
+		if (service == null) {
+			return null;
+		}
+		synchronized (this) {
+			if (handler == null && !released) {
+				handler = service;
+				return service;
+			}
+		}
+		// unregistered in the meantime or retrieved by another thread
+		context.ungetService(reference);
+		return handler;
+	}
+
+	/**
+	 * release the handler after it has been unregistered.
+	 */
+	void release() {
+		final EventHandler current;
+		synchronized (this) {
+			released = true;
+			current = handler;
+			handler = null;
+		}
+		final BundleContext context = EventAdminActivator.context;
+		if (current != null && context != null) {
+			context.ungetService(reference);
+		}
+	}
+
 	/**
 	 * sends an <code>Event</code> to the <code>EventHandler</code>.
 	 * 
@@ -95,93 +214,203 @@ final class Subscription {
 	 *            the <code>Event</code>.
 	 */
 	void sendEvent(final Event event) {
+		if (blacklisted) {
+			return;
+		}
+		final EventHandler handler = getHandler();
+		if (handler == null) {
+			return;
+		}
+		final long begin = System.nanoTime();
+		// only one of concurrent deliveries is watched
+		final boolean watched = started.compareAndSet(0, begin);
 		try {
 			handler.handleEvent(event);
 		} catch (Exception shield) {
 			shield.printStackTrace();
+		} finally {
+			delivered(begin, watched);
 		}
 	}
 
 	/**
-	 * get the handler.
+	 * sends a list of posted events to a {@link BatchEventHandler} in one
+	 * call.
 	 * 
-	 * @return the handler.
+	 * @param events
+	 *            the events.
 	 */
-	EventHandler getHandler() {
-		return handler;
+	void sendEvents(final List<Event> events) {
+		if (blacklisted) {
+			return;
+		}
+		final EventHandler handler = getHandler();
+		if (handler == null) {
+			return;
+		}
+		final long begin = System.nanoTime();
+		final boolean watched = started.compareAndSet(0, begin);
+		try {
+			((BatchEventHandler) handler).handleEvents(events);
+		} catch (Exception shield) {
+			shield.printStackTrace();
+		} finally {
+			delivered(begin, watched);
+		}
+	}
+
+	private void delivered(final long begin, final boolean watched) {
+		if (watched) {
+			started.set(0);
+		}
+		final long latency = System.nanoTime() - begin;
+		int i = 0;
+		while (latency >= LATENCY_BOUNDS[i]) {
+			i++;
+		}
+		latencies.incrementAndGet(i);
 	}
 
 	/**
-	 * checks if an event matches the subscribed topics and the filter, if
-	 * present.
+	 * check if the handler accepts batches of events.
 	 * 
-	 * @param event
-	 *            the <code>Event</code>
-	 * @return <code>true</code> for the case that the event matches,
-	 *         <code>false</code> otherwise.
+	 * @return <code>true</code> if the handler is a {@link BatchEventHandler}.
 	 */
-	boolean matches(final Event event) {
-		if (topics != null && !stringMatch(topics, event.getTopic())) {
-			return false;
+	boolean isBatchHandler() {
+		return getHandler() instanceof BatchEventHandler;
+	}
+
+	/**
+	 * checks if the watched delivery has exceeded the timeout. Called by the
+	 * watchdog.
+	 * 
+	 * @param now
+	 *            the current time, in nanoseconds.
+	 * @param timeout
+	 *            the timeout, in nanoseconds.
+	 * @return the duration of the delivery in nanoseconds if it exceeded the
+	 *         timeout and has not been reported before, 0 otherwise.
+	 */
+	long checkTimeout(final long now, final long timeout) {
+		final long begin = started.get();
+		if (begin == 0 || begin == reported || now - begin < timeout) {
+			return 0;
 		}
-		if (filter != null && event.matches(filter)) {
+		reported = begin;
+		timeouts++;
+		return now - begin;
+	}
+
+	/**
+	 * checks if the delivery that has been reported as timed out has
+	 * returned. Called by the watchdog.
+	 * 
+	 * @return <code>true</code> if the delivery has returned.
+	 */
+	boolean checkReturned() {
+		if (started.get() == reported) {
 			return false;
 		}
+		reported = 0;
 		return true;
 	}
 
 	/**
-	 * checks if a string matches a pattern string. Either, the two strings must
-	 * be identical or the pattern must contain a wildcard and imply the topic.
+	 * stop delivering events to the handler.
+	 */
+	void blacklist() {
+		blacklisted = true;
+	}
+
+	/**
+	 * check if the handler has been blacklisted.
 	 * 
-	 * @param pattern
-	 *            a pattern string. E.g. <code>ch/ethz/iks/*</code>.
-	 * @param topic
-	 *            a topic. E.g. <code>ch/ethz/iks/SAMPLE_TOPIC</code>.
-	 * @return <code>true</code> if the topic matches the pattern string,
-	 *         <code>false</code> otherwise.
+	 * @return <code>true</code> if the handler has been blacklisted.
 	 */
-	private static boolean stringMatch(final String pattern, final String topic) {
-		final StringTokenizer strTokens = new StringTokenizer(pattern, "/");
-		final StringTokenizer topicTokens = new StringTokenizer(topic, "/");
-		while (strTokens.hasMoreTokens()) {
-			String current = strTokens.nextToken();
-			if (!topicTokens.hasMoreTokens()) {
-				return false;
-			}
-			if (current.equals("*") && !strTokens.hasMoreTokens()) {
-				return true;
-			}
-			if (!current.equals(topicTokens.nextToken())) {
-				return false;
-			}
+	boolean isBlacklisted() {
+		return blacklisted;
+	}
+
+	/**
+	 * get the number of deliveries that timed out.
+	 * 
+	 * @return the number of timeouts.
+	 */
+	int getTimeouts() {
+		return timeouts;
+	}
+
+	/**
+	 * get the latency histogram.
+	 * 
+	 * @return the number of deliveries per bucket of {@link #LATENCY_BOUNDS}.
+	 */
+	long[] getLatencies() {
+		final long[] result = new long[LATENCY_BOUNDS.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = latencies.get(i);
 		}
-		if (topicTokens.hasMoreTokens()) {
-			return false;
+		return result;
+	}
+
+	/**
+	 * get the number of completed deliveries. A batch of events delivered to
+	 * a {@link BatchEventHandler} counts as one delivery.
+	 * 
+	 * @return the number of deliveries.
+	 */
+	long getDeliveries() {
+		long sum = 0;
+		for (int i = 0; i < LATENCY_BOUNDS.length; i++) {
+			sum += latencies.get(i);
 		}
-		return true;
+		return sum;
 	}
 
 	/**
-	 * checks if a string matches one of the pattern strings.
+	 * get the service reference of the handler.
 	 * 
-	 * @param patterns
-	 *            an array of pattern strings.
-	 * @param topic
-	 *            a topic. E.g. <code>ch.ethz.iks.SampleTopic</code>.
-	 * @return <code>true</code> if the topic matches the pattern string,
+	 * @return the service reference.
+	 */
+	ServiceReference getReference() {
+		return reference;
+	}
+
+	/**
+	 * get the topics.
+	 * 
+	 * @return the topics or <code>null</code> if the handler subscribed to all
+	 *         topics.
+	 */
+	String[] getTopics() {
+		return topics;
+	}
+
+	/**
+	 * checks if an event matches the filter, if present. The topics are
+	 * matched by the {@link TopicIndex}.
+	 * 
+	 * @param event
+	 *            the <code>Event</code>
+	 * @return <code>true</code> for the case that the event matches,
 	 *         <code>false</code> otherwise.
 	 */
-	private static boolean stringMatch(final String[] patterns,
-			final String topic) {
-		for (int i = 0; i < patterns.length; i++) {
-			if (stringMatch(patterns[i], topic)) {
-				return true;
-			}
+	boolean matches(final Event event) {
+		if (filter != null && event.matches(filter)) {
+			return false;
 		}
-		return false;
+		return true;
 	}
 
+	/**
+	 * updates the topics and the filter. Subscriptions that are indexed must
+	 * be updated through {@link TopicIndex#update(Subscription, String[], Filter)}.
+	 * 
+	 * @param topics
+	 *            the new topics.
+	 * @param filter
+	 *            the new filter.
+	 */
 	void update(final String[] topics, final Filter filter) {
 		this.topics = topics;
 		this.filter = filter;
@@ -196,7 +425,13 @@ final class Subscription {
 	public String toString() {
 		StringBuffer buffer = new StringBuffer();
 		buffer.append("[EventHandlerSubscription] ");
-		buffer.append(handler.getClass().getName());
+		final EventHandler current = handler;
+		if (current != null) {
+			buffer.append(current.getClass().getName());
+		} else {
+			buffer.append("service ");
+			buffer.append(reference.getProperty(Constants.SERVICE_ID));
+		}
 		buffer.append(", topics ");
 		if (topics != null) {
 			buffer.append(Arrays.asList(topics));
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.osgi.framework.Filter;
+
+/**
+ * <p>
+ * indexes the subscriptions by the segments of their topic patterns. Every
+ * pattern is a path in a trie of topic segments, a pattern ending in a
+ * <code>*</code> wildcard is kept at the node of its prefix. Matching a topic
+ * walks the trie once along the segments of the topic instead of testing
+ * every pattern of every subscription.
+ * </p>
+ * <p>
+ * The subscriptions matching a topic are cached until the next subscription
+ * is added, modified, or removed.
+ * </p>
+ */
+final class TopicIndex {
+
+	/**
+	 * the maximum number of cached topics.
+	 */
+	private static final int CACHE_SIZE = 512;
+
+	/**
+	 * an empty result.
+	 */
+	private static final Subscription[] NONE = new Subscription[0];
+
+	/**
+	 * the root of the trie.
+	 */
+	private final Node root = new Node();
+
+	/**
+	 * the subscriptions without topics, they match every topic.
+	 */
+	private final List<Subscription> any = new ArrayList<Subscription>();
+
+	/**
+	 * the cached matches, by topic.
+	 */
+	private final Map<String, Subscription[]> cache = new ConcurrentHashMap<String, Subscription[]>();
+
+	/**
+	 * the lock. Matching holds the read lock, changes hold the write lock.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * add a subscription.
+	 *
+	 * @param subscription
+	 *            the subscription.
+	 */
+	void add(final Subscription subscription) {
+		lock.writeLock().lock();
+		try {
+			insert(subscription);
+			cache.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * remove a subscription.
+	 *
+	 * @param subscription
+	 *            the subscription.
+	 */
+	void remove(final Subscription subscription) {
+		lock.writeLock().lock();
+		try {
+			delete(subscription);
+			cache.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * update the topics and the filter of a subscription.
+	 *
+	 * @param subscription
+	 *            the subscription.
+	 * @param topics
+	 *            the new topics.
+	 * @param filter
+	 *            the new filter.
+	 */
+	void update(final Subscription subscription, final String[] topics,
+			final Filter filter) {
+		lock.writeLock().lock();
+		try {
+			delete(subscription);
+			subscription.update(topics, filter);
+			insert(subscription);
+			cache.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * get the subscriptions with a topic pattern that matches a topic. The
+	 * filters of the subscriptions are not checked.
+	 *
+	 * @param topic
+	 *            the topic.
+	 * @return the subscriptions, the array must not be modified.
+	 */
+	Subscription[] match(final String topic) {
+		final Subscription[] cached = cache.get(topic);
+		if (cached != null) {
+			return cached;
+		}
+
+		lock.readLock().lock();
+		try {
+			final LinkedHashSet<Subscription> result = new LinkedHashSet<Subscription>(
+					any);
+			final StringTokenizer tokens = new StringTokenizer(topic, "/");
+			Node node = root;
+			while (node != null && tokens.hasMoreTokens()) {
+				// a wildcard matches one or more remaining segments
+				result.addAll(node.wildcard);
+				node = node.children.get(tokens.nextToken());
+			}
+			if (node != null) {
+				result.addAll(node.exact);
+			}
+
+			final Subscription[] matches = result.isEmpty() ? NONE : result
+					.toArray(new Subscription[result.size()]);
+			if (cache.size() >= CACHE_SIZE) {
+				cache.clear();
+			}
+			cache.put(topic, matches);
+			return matches;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void insert(final Subscription subscription) {
+		final String[] topics = subscription.getTopics();
+		if (topics == null) {
+			any.add(subscription);
+			return;
+		}
+		for (int i = 0; i < topics.length; i++) {
+			final StringTokenizer tokens = new StringTokenizer(topics[i], "/");
+			Node node = root;
+			while (tokens.hasMoreTokens()) {
+				final String segment = tokens.nextToken();
+				if ("*".equals(segment) && !tokens.hasMoreTokens()) {
+					node.wildcard.add(subscription);
+					node = null;
+					break;
+				}
+				Node child = node.children.get(segment);
+				if (child == null) {
+					child = new Node();
+					node.children.put(segment, child);
+				}
+				node = child;
+			}
+			if (node != null) {
+				node.exact.add(subscription);
+			}
+		}
+	}
+
+	private void delete(final Subscription subscription) {
+		final String[] topics = subscription.getTopics();
+		if (topics == null) {
+			any.remove(subscription);
+			return;
+		}
+		for (int i = 0; i < topics.length; i++) {
+			delete(root, new StringTokenizer(topics[i], "/"), subscription);
+		}
+	}
+
+	private static void delete(final Node node, final StringTokenizer tokens,
+			final Subscription subscription) {
+		if (!tokens.hasMoreTokens()) {
+			node.exact.remove(subscription);
+			return;
+		}
+		final String segment = tokens.nextToken();
+		if ("*".equals(segment) && !tokens.hasMoreTokens()) {
+			node.wildcard.remove(subscription);
+			return;
+		}
+		final Node child = node.children.get(segment);
+		if (child != null) {
+			delete(child, tokens, subscription);
+			if (child.isEmpty()) {
+				node.children.remove(segment);
+			}
+		}
+	}
+
+	/**
+	 * a node of the trie.
+	 */
+	private static final class Node {
+
+		/**
+		 * the child nodes, by segment.
+		 */
+		final Map<String, Node> children = new HashMap<String, Node>(2);
+
+		/**
+		 * the subscriptions with a pattern ending at this node.
+		 */
+		final List<Subscription> exact = new ArrayList<Subscription>(1);
+
+		/**
+		 * the subscriptions with a pattern ending in a wildcard after this
+		 * node.
+		 */
+		final List<Subscription> wildcard = new ArrayList<Subscription>(1);
+
+		boolean isEmpty() {
+			return children.isEmpty() && exact.isEmpty() && wildcard.isEmpty();
+		}
+	}
+}
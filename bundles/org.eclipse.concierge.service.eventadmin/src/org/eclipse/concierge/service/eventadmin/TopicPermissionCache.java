@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgi.service.event.TopicPermission;
+
+/**
+ * <p>
+ * caches granted topic permissions by the access control context of the
+ * caller and the topic, so that a publisher does not pay the full permission
+ * check for every event.
+ * </p>
+ * <p>
+ * The cache is cleared when a permission admin service changes and when a
+ * bundle is updated or uninstalled. Since updates of the permission tables
+ * are not announced by the framework, the cache is also cleared after a
+ * time to live. Denied permissions are not cached.
+ * </p>
+ */
+final class TopicPermissionCache {
+
+	/**
+	 * the maximum number of cached decisions.
+	 */
+	private static final int CACHE_SIZE = 1024;
+
+	/**
+	 * the security manager.
+	 */
+	private final SecurityManager security;
+
+	/**
+	 * the time to live of the cached decisions, in milliseconds.
+	 */
+	private final long ttl;
+
+	/**
+	 * the granted permissions.
+	 */
+	private final Map<Key, Boolean> granted = new ConcurrentHashMap<Key, Boolean>();
+
+	/**
+	 * the time when the cache expires.
+	 */
+	private volatile long expires;
+
+	/**
+	 * create a new cache.
+	 * 
+	 * @param security
+	 *            the security manager.
+	 * @param ttl
+	 *            the time to live of the cached decisions, in milliseconds.
+	 *            0 disables the cache.
+	 */
+	TopicPermissionCache(final SecurityManager security, final long ttl) {
+		this.security = security;
+		this.ttl = ttl;
+		this.expires = System.currentTimeMillis() + ttl;
+	}
+
+	/**
+	 * check if the caller has the permission for a topic.
+	 * 
+	 * @param topic
+	 *            the topic.
+	 * @param action
+	 *            <code>TopicPermission.PUBLISH</code> or
+	 *            <code>TopicPermission.SUBSCRIBE</code>.
+	 * @throws SecurityException
+	 *             if the caller does not have the permission.
+	 */
+	void checkPermission(final String topic, final String action) {
+		if (ttl <= 0) {
+			security.checkPermission(new TopicPermission(topic, action));
+			return;
+		}
+
+		final long now = System.currentTimeMillis();
+		if (now > expires) {
+			granted.clear();
+			expires = now + ttl;
+		}
+
+		final Key key = new Key(AccessController.getContext(), topic, action);
+		if (granted.containsKey(key)) {
+			return;
+		}
+		security.checkPermission(new TopicPermission(topic, action));
+		if (granted.size() >= CACHE_SIZE) {
+			granted.clear();
+		}
+		granted.put(key, Boolean.TRUE);
+	}
+
+	/**
+	 * clear the cache.
+	 */
+	void clear() {
+		granted.clear();
+	}
+
+	/**
+	 * the key of a cached decision.
+	 */
+	private static final class Key {
+
+		private final AccessControlContext context;
+
+		private final String topic;
+
+		private final String action;
+
+		private final int hash;
+
+		Key(final AccessControlContext context, final String topic,
+				final String action) {
+			this.context = context;
+			this.topic = topic;
+			this.action = action;
+			this.hash = (context.hashCode() * 31 + topic.hashCode()) * 31
+					+ action.hashCode();
+		}
+
+		public boolean equals(final Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) o;
+			return hash == other.hash && topic.equals(other.topic)
+					&& action.equals(other.action)
+					&& context.equals(other.context);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin.api;
+
+import java.util.List;
+
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * Extension of the {@link EventAdmin} for publishers with a high rate of
+ * events. The Concierge event admin service is registered under this
+ * interface as well.
+ */
+public interface BatchEventAdmin extends EventAdmin {
+
+	/**
+	 * post a batch of events asynchronously. Equivalent to calling
+	 * {@link EventAdmin#postEvent(Event)} for every event in the order of the
+	 * list, but the events with the same topic are matched against the
+	 * subscriptions only once and every handler is scheduled only once for the
+	 * whole batch.
+	 * 
+	 * @param events
+	 *            the events.
+	 * @throws SecurityException
+	 *             if the caller does not have the permission to publish to
+	 *             the topic of one of the events. No event is posted in this
+	 *             case.
+	 */
+	void postEvents(List<Event> events);
+
+}
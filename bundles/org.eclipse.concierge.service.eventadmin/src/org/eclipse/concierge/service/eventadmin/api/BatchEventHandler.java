@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin.api;
+
+import java.util.List;
+
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * An {@link EventHandler} that can receive several posted events in one
+ * callback. It is registered as an <code>EventHandler</code> service, the
+ * Concierge event admin delivers posted events that are pending for the
+ * handler as one list, other implementations call
+ * {@link EventHandler#handleEvent(Event)} for every event. Events sent
+ * synchronously are always delivered through
+ * {@link EventHandler#handleEvent(Event)}.
+ */
+public interface BatchEventHandler extends EventHandler {
+
+	/**
+	 * handle posted events.
+	 * 
+	 * @param events
+	 *            the events in the order in which they were posted. The list
+	 *            must not be modified and is only valid during the call.
+	 */
+	void handleEvents(List<Event> events);
+
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.io.File;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.concierge.Factory;
+import org.junit.After;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.launch.Framework;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Base of the tests that run the EventAdmin on the system bundle of a
+ * framework that is launched in-process with a fresh storage.
+ */
+public abstract class EventAdminTestCase {
+
+	protected Framework framework;
+
+	protected BundleContext context;
+
+	protected EventAdminImpl eventAdmin;
+
+	private EventAdminActivator activator;
+
+	private File storage;
+
+	/**
+	 * launch the framework and start the EventAdmin.
+	 * 
+	 * @param keyValues
+	 *            pairs of launch property names and values.
+	 */
+	protected void start(final String... keyValues) throws Exception {
+		final Map<String, String> launchArgs = new HashMap<String, String>();
+		for (int i = 0; i + 1 < keyValues.length; i += 2) {
+			launchArgs.put(keyValues[i], keyValues[i + 1]);
+		}
+		storage = File.createTempFile("concierge", "");
+		storage.delete();
+		storage.mkdirs();
+		launchArgs.put(Constants.FRAMEWORK_STORAGE, storage.getAbsolutePath());
+		launchArgs.put(Constants.FRAMEWORK_STORAGE_CLEAN,
+				Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+		framework = new Factory().newFramework(launchArgs);
+		framework.init();
+		framework.start();
+		context = framework.getBundleContext();
+
+		activator = new EventAdminActivator();
+		activator.start(context);
+		eventAdmin = (EventAdminImpl) context.getService(context
+				.getServiceReference(EventAdmin.class));
+	}
+
+	/**
+	 * stop the EventAdmin, the framework keeps running.
+	 */
+	protected void stopEventAdmin() throws Exception {
+		if (activator != null) {
+			activator.stop(context);
+			activator = null;
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		try {
+			stopEventAdmin();
+		} finally {
+			if (framework != null) {
+				framework.stop();
+				framework.waitForStop(0);
+			}
+			delete(storage);
+		}
+	}
+
+	private static void delete(final File file) {
+		if (file == null) {
+			return;
+		}
+		final File[] files = file.listFiles();
+		if (files != null) {
+			for (final File child : files) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	protected ServiceRegistration<EventHandler> register(final String topic,
+			final EventHandler handler) {
+		final Dictionary<String, Object> props = new Hashtable<String, Object>();
+		props.put(EventConstants.EVENT_TOPIC, topic);
+		return context.registerService(EventHandler.class, handler, props);
+	}
+
+	protected static Event event(final String topic, final int seq) {
+		final Map<String, Object> props = new HashMap<String, Object>();
+		props.put("seq", Integer.valueOf(seq));
+		return new Event(topic, props);
+	}
+
+	protected static int seq(final Event event) {
+		return ((Integer) event.getProperty("seq")).intValue();
+	}
+
+	/**
+	 * a handler that records the events it receives. A blocking recorder
+	 * does not return from a delivery before it is released.
+	 */
+	static class Recorder implements EventHandler {
+
+		final BlockingQueue<Event> events = new LinkedBlockingQueue<Event>();
+
+		final BlockingQueue<Thread> threads = new LinkedBlockingQueue<Thread>();
+
+		final CountDownLatch entered = new CountDownLatch(1);
+
+		final CountDownLatch release;
+
+		Recorder() {
+			this(false);
+		}
+
+		Recorder(final boolean blocking) {
+			release = new CountDownLatch(blocking ? 1 : 0);
+		}
+
+		public void handleEvent(final Event event) {
+			threads.add(Thread.currentThread());
+			entered.countDown();
+			try {
+				release.await();
+			} catch (final InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+			events.add(event);
+		}
+
+		boolean awaitEntered() throws InterruptedException {
+			return entered.await(5, TimeUnit.SECONDS);
+		}
+
+		Event next() throws InterruptedException {
+			return events.poll(5, TimeUnit.SECONDS);
+		}
+
+	}
+
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.concierge.service.eventadmin.api.BatchEventAdmin;
+import org.eclipse.concierge.service.eventadmin.api.BatchEventHandler;
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+/**
+ * Tests the asynchronous delivery of posted events.
+ */
+public class EventDispatcherTest extends EventAdminTestCase {
+
+	private static final String THREADS = "org.eclipse.concierge.eventadmin.threads";
+
+	private static final String CAPACITY = "org.eclipse.concierge.eventadmin.queue.capacity";
+
+	private static final String POLICY = "org.eclipse.concierge.eventadmin.queue.policy";
+
+	private static final String TOPIC = "test/DISPATCH";
+
+	@Test
+	public void testOrderingPerHandler() throws Exception {
+		start(THREADS, "4");
+		final Recorder[] recorders = new Recorder[3];
+		for (int i = 0; i < recorders.length; i++) {
+			recorders[i] = new Recorder();
+			register(TOPIC, recorders[i]);
+		}
+
+		for (int i = 0; i < 500; i++) {
+			eventAdmin.postEvent(event(TOPIC, i));
+		}
+		for (int i = 0; i < 500; i++) {
+			for (int j = 0; j < recorders.length; j++) {
+				Assert.assertEquals(i, seq(recorders[j].next()));
+			}
+		}
+	}
+
+	@Test
+	public void testSlowHandlerDoesNotDelayOthers() throws Exception {
+		start(THREADS, "2");
+		final Recorder slow = new Recorder(true);
+		final Recorder fast = new Recorder();
+		register(TOPIC, slow);
+		register(TOPIC, fast);
+
+		eventAdmin.postEvent(event(TOPIC, 0));
+		eventAdmin.postEvent(event(TOPIC, 1));
+		Assert.assertTrue(slow.awaitEntered());
+		Assert.assertEquals(0, seq(fast.next()));
+		Assert.assertEquals(1, seq(fast.next()));
+
+		slow.release.countDown();
+		Assert.assertEquals(0, seq(slow.next()));
+		Assert.assertEquals(1, seq(slow.next()));
+	}
+
+	@Test
+	public void testDropPolicy() throws Exception {
+		start(CAPACITY, "1", POLICY, "drop");
+		final Recorder recorder = new Recorder(true);
+		register(TOPIC, recorder);
+
+		eventAdmin.postEvent(event(TOPIC, 0));
+		Assert.assertTrue(recorder.awaitEntered());
+		// the delivery in progress takes the capacity of the handler
+		for (int i = 1; i < 10; i++) {
+			eventAdmin.postEvent(event(TOPIC, i));
+		}
+		Assert.assertEquals(9, eventAdmin.getDropped());
+
+		recorder.release.countDown();
+		Assert.assertEquals(0, seq(recorder.next()));
+		// the capacity is released when the handler has returned
+		final Subscription subscription = eventAdmin.getSubscriptions()[0];
+		while (subscription.pending.get() > 0) {
+			Thread.sleep(1);
+		}
+		eventAdmin.postEvent(event(TOPIC, 10));
+		Assert.assertEquals(10, seq(recorder.next()));
+	}
+
+	@Test
+	public void testCallerRunsPolicy() throws Exception {
+		start(CAPACITY, "0", POLICY, "caller-runs");
+		final Recorder recorder = new Recorder();
+		register(TOPIC, recorder);
+
+		for (int i = 0; i < 3; i++) {
+			eventAdmin.postEvent(event(TOPIC, i));
+		}
+		Assert.assertEquals(3, recorder.events.size());
+		for (int i = 0; i < 3; i++) {
+			Assert.assertEquals(i, seq(recorder.events.poll()));
+			Assert.assertSame(Thread.currentThread(), recorder.threads.poll());
+		}
+		Assert.assertEquals(0, eventAdmin.getDropped());
+	}
+
+	@Test
+	public void testBlockPolicy() throws Exception {
+		start(CAPACITY, "1", POLICY, "block");
+		final Recorder recorder = new Recorder(true);
+		register(TOPIC, recorder);
+
+		eventAdmin.postEvent(event(TOPIC, 0));
+		Assert.assertTrue(recorder.awaitEntered());
+		final Thread publisher = post(event(TOPIC, 1));
+		publisher.join(200);
+		Assert.assertTrue(publisher.isAlive());
+
+		recorder.release.countDown();
+		publisher.join(5000);
+		Assert.assertFalse(publisher.isAlive());
+		Assert.assertEquals(0, seq(recorder.next()));
+		Assert.assertEquals(1, seq(recorder.next()));
+		Assert.assertEquals(0, eventAdmin.getDropped());
+	}
+
+	@Test
+	public void testBlockedHandlerDoesNotBlockOtherPublishers()
+			throws Exception {
+		start(CAPACITY, "1", POLICY, "block");
+		final Recorder blocked = new Recorder(true);
+		final Recorder other = new Recorder();
+		register(TOPIC, blocked);
+		register("test/OTHER", other);
+
+		eventAdmin.postEvent(event(TOPIC, 0));
+		Assert.assertTrue(blocked.awaitEntered());
+		for (int i = 0; i < 10; i++) {
+			eventAdmin.postEvent(event("test/OTHER", i));
+			Assert.assertEquals(i, seq(other.next()));
+		}
+		blocked.release.countDown();
+	}
+
+	@Test
+	public void testFrameworkEventsDoNotBlock() throws Exception {
+		start(CAPACITY, "1", POLICY, "block");
+		final Recorder recorder = new Recorder(true);
+		register("org/osgi/framework/ServiceEvent/*", recorder);
+
+		final Thread registrations = new Thread() {
+			public void run() {
+				for (int i = 0; i < 3; i++) {
+					context.registerService(Runnable.class, new Runnable() {
+						public void run() {
+						}
+					}, null);
+				}
+			}
+		};
+		registrations.setDaemon(true);
+		registrations.start();
+		registrations.join(5000);
+		Assert.assertFalse(registrations.isAlive());
+		Assert.assertTrue(recorder.awaitEntered());
+		Assert.assertTrue(eventAdmin.getDropped() > 0);
+		recorder.release.countDown();
+	}
+
+	@Test
+	public void testShutdownReleasesBlockedPublishers() throws Exception {
+		start(CAPACITY, "1", POLICY, "block");
+		final Recorder recorder = new Recorder(true);
+		register(TOPIC, recorder);
+
+		eventAdmin.postEvent(event(TOPIC, 0));
+		Assert.assertTrue(recorder.awaitEntered());
+		final Thread publisher = post(event(TOPIC, 1));
+		publisher.join(200);
+		Assert.assertTrue(publisher.isAlive());
+
+		stopEventAdmin();
+		publisher.join(5000);
+		Assert.assertFalse(publisher.isAlive());
+
+		// rejected
+		eventAdmin.postEvent(event(TOPIC, 2));
+		recorder.release.countDown();
+		Assert.assertEquals(0, seq(recorder.next()));
+		Assert.assertNull(recorder.events.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testBatchDelivery() throws Exception {
+		start();
+		final BatchRecorder recorder = new BatchRecorder(100);
+		register(TOPIC, recorder);
+
+		final List<Event> events = new ArrayList<Event>();
+		for (int i = 0; i < 100; i++) {
+			events.add(event(TOPIC, i));
+		}
+		context.getService(context.getServiceReference(BatchEventAdmin.class))
+				.postEvents(events);
+		Assert.assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+
+		synchronized (recorder) {
+			Assert.assertTrue(recorder.batches.size() > 1);
+			Assert.assertTrue(recorder.batches.size() < 100);
+			int i = 0;
+			for (final List<Event> batch : recorder.batches) {
+				for (final Event event : batch) {
+					Assert.assertEquals(i++, seq(event));
+				}
+			}
+		}
+	}
+
+	private Thread post(final Event event) {
+		final Thread publisher = new Thread() {
+			public void run() {
+				eventAdmin.postEvent(event);
+			}
+		};
+		publisher.setDaemon(true);
+		publisher.start();
+		return publisher;
+	}
+
+	/**
+	 * a batch handler that records the batches it receives.
+	 */
+	static class BatchRecorder implements BatchEventHandler {
+
+		final List<List<Event>> batches = new ArrayList<List<Event>>();
+
+		final CountDownLatch done;
+
+		BatchRecorder(final int expected) {
+			done = new CountDownLatch(expected);
+		}
+
+		public void handleEvent(final Event event) {
+			final List<Event> batch = new ArrayList<Event>();
+			batch.add(event);
+			handleEvents(batch);
+		}
+
+		public void handleEvents(final List<Event> events) {
+			synchronized (this) {
+				batches.add(new ArrayList<Event>(events));
+			}
+			for (int i = 0; i < events.size(); i++) {
+				done.countDown();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Tests that the subscriptions follow the registrations of the handlers.
+ */
+public class EventHandlerTrackerTest extends EventAdminTestCase {
+
+	@Test
+	public void testAddModifyRemove() throws Exception {
+		start();
+		final Recorder recorder = new Recorder();
+		final ServiceRegistration<EventHandler> reg = register("test/A",
+				recorder);
+		Assert.assertEquals(1, eventAdmin.getSubscriptions().length);
+
+		eventAdmin.sendEvent(event("test/A", 0));
+		Assert.assertEquals(0, seq(recorder.events.poll()));
+
+		final Dictionary<String, Object> props = new Hashtable<String, Object>();
+		props.put(EventConstants.EVENT_TOPIC, new String[] { "test/B",
+				"test/C/*" });
+		reg.setProperties(props);
+		Assert.assertEquals(1, eventAdmin.getSubscriptions().length);
+		eventAdmin.sendEvent(event("test/A", 1));
+		eventAdmin.sendEvent(event("test/B", 2));
+		eventAdmin.sendEvent(event("test/C/D", 3));
+		Assert.assertEquals(2, seq(recorder.events.poll()));
+		Assert.assertEquals(3, seq(recorder.events.poll()));
+		Assert.assertNull(recorder.events.poll());
+
+		reg.unregister();
+		Assert.assertEquals(0, eventAdmin.getSubscriptions().length);
+		eventAdmin.sendEvent(event("test/B", 4));
+		Assert.assertNull(recorder.events.poll());
+	}
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Tests the watchdog of handler deliveries.
+ */
+public class HandlerTimeoutTest extends EventAdminTestCase {
+
+	private static final String TOPIC = "test/TIMEOUT";
+
+	private Subscription getSubscription(final ServiceRegistration<?> reg) {
+		final Subscription[] subscriptions = eventAdmin.getSubscriptions();
+		for (int i = 0; i < subscriptions.length; i++) {
+			if (subscriptions[i].getReference().equals(reg.getReference())) {
+				return subscriptions[i];
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void testReportsTimeout() throws Exception {
+		start("org.eclipse.concierge.eventadmin.timeout", "100");
+		final Recorder stuck = new Recorder(true);
+		final Recorder timeouts = new Recorder();
+		final ServiceRegistration<EventHandler> reg = register(TOPIC, stuck);
+		register(EventAdminImpl.TIMEOUT_TOPIC, timeouts);
+
+		eventAdmin.postEvent(event(TOPIC, 0));
+		final Event timeout = timeouts.next();
+		Assert.assertNotNull(timeout);
+		Assert.assertEquals(reg.getReference().getProperty(Constants.SERVICE_ID),
+				timeout.getProperty("service.id"));
+		Assert.assertEquals(Boolean.FALSE, timeout.getProperty("blacklisted"));
+		Assert.assertEquals(1, getSubscription(reg).getTimeouts());
+		Assert.assertFalse(getSubscription(reg).isBlacklisted());
+
+		// still receives events after the delivery returned
+		stuck.release.countDown();
+		eventAdmin.postEvent(event(TOPIC, 1));
+		Assert.assertEquals(0, seq(stuck.next()));
+		Assert.assertEquals(1, seq(stuck.next()));
+	}
+
+	@Test
+	public void testBlacklistsHandler() throws Exception {
+		start("org.eclipse.concierge.eventadmin.timeout", "100",
+				"org.eclipse.concierge.eventadmin.blacklist", "true",
+				"org.eclipse.concierge.eventadmin.queue.capacity", "2",
+				"org.eclipse.concierge.eventadmin.queue.policy", "block");
+		final Recorder stuck = new Recorder(true);
+		final Recorder timeouts = new Recorder();
+		final ServiceRegistration<EventHandler> reg = register(TOPIC, stuck);
+		register(EventAdminImpl.TIMEOUT_TOPIC, timeouts);
+
+		eventAdmin.postEvent(event(TOPIC, 0));
+		Assert.assertTrue(stuck.awaitEntered());
+		// queued behind the stuck delivery
+		eventAdmin.postEvent(event(TOPIC, 1));
+
+		final Event timeout = timeouts.next();
+		Assert.assertNotNull(timeout);
+		Assert.assertEquals(Boolean.TRUE, timeout.getProperty("blacklisted"));
+		final Subscription subscription = getSubscription(reg);
+		Assert.assertTrue(subscription.isBlacklisted());
+		// the queued event has been discarded and its capacity released
+		Assert.assertEquals(1, subscription.pending.get());
+		Assert.assertTrue(subscription.queue.isEmpty());
+
+		// the publisher is neither blocked nor is the event queued
+		for (int i = 2; i < 10; i++) {
+			eventAdmin.postEvent(event(TOPIC, i));
+		}
+		Assert.assertTrue(subscription.queue.isEmpty());
+
+		stuck.release.countDown();
+		Assert.assertEquals(0, seq(stuck.next()));
+		Assert.assertNull(stuck.events.poll(200, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(0, subscription.pending.get());
+	}
+
+}
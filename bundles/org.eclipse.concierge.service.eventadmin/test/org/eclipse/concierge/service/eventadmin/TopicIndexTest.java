@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the matching of topics against the topic patterns of the
+ * subscriptions.
+ */
+public class TopicIndexTest {
+
+	private final TopicIndex index = new TopicIndex();
+
+	private Subscription subscribe(final String... topics) {
+		final Subscription subscription = new Subscription(null, topics, null);
+		index.add(subscription);
+		return subscription;
+	}
+
+	private List<Subscription> match(final String topic) {
+		return Arrays.asList(index.match(topic));
+	}
+
+	@Test
+	public void testExactMatch() {
+		final Subscription s = subscribe("a/b/c");
+		Assert.assertEquals(Arrays.asList(s), match("a/b/c"));
+		Assert.assertTrue(match("a/b").isEmpty());
+		Assert.assertTrue(match("a/b/c/d").isEmpty());
+		Assert.assertTrue(match("a/b/x").isEmpty());
+	}
+
+	@Test
+	public void testWildcardMatch() {
+		final Subscription s = subscribe("a/b/*");
+		Assert.assertEquals(Arrays.asList(s), match("a/b/c"));
+		Assert.assertEquals(Arrays.asList(s), match("a/b/c/d"));
+		Assert.assertTrue(match("a/b").isEmpty());
+		Assert.assertTrue(match("a/x/c").isEmpty());
+	}
+
+	@Test
+	public void testMatchAll() {
+		final Subscription star = subscribe("*");
+		final Subscription all = new Subscription(null, null, null);
+		index.add(all);
+		final List<Subscription> matches = match("a/b");
+		Assert.assertEquals(2, matches.size());
+		Assert.assertTrue(matches.contains(star));
+		Assert.assertTrue(matches.contains(all));
+	}
+
+	@Test
+	public void testSeveralPatternsMatchOnce() {
+		final Subscription s = subscribe("a/*", "a/b/*", "a/b/c");
+		Assert.assertEquals(Arrays.asList(s), match("a/b/c"));
+	}
+
+	@Test
+	public void testWildcardOnlyAtTheEnd() {
+		final Subscription s = subscribe("a/*/c");
+		Assert.assertEquals(Arrays.asList(s), match("a/*/c"));
+		Assert.assertTrue(match("a/b/c").isEmpty());
+	}
+
+	@Test
+	public void testUpdateAndRemove() {
+		final Subscription s = subscribe("a/b");
+		Assert.assertEquals(Arrays.asList(s), match("a/b"));
+
+		// the cached result is invalidated
+		index.update(s, new String[] { "x/*" }, null);
+		Assert.assertTrue(match("a/b").isEmpty());
+		Assert.assertEquals(Arrays.asList(s), match("x/y"));
+
+		final Subscription t = subscribe("x/y");
+		Assert.assertEquals(2, match("x/y").size());
+
+		index.remove(s);
+		Assert.assertEquals(Arrays.asList(t), match("x/y"));
+		index.remove(t);
+		Assert.assertTrue(match("x/y").isEmpty());
+	}
+
+}
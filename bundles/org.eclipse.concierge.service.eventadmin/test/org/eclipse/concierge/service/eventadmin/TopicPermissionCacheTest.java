@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.eventadmin;
+
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.service.event.TopicPermission;
+
+/**
+ * Tests the cache of granted topic permissions. The security manager is not
+ * installed, it only counts the checks.
+ */
+public class TopicPermissionCacheTest {
+
+	private final CountingSecurityManager security = new CountingSecurityManager();
+
+	@Test
+	public void testCachesGrantedPermissions() {
+		final TopicPermissionCache cache = new TopicPermissionCache(security,
+				60000);
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		Assert.assertEquals(1, security.checks.size());
+
+		cache.checkPermission("a/b", TopicPermission.SUBSCRIBE);
+		cache.checkPermission("a/c", TopicPermission.PUBLISH);
+		Assert.assertEquals(3, security.checks.size());
+	}
+
+	@Test
+	public void testClear() {
+		final TopicPermissionCache cache = new TopicPermissionCache(security,
+				60000);
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		cache.clear();
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		Assert.assertEquals(2, security.checks.size());
+	}
+
+	@Test
+	public void testExpires() throws Exception {
+		final TopicPermissionCache cache = new TopicPermissionCache(security,
+				50);
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		Thread.sleep(100);
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		Assert.assertEquals(2, security.checks.size());
+	}
+
+	@Test
+	public void testDisabled() {
+		final TopicPermissionCache cache = new TopicPermissionCache(security,
+				0);
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		cache.checkPermission("a/b", TopicPermission.PUBLISH);
+		Assert.assertEquals(2, security.checks.size());
+	}
+
+	@Test
+	public void testDoesNotCacheDeniedPermissions() {
+		final TopicPermissionCache cache = new TopicPermissionCache(security,
+				60000);
+		security.deny = "a/denied";
+		for (int i = 0; i < 2; i++) {
+			try {
+				cache.checkPermission("a/denied", TopicPermission.PUBLISH);
+				Assert.fail();
+			} catch (final SecurityException se) {
+				// expected
+			}
+		}
+		Assert.assertEquals(2, security.checks.size());
+	}
+
+	/**
+	 * records the permission checks and denies the permissions for one
+	 * topic.
+	 */
+	static class CountingSecurityManager extends SecurityManager {
+
+		final List<Permission> checks = new ArrayList<Permission>();
+
+		String deny;
+
+		public void checkPermission(final Permission perm) {
+			checks.add(perm);
+			if (perm.getName().equals(deny)) {
+				throw new SecurityException(perm.toString());
+			}
+		}
+
+	}
+
+}
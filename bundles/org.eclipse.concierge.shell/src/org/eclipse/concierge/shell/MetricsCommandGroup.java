@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.shell;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.eclipse.concierge.api.FrameworkMetrics;
+import org.eclipse.concierge.api.FrameworkMetrics.Latency;
+import org.eclipse.concierge.shell.commands.ShellCommandGroup;
+
+/**
+ * the framework metrics shell commands.
+ */
+final class MetricsCommandGroup implements ShellCommandGroup {
+	/**
+	 * the framework metrics instance.
+	 */
+	private FrameworkMetrics metrics;
+
+	/**
+	 * create a new command group.
+	 * 
+	 * @param obj
+	 *            the framework metrics instance.
+	 */
+	MetricsCommandGroup(final Object obj) {
+		this.metrics = (FrameworkMetrics) obj;
+	}
+
+	/**
+	 * get the group identifier.
+	 * 
+	 * @return the group identifier.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getGroup()
+	 */
+	public String getGroup() {
+		return "metrics";
+	}
+
+	/**
+	 * get the help page.
+	 * 
+	 * @return the help page.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getHelp()
+	 */
+	public String getHelp() {
+		return "\tmetrics.{\n\t\tenable [on|off]\n\t\tshow\n\t\texport [<file>]\n\t\treset\n\t}";
+	}
+
+	/**
+	 * handle a command.
+	 * 
+	 * @param command
+	 *            the command.
+	 * @param args
+	 *            the arguments.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#handleCommand(java.lang.String,
+	 *      java.lang.String[])
+	 */
+	public void handleCommand(final String command, final String[] args) {
+		final String cmd = command.intern();
+		if (cmd == "enable") {
+			if (args.length > 0) {
+				metrics.setEnabled("on".equals(args[0]));
+			}
+			Shell.out.println("Metrics are "
+					+ (metrics.isEnabled() ? "on" : "off"));
+		} else if (cmd == "show") {
+			final String[] names = metrics.getNames();
+			for (int i = 0; i < names.length; i++) {
+				final Latency latency = metrics.getLatency(names[i]);
+				Shell.out.println("\t" + names[i] + ": "
+						+ metrics.getCount(names[i])
+						+ (latency == null ? ""
+								: ", " + latency.getSamples() + " samples, p50 "
+										+ millis(latency.getPercentile(50))
+										+ " ms, p99 "
+										+ millis(latency.getPercentile(99))
+										+ " ms, max "
+										+ millis(latency.getMax()) + " ms"));
+			}
+		} else if (cmd == "export") {
+			if (args.length == 0) {
+				Shell.out.print(metrics.export());
+				return;
+			}
+			Writer out = null;
+			try {
+				out = new OutputStreamWriter(new FileOutputStream(args[0]),
+						"UTF-8");
+				out.write(metrics.export());
+			} catch (final IOException ioe) {
+				Shell.err.println("Could not export metrics to " + args[0]
+						+ ": " + ioe.getMessage());
+			} finally {
+				if (out != null) {
+					try {
+						out.close();
+					} catch (final IOException ioe) {
+						// ignore
+					}
+				}
+			}
+		} else if (cmd == "reset") {
+			metrics.reset();
+		} else {
+			Shell.err.println("Unknown command metrics." + cmd);
+		}
+	}
+
+	private static String millis(final long nanos) {
+		return String.valueOf(nanos / 1000000.0);
+	}
+}
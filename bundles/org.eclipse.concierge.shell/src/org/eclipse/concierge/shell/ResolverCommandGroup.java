@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.shell;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.concierge.api.ResolverMonitor;
+import org.eclipse.concierge.api.ResolverTrace;
+import org.eclipse.concierge.api.ResolverTrace.RequirementTrace;
+import org.eclipse.concierge.shell.commands.ShellCommandGroup;
+
+/**
+ * the resolver trace shell commands.
+ */
+final class ResolverCommandGroup implements ShellCommandGroup {
+	/**
+	 * the resolver monitor instance.
+	 */
+	private ResolverMonitor monitor;
+
+	/**
+	 * create a new command group.
+	 * 
+	 * @param obj
+	 *            the resolver monitor instance.
+	 */
+	ResolverCommandGroup(final Object obj) {
+		this.monitor = (ResolverMonitor) obj;
+	}
+
+	/**
+	 * get the group identifier.
+	 * 
+	 * @return the group identifier.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getGroup()
+	 */
+	public String getGroup() {
+		return "resolver";
+	}
+
+	/**
+	 * get the help page.
+	 * 
+	 * @return the help page.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getHelp()
+	 */
+	public String getHelp() {
+		return "\tresolver.{\n\t\ttrace [on|off]\n\t\ttraces\n\t\tshow [<trace>] [<requirements>]\n\t\tclear\n\t}";
+	}
+
+	/**
+	 * handle a command.
+	 * 
+	 * @param command
+	 *            the command.
+	 * @param args
+	 *            the arguments.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#handleCommand(java.lang.String,
+	 *      java.lang.String[])
+	 */
+	public void handleCommand(final String command, final String[] args) {
+		try {
+			final String cmd = command.intern();
+			if (cmd == "trace") {
+				if (args.length > 0) {
+					monitor.setEnabled("on".equals(args[0]));
+				}
+				Shell.out.println("Resolver trace is "
+						+ (monitor.isEnabled() ? "on" : "off"));
+			} else if (cmd == "traces") {
+				final List<ResolverTrace> traces = monitor.getTraces();
+				Shell.out.println("Resolver traces:");
+				for (int i = 0; i < traces.size(); i++) {
+					final ResolverTrace trace = traces.get(i);
+					Shell.out.println("[" + i + "] "
+							+ new Date(trace.getTimestamp()) + " "
+							+ trace.getResources().size() + " resources, "
+							+ millis(trace.getDuration()) + " ms, "
+							+ (trace.isSuccessful() ? "resolved" : "failed"));
+				}
+			} else if (cmd == "show") {
+				final List<ResolverTrace> traces = monitor.getTraces();
+				if (traces.isEmpty()) {
+					Shell.out.println("No resolver traces.");
+					return;
+				}
+				final int index = args.length > 0 ? Integer.parseInt(args[0])
+						: traces.size() - 1;
+				final int max = args.length > 1 ? Integer.parseInt(args[1])
+						: 10;
+				show(traces.get(index), max);
+			} else if (cmd == "clear") {
+				monitor.clear();
+			} else {
+				Shell.err.println("Unknown command resolver." + cmd);
+			}
+		} catch (final NumberFormatException nfe) {
+			Shell.err.println("Illegal argument " + nfe.getMessage());
+		} catch (final IndexOutOfBoundsException ioobe) {
+			Shell.err.println("No such trace " + args[0]);
+		}
+	}
+
+	private void show(final ResolverTrace trace, final int max) {
+		Shell.out.println("Resolve of " + trace.getResources().size()
+				+ " resources took " + millis(trace.getDuration()) + " ms, "
+				+ (trace.isSuccessful() ? "resolved" : "failed"));
+		for (int i = 0; i < ResolverTrace.PHASES.length; i++) {
+			Shell.out.println("\t" + ResolverTrace.PHASES[i] + ": "
+					+ millis(trace.getTime(i)) + " ms, "
+					+ trace.getInvocations(i) + " invocations");
+		}
+
+		final List<RequirementTrace> requirements = new ArrayList<RequirementTrace>(
+				trace.getRequirements());
+		Collections.sort(requirements, new Comparator<RequirementTrace>() {
+			public int compare(final RequirementTrace r1,
+					final RequirementTrace r2) {
+				return r1.getTime() < r2.getTime() ? 1
+						: r1.getTime() == r2.getTime() ? 0 : -1;
+			}
+		});
+		Shell.out.println("Slowest requirements:");
+		for (int i = 0; i < requirements.size() && i < max; i++) {
+			final RequirementTrace req = requirements.get(i);
+			Shell.out.println("\t" + req.getRequirement().getResource() + " "
+					+ req.getRequirement() + ": " + req.getCandidates()
+					+ " candidates, " + millis(req.getTime()) + " ms");
+		}
+	}
+
+	private static String millis(final long nanos) {
+		return String.valueOf(nanos / 1000000.0);
+	}
+}
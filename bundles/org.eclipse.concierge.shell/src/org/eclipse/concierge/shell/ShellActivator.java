@@ -59,6 +59,27 @@ public class ShellActivator implements BundleActivator {
 					.getService(pkgAdminRef)));
 		}
 
+		final ServiceReference<?> resolverMonitorRef = context
+				.getServiceReference("org.eclipse.concierge.api.ResolverMonitor");
+		if (resolverMonitorRef != null) {
+			plugins.add(new ResolverCommandGroup(context
+					.getService(resolverMonitorRef)));
+		}
+
+		final ServiceReference<?> metricsRef = context
+				.getServiceReference("org.eclipse.concierge.api.FrameworkMetrics");
+		if (metricsRef != null) {
+			plugins.add(new MetricsCommandGroup(context
+					.getService(metricsRef)));
+		}
+
+		final ServiceReference<?> timelineRef = context
+				.getServiceReference("org.eclipse.concierge.api.BootTimeline");
+		if (timelineRef != null) {
+			plugins.add(new TimelineCommandGroup(context
+					.getService(timelineRef)));
+		}
+
 		shell = new Shell(System.out, System.err,
 				(ShellCommandGroup[]) plugins
 						.toArray(new ShellCommandGroup[plugins.size()]));
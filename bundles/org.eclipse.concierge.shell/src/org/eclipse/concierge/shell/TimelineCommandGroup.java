@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.shell;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.concierge.api.BootTimeline;
+import org.eclipse.concierge.api.BootTimeline.Span;
+import org.eclipse.concierge.shell.commands.ShellCommandGroup;
+
+/**
+ * the boot timeline shell commands.
+ */
+final class TimelineCommandGroup implements ShellCommandGroup {
+	/**
+	 * the boot timeline instance.
+	 */
+	private BootTimeline timeline;
+
+	/**
+	 * create a new command group.
+	 * 
+	 * @param obj
+	 *            the boot timeline instance.
+	 */
+	TimelineCommandGroup(final Object obj) {
+		this.timeline = (BootTimeline) obj;
+	}
+
+	/**
+	 * get the group identifier.
+	 * 
+	 * @return the group identifier.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getGroup()
+	 */
+	public String getGroup() {
+		return "timeline";
+	}
+
+	/**
+	 * get the help page.
+	 * 
+	 * @return the help page.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#getHelp()
+	 */
+	public String getHelp() {
+		return "\ttimeline.{\n\t\tshow\n\t\texport [<file>]\n\t}";
+	}
+
+	/**
+	 * handle a command.
+	 * 
+	 * @param command
+	 *            the command.
+	 * @param args
+	 *            the arguments.
+	 * @see org.eclipse.concierge.shell.commands.ShellCommandGroup#handleCommand(java.lang.String,
+	 *      java.lang.String[])
+	 */
+	public void handleCommand(final String command, final String[] args) {
+		final String cmd = command.intern();
+		if (cmd == "show") {
+			// the ends of the enclosing spans
+			final List<Long> open = new ArrayList<Long>();
+			for (final Span span : timeline.getSpans()) {
+				final long end = span.getStart() + span.getDuration();
+				while (!open.isEmpty()
+						&& open.get(open.size() - 1).longValue() < end) {
+					open.remove(open.size() - 1);
+				}
+				final StringBuffer indent = new StringBuffer("\t");
+				for (int i = 0; i < open.size(); i++) {
+					indent.append("  ");
+				}
+				Shell.out.println(indent + span.getName() + ": "
+						+ millis(span.getDuration()) + " ms (at "
+						+ millis(span.getStart()) + " ms, "
+						+ span.getThreadName() + ")");
+				open.add(new Long(end));
+			}
+			if (timeline.getDropped() > 0) {
+				Shell.out.println(
+						"\t" + timeline.getDropped() + " spans dropped");
+			}
+		} else if (cmd == "export") {
+			if (args.length == 0) {
+				Shell.out.print(timeline.toTraceEvents());
+				return;
+			}
+			Writer out = null;
+			try {
+				out = new OutputStreamWriter(new FileOutputStream(args[0]),
+						"UTF-8");
+				out.write(timeline.toTraceEvents());
+			} catch (final IOException ioe) {
+				Shell.err.println("Could not export the timeline to "
+						+ args[0] + ": " + ioe.getMessage());
+			} finally {
+				if (out != null) {
+					try {
+						out.close();
+					} catch (final IOException ioe) {
+						// ignore
+					}
+				}
+			}
+		} else {
+			Shell.err.println("Unknown command timeline." + cmd);
+		}
+	}
+
+	private static String millis(final long nanos) {
+		return String.valueOf(nanos / 1000000.0);
+	}
+}
@@ -21,6 +21,10 @@ import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.concierge.BundleImpl.Revision;
 import org.eclipse.concierge.Concierge.BundleContextImpl;
@@ -70,6 +74,13 @@ public abstract class AbstractBundle implements Bundle, BundleRevisions {
 	 */
 	protected List<ServiceReference<?>> registeredServices;
 
+	/**
+	 * the services used by this bundle, with their use counters. The counters
+	 * are shared with the service references.
+	 */
+	final ConcurrentMap<ServiceReference<?>, AtomicInteger> servicesInUse = new ConcurrentHashMap<ServiceReference<?>, AtomicInteger>(
+			4, 0.75f, 2);
+
 	/**
 	 * the storage location.
 	 */
@@ -171,6 +182,26 @@ public abstract class AbstractBundle implements Bundle, BundleRevisions {
 		}
 	}
 
+	/**
+	 * get the services used by this bundle.
+	 * 
+	 * @return the service references or <code>null</code> if the bundle does
+	 *         not use any service.
+	 */
+	@SuppressWarnings("rawtypes")
+	protected final ServiceReferenceImpl<?>[] collectServicesInUse() {
+		final ArrayList<ServiceReferenceImpl<?>> result = new ArrayList<ServiceReferenceImpl<?>>(
+				servicesInUse.size());
+		for (final Map.Entry<ServiceReference<?>, AtomicInteger> entry : servicesInUse
+				.entrySet()) {
+			if (entry.getValue().get() > 0) {
+				result.add((ServiceReferenceImpl<?>) entry.getKey());
+			}
+		}
+		return result.isEmpty() ? null
+				: result.toArray(new ServiceReferenceImpl[result.size()]);
+	}
+
 	/**
 	 * check if the bundle has a certain permission.
 	 * 
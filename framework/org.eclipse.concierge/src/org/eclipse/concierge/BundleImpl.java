@@ -70,6 +70,7 @@ import org.eclipse.concierge.Resources.BundleCapabilityImpl;
 import org.eclipse.concierge.Resources.BundleRequirementImpl;
 import org.eclipse.concierge.Resources.ConciergeBundleWire;
 import org.eclipse.concierge.Resources.ConciergeBundleWiring;
+import org.eclipse.concierge.api.BootTimeline;
 import org.eclipse.concierge.compat.LegacyBundleProcessing;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleActivator;
@@ -194,6 +195,18 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 			final BundleContext installingContext, final String location,
 			final long bundleId, final InputStream stream)
 					throws BundleException {
+		this(framework, installingContext, location, bundleId,
+				storeContent(framework, location, bundleId, 0, stream));
+	}
+
+	/**
+	 * create a new bundle from content that has already been written to the
+	 * storage, e.g., by a worker thread of a bulk installation.
+	 */
+	BundleImpl(final Concierge framework,
+			final BundleContext installingContext, final String location,
+			final long bundleId, final RevisionContent content)
+					throws BundleException {
 		this.framework = framework;
 		this.location = location;
 		this.bundleId = bundleId;
@@ -222,7 +235,8 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 		this.storageLocation = framework.STORAGE_LOCATION + bundleId
 				+ File.separatorChar;
 
-		currentRevision = readAndProcessInputStream(stream);
+		currentRevisionNumber = content.revisionNumber;
+		currentRevision = createRevision(content);
 		symbolicName = currentRevision.getSymbolicName();
 		version = currentRevision.getVersion();
 		revisions.add(0, currentRevision);
@@ -321,6 +335,7 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 			out.writeShort(autostart);
 			out.writeBoolean(lazyActivation);
 			out.writeLong(lastModified);
+			framework.metrics.count(Metrics.STORAGE_WRITE);
 		} catch (final IOException ioe) {
 			ioe.printStackTrace();
 		} finally {
@@ -344,8 +359,55 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 	 */
 	private Revision readAndProcessInputStream(final InputStream inStream)
 			throws BundleException {
+		return createRevision(storeContent(framework, location, bundleId,
+				++currentRevisionNumber, inStream));
+	}
+
+	/**
+	 * create the revision object for content that has been written to the
+	 * storage.
+	 * 
+	 * @param content
+	 *            the stored content.
+	 * @return the revision.
+	 * @throws BundleException
+	 */
+	private Revision createRevision(final RevisionContent content)
+			throws BundleException {
+		if (content.jar == null) {
+			return new ExplodedJarBundleRevision(content.revisionNumber,
+					content.contentDir, content.manifest,
+					content.classpathStrings);
+		} else {
+			return new JarBundleRevision(content.revisionNumber, content.jar,
+					content.manifest, content.classpathStrings);
+		}
+	}
 
-		final int revisionNumber = ++currentRevisionNumber;
+	/**
+	 * writes the bundle to the storage, opens it, and reads the manifest. Does
+	 * not touch any framework state and can therefore run concurrently for
+	 * different bundles.
+	 * 
+	 * @param framework
+	 *            the framework.
+	 * @param location
+	 *            the location of the bundle.
+	 * @param bundleId
+	 *            the id of the bundle.
+	 * @param revisionNumber
+	 *            the number of the new revision.
+	 * @param inStream
+	 *            the input stream of the bundle
+	 * @return the stored content.
+	 * @throws BundleException
+	 */
+	static RevisionContent storeContent(final Concierge framework,
+			final String location, final long bundleId,
+			final int revisionNumber, final InputStream inStream)
+					throws BundleException {
+		final String storageLocation = framework.STORAGE_LOCATION + bundleId
+				+ File.separatorChar;
 
 		try {
 			// write the JAR file to the storage
@@ -353,6 +415,7 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 					BUNDLE_FILE_NAME + revisionNumber);
 
 			storeFile(file, inStream);
+			framework.metrics.count(Metrics.STORAGE_WRITE);
 
 			// and open a JarFile
 			// TODO: check when verification is really required...
@@ -388,11 +451,11 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 				// delete the bundle jar
 				jar.close();
 				new File(jar.getName()).delete();
-				return new ExplodedJarBundleRevision(revisionNumber,
+				return new RevisionContent(revisionNumber, null,
 						contentDir.getAbsolutePath(), manifest,
 						classpathStrings);
 			} else {
-				return new JarBundleRevision(revisionNumber, jar, manifest,
+				return new RevisionContent(revisionNumber, jar, null, manifest,
 						classpathStrings);
 			}
 		} catch (final IOException ioe) {
@@ -407,6 +470,35 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 		}
 	}
 
+	/**
+	 * the content of a revision after it has been written to the storage.
+	 * Either the opened JAR file or the directory the JAR file has been
+	 * decompressed to is set.
+	 */
+	static final class RevisionContent {
+
+		final int revisionNumber;
+
+		final JarFile jar;
+
+		final String contentDir;
+
+		final Manifest manifest;
+
+		final String[] classpathStrings;
+
+		RevisionContent(final int revisionNumber, final JarFile jar,
+				final String contentDir, final Manifest manifest,
+				final String[] classpathStrings) {
+			this.revisionNumber = revisionNumber;
+			this.jar = jar;
+			this.contentDir = contentDir;
+			this.manifest = manifest;
+			this.classpathStrings = classpathStrings;
+		}
+
+	}
+
 	// FIXME: can't this be called from constructor???
 	void install() throws BundleException {
 		// we are just installing the bundle, if it is
@@ -522,6 +614,7 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 		if (currentRevision.isFragment()) {
 			return;
 		}
+		framework.metrics.count(Metrics.BUNDLE_START);
 
 		// step4
 		if (state == INSTALLED) {
@@ -559,6 +652,8 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 		state = STARTING;
 		// step7
 		framework.notifyBundleListeners(BundleEvent.STARTING, this);
+		final int span = framework.timeline.begin(BootTimeline.ACTIVATE,
+				"activate", this);
 		// step8 (part 1)
 		try {
 			context.isValid = true;
@@ -582,6 +677,7 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 			}
 			// step10
 			state = ACTIVE;
+			framework.timeline.end(span);
 			// step11
 			framework.notifyBundleListeners(BundleEvent.STARTED, this);
 			if (framework.DEBUG_BUNDLES) {
@@ -684,6 +780,7 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 		if (state == INSTALLED) {
 			return;
 		}
+		framework.metrics.count(Metrics.BUNDLE_STOP);
 
 		final int oldState = state;
 		// step 5
@@ -1018,29 +1115,16 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 					"Bundle " + toString() + "has been unregistered.");
 		}
 
-		if (registeredServices == null) {
+		final ServiceReferenceImpl<?>[] result = collectServicesInUse();
+		if (result == null) {
 			return null;
 		}
 
-		final ArrayList<ServiceReference<?>> result = new ArrayList<ServiceReference<?>>();
-		final ServiceReference<?>[] srefs = registeredServices
-				.toArray(new ServiceReference[registeredServices.size()]);
-
-		for (int i = 0; i < srefs.length; i++) {
-			synchronized (((ServiceReferenceImpl<?>) srefs[i]).useCounters) {
-				if (((ServiceReferenceImpl<?>) srefs[i]).useCounters
-						.get(this) != null) {
-					result.add(srefs[i]);
-				}
-			}
-		}
-
 		if (framework.SECURITY_ENABLED) {
 			// permissions for the interfaces have to be checked
-			return checkPermissions(
-					result.toArray(new ServiceReferenceImpl[result.size()]));
+			return checkPermissions(result);
 		} else {
-			return result.toArray(new ServiceReference[result.size()]);
+			return result;
 		}
 	}
 
@@ -1501,6 +1585,19 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 		protected List<BundleWire> requireBundleWires;
 		protected final HashSet<String> exportIndex;
 
+		/**
+		 * the requirements that could not be satisfied by the last resolve
+		 * attempt. <code>null</code> if there was no such attempt or if it
+		 * failed for other reasons than missing providers.
+		 */
+		List<Requirement> unresolvedRequirements;
+
+		/**
+		 * the generation of the capability registry at the time of the last
+		 * failed resolve attempt.
+		 */
+		long unresolvedGeneration;
+
 		protected Revision(final int revId, final Manifest manifest,
 				final String[] classpathStrings) throws BundleException {
 			this.revId = revId;
@@ -2129,6 +2226,7 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 		}
 
 		void markResolved() {
+			unresolvedRequirements = null;
 			state = Bundle.RESOLVED;
 			framework.notifyBundleListeners(BundleEvent.RESOLVED,
 					BundleImpl.this);
@@ -3007,6 +3105,24 @@ public class BundleImpl extends AbstractBundle implements BundleStartLevel {
 					definePackage(packageOf(classname));
 					return clazz;
 				}
+				// only count the classes that are defined
+				final long begin = framework.metrics.time();
+				final Class<?> result = defineOwnClass(classname);
+				if (result != null) {
+					framework.metrics.count(Metrics.CLASS_LOAD, begin);
+				}
+				return result;
+			}
+
+			/**
+			 * Define a class of the bundle scope.
+			 * 
+			 * @param classname
+			 *            the name of the class.
+			 * @return the <code>Class</code> object if the class could be
+			 *         found. <code>null</code> otherwise.
+			 */
+			private Class<?> defineOwnClass(final String classname) {
 				try {
 					final String filename = classToFile(classname);
 					for (int i = 0; i < classpath.length; i++) {
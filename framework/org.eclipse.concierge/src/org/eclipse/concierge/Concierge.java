@@ -53,18 +53,31 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.concierge.BundleImpl.Revision;
+import org.eclipse.concierge.BundleImpl.RevisionContent;
 import org.eclipse.concierge.BundleImpl.Revision.WovenClassImpl;
 import org.eclipse.concierge.ConciergeCollections.MultiMap;
 import org.eclipse.concierge.ConciergeCollections.ParseResult;
 import org.eclipse.concierge.Resources.BundleCapabilityImpl;
 import org.eclipse.concierge.Resources.ConciergeBundleWiring;
 import org.eclipse.concierge.Resources.HostedBundleCapability;
+import org.eclipse.concierge.api.BootTimeline;
+import org.eclipse.concierge.api.BundleInstaller;
+import org.eclipse.concierge.api.FrameworkMetrics;
+import org.eclipse.concierge.api.ResolverMonitor;
+import org.eclipse.concierge.api.ResolverTrace;
 import org.eclipse.concierge.compat.LegacyBundleProcessing;
 import org.eclipse.concierge.compat.service.XargsFileLauncher;
+import org.eclipse.concierge.service.log.LogFileSink;
 import org.eclipse.concierge.service.log.LogServiceImpl;
 import org.osgi.framework.AllServiceListener;
 import org.osgi.framework.Bundle;
@@ -79,6 +92,7 @@ import org.osgi.framework.FrameworkEvent;
 import org.osgi.framework.FrameworkListener;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceFactory;
 import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServicePermission;
 import org.osgi.framework.ServiceReference;
@@ -131,7 +145,8 @@ import org.osgi.service.resolver.Resolver;
  * @author Jochen Hiller - added argument parsing
  */
 public final class Concierge extends AbstractBundle implements Framework,
-		BundleRevision, FrameworkWiring, FrameworkStartLevel, BundleActivator {
+		BundleRevision, FrameworkWiring, FrameworkStartLevel, BundleActivator,
+		BundleInstaller {
 
 	// deprecated core framework constants.
 
@@ -195,6 +210,11 @@ public final class Concierge extends AbstractBundle implements Framework,
 	 */
 	LogService logger;
 
+	/**
+	 * the log service implementation.
+	 */
+	private LogServiceImpl logService;
+
 	/**
 	 * log buffer size.
 	 */
@@ -205,6 +225,31 @@ public final class Concierge extends AbstractBundle implements Framework,
 	 */
 	boolean LOG_QUIET;
 
+	/**
+	 * the number of log entries waiting for the log listeners.
+	 */
+	int LOG_QUEUE_CAPACITY;
+
+	/**
+	 * what to do when the queue of log entries is full, drop-oldest or block.
+	 */
+	String LOG_QUEUE_POLICY;
+
+	/**
+	 * write the log to files in the storage directory ?
+	 */
+	boolean LOG_FILE;
+
+	/**
+	 * the maximum size of a log file in bytes.
+	 */
+	int LOG_FILE_SIZE;
+
+	/**
+	 * the number of log files to keep.
+	 */
+	int LOG_FILE_COUNT;
+
 	/**
 	 * always decompress the bundles, great for testing
 	 * 
@@ -218,6 +263,11 @@ public final class Concierge extends AbstractBundle implements Framework,
 	 */
 	boolean DECOMPRESS_EMBEDDED;
 
+	/**
+	 * number of threads storing bundles during a bulk installation.
+	 */
+	int INSTALL_THREADS;
+
 	/**
 	 * log level.
 	 */
@@ -316,8 +366,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 	/**
 	 * class name string -> service reference.
 	 */
-	final MultiMap<String, ServiceReference<?>> serviceRegistry = new MultiMap<String, ServiceReference<?>>(
-			3);
+	final ServiceRegistry serviceRegistry = new ServiceRegistry();
 
 	/**
 	 * class name string -> service reference.
@@ -427,6 +476,19 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 	// "hooks registry"
 	protected final HashMap<String, List<?>> hooks = new HashMap<String, List<?>>();
+
+	// the service objects of the hooks that are called on every operation
+	private final HookCache<CollisionHook> bundleCollisionHookCache = new HookCache<CollisionHook>(this, bundleCollisionHooks);
+	private final HookCache<org.osgi.framework.hooks.bundle.EventHook> bundleEventHookCache = new HookCache<org.osgi.framework.hooks.bundle.EventHook>(this, bundleEventHooks);
+	private final HookCache<org.osgi.framework.hooks.bundle.FindHook> bundleFindHookCache = new HookCache<org.osgi.framework.hooks.bundle.FindHook>(this, bundleFindHooks);
+	@SuppressWarnings("deprecation")
+	private final HookCache<org.osgi.framework.hooks.service.EventHook> serviceEventHookCache = new HookCache<org.osgi.framework.hooks.service.EventHook>(this, serviceEventHooks);
+	private final HookCache<ListenerHook> serviceListenerHookCache = new HookCache<ListenerHook>(this, serviceListenerHooks);
+	private final HookCache<EventListenerHook> serviceEventListenerHookCache = new HookCache<EventListenerHook>(this, serviceEventListenerHooks);
+	private final HookCache<FindHook> serviceFindHookCache = new HookCache<FindHook>(this, serviceFindHooks);
+
+	// "hook caches registry"
+	private final HashMap<String, HookCache<?>> hookCaches = new HashMap<String, HookCache<?>>();
 	// @formatter:on
 
 	static final Dictionary<String, Object> props2Dict(final Properties props) {
@@ -445,6 +507,17 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 	private final ResolverImpl resolver = new ResolverImpl();
 
+	private final ResolverTracer resolverTracer;
+
+	final Metrics metrics;
+
+	final Timeline timeline;
+
+	/**
+	 * the execution environments of the JVM, set by the first init.
+	 */
+	private ExecutionEnvironments executionEnvironments;
+
 	private final Method addURL;
 
 	final ClassLoader parentClassLoader;
@@ -462,6 +535,50 @@ public final class Concierge extends AbstractBundle implements Framework,
 		}
 	};
 
+	/**
+	 * sort the providers of a requirement by preference.
+	 * 
+	 * @param providers
+	 *            the providers.
+	 * @param namespace
+	 *            the namespace of the requirement.
+	 * @param inIndexOrder
+	 *            true if the providers are in the order of the capability
+	 *            registry's index, i.e., sorted by version.
+	 */
+	static void sortProviders(final List<Capability> providers,
+			final String namespace, final boolean inIndexOrder) {
+		if (providers.isEmpty()) {
+			return;
+		}
+		if (PackageNamespace.PACKAGE_NAMESPACE.equals(namespace)) {
+			if (!inIndexOrder) {
+				Collections.sort(providers, EXPORT_ORDER);
+				return;
+			}
+			// EXPORT_ORDER only differs from the index order by preferring
+			// resolved providers
+			final ArrayList<Capability> unresolved = new ArrayList<Capability>();
+			int pos = 0;
+			for (int i = 0; i < providers.size(); i++) {
+				final Capability cap = providers.get(i);
+				if (cap instanceof BundleCapability && ((BundleCapability) cap)
+						.getResource().getWiring() != null) {
+					providers.set(pos++, cap);
+				} else {
+					unresolved.add(cap);
+				}
+			}
+			for (final Capability cap : unresolved) {
+				providers.set(pos++, cap);
+			}
+		}
+		if (BundleNamespace.BUNDLE_NAMESPACE.equals(namespace)
+				&& !inIndexOrder) {
+			Collections.sort(providers, BUNDLE_VERSION);
+		}
+	}
+
 	protected static final Comparator<? super Capability> EXPORT_ORDER = new Comparator<Capability>() {
 
 		// reverts the order so that we can
@@ -631,6 +748,8 @@ public final class Concierge extends AbstractBundle implements Framework,
 	}
 
 	Concierge(final Map<String, String> passedProperties) {
+		final long constructed = System.nanoTime();
+
 		hooks.put(CollisionHook.class.getName(), bundleCollisionHooks);
 		hooks.put(org.osgi.framework.hooks.bundle.FindHook.class.getName(),
 				bundleFindHooks);
@@ -642,6 +761,17 @@ public final class Concierge extends AbstractBundle implements Framework,
 		hooks.put(ListenerHook.class.getName(), serviceListenerHooks);
 		hooks.put(WeavingHook.class.getName(), weavingHooks);
 
+		hookCaches.put(CollisionHook.class.getName(), bundleCollisionHookCache);
+		hookCaches.put(org.osgi.framework.hooks.bundle.FindHook.class.getName(),
+				bundleFindHookCache);
+		hookCaches.put(EventHook.class.getName(), bundleEventHookCache);
+		hookCaches.put(SERVICE_EVENT_HOOK_CLASS.getName(),
+				serviceEventHookCache);
+		hookCaches.put(EventListenerHook.class.getName(),
+				serviceEventListenerHookCache);
+		hookCaches.put(FindHook.class.getName(), serviceFindHookCache);
+		hookCaches.put(ListenerHook.class.getName(), serviceListenerHookCache);
+
 		defaultProperties = new Properties(System.getProperties());
 
 		defaultProperties.setProperty(Constants.FRAMEWORK_BOOTDELEGATION,
@@ -654,92 +784,8 @@ public final class Concierge extends AbstractBundle implements Framework,
 		final String feeStr = defaultProperties
 				.getProperty(FRAMEWORK_EXECUTIONENVIRONMENT);
 
-		final StringBuffer myEEs = new StringBuffer();
-
-		final StringBuffer seVersionList = new StringBuffer();
-		final StringBuffer compact1VersionList = new StringBuffer();
-		final StringBuffer compact2VersionList = new StringBuffer();
-		final StringBuffer compact3VersionList = new StringBuffer();
-
-		final StringBuffer minVersionList = new StringBuffer();
-
-		final int minor;
-		int parsed = 0;
-		try {
-			parsed = Integer.parseInt(System
-					.getProperty("java.specification.version").substring(2));
-		} catch (final NumberFormatException nfe) {
-			nfe.printStackTrace();
-		} finally {
-			minor = parsed;
-		}
-
-		
-
-
-		if (System.getProperty("java.specification.name")
-				.equals("J2ME Foundation Specification")) {
-			switch (minor) {
-			case 1:
-				myEEs.append("CDC-1.1/Foundation-1.1,");
-			case 0:
-				myEEs.append("CDC-1.0/Foundation-1.0");
-			}
-		} else {
-			switch (minor) {
-			case 8:
-				myEEs.append("J2SE-1.8,");
-				myEEs.append("JavaSE-1.8,");
-				// also add the valid compact profiles
-				try {
-					// Figure out the profile by loading some classes from the profile
-					// Is there any other way to discover the profile of the JRE?
-					myEEs.append("JavaSE-1.8/compact1,");
-					compact1VersionList.append("1.8,");
-				 	this.getClass().getClassLoader().loadClass("org.w3c.dom.Document");
-				 	myEEs.append("JavaSE-1.8/compact2,");
-				 	compact2VersionList.append("1.8,");
-				 	this.getClass().getClassLoader().loadClass("javax.management.Descriptor");
-				 	myEEs.append("JavaSE-1.8/compact3,");
-				 	compact3VersionList.append("1.8,");
-					this.getClass().getClassLoader().loadClass("javax.imageio.ImageIO");
-				} catch(ClassNotFoundException e){
-				}
-				seVersionList.append("1.8,");
-			case 7:
-				myEEs.append("J2SE-1.7,");
-				myEEs.append("JavaSE-1.7,");
-				seVersionList.append("1.7,");
-			case 6:
-				myEEs.append("J2SE-1.6,");
-				myEEs.append("JavaSE-1.6,");
-				seVersionList.append("1.6,");
-			case 5:
-				myEEs.append("J2SE-1.5,");
-				seVersionList.append("1.5,");
-			case 4:
-				myEEs.append("J2SE-1.4,");
-				myEEs.append("OSGi/Minimum-1.1,");
-				seVersionList.append("1.4,");
-				minVersionList.append("1.2,1.1,");
-			case 3:
-				myEEs.append("J2SE-1.3,");
-				seVersionList.append("1.3,");
-			case 2:
-				myEEs.append("J2SE-1.2,");
-				myEEs.append("OSGi/Minimum-1.0,");
-				seVersionList.append("1.2,");
-				minVersionList.append("1.0");
-			case 1:
-				myEEs.append("JRE-1.1");
-				seVersionList.append("1.1");
-			}
-		}
-
-		defaultProperties.setProperty(FRAMEWORK_EXECUTIONENVIRONMENT,
-				myEEs.toString());
-
-		// load micro-services
+		// load micro-services, they are instantiated when first used
+		final long microServicesBegin = System.nanoTime();
 		try {
 			final InputStream in = getClass().getClassLoader()
 					.getResourceAsStream("META-INF/micro-services");
@@ -753,10 +799,8 @@ public final class Concierge extends AbstractBundle implements Framework,
 					final Dictionary<String, Object> props = new Hashtable<String, Object>();
 					props.put(Constants.VERSION_ATTRIBUTE,
 							Version.parseVersion(tokens[2]));
-					final Class<?> cls = Class.forName(tokens[1]);
-					final Object service = cls.newInstance();
 					final ServiceReference<?> ref = new ServiceReferenceImpl<Object>(
-							this, this, service, props,
+							this, this, new MicroService(tokens[1]), props,
 							new String[] { tokens[0] });
 					microServices.insert(tokens[0], ref);
 				} catch (final Exception e) {
@@ -768,48 +812,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 		} catch (final IOException ioe) {
 			ioe.printStackTrace();
 		}
-
-		// populate osgi.ee namespace
-		try {
-			if (seVersionList.length() > 0) {
-				final BundleCapabilityImpl eeCap = new BundleCapabilityImpl(
-						this,
-						"osgi.ee; osgi.ee=\"JavaSE\"; version:List<Version>=\""
-								+ seVersionList.toString() + "\"");
-				systemBundleCapabilities.add(eeCap);
-			}
-			if(compact1VersionList.length() > 0){
-				final BundleCapabilityImpl eeCap = new BundleCapabilityImpl(
-						this,
-						"osgi.ee; osgi.ee=\"JavaSE/compact1\"; version:List<Version>=\""
-								+ compact1VersionList.toString() + "\"");
-				systemBundleCapabilities.add(eeCap);				
-			}
-			if(compact2VersionList.length() > 0){
-				final BundleCapabilityImpl eeCap = new BundleCapabilityImpl(
-						this,
-						"osgi.ee; osgi.ee=\"JavaSE/compact2\"; version:List<Version>=\""
-								+ compact2VersionList.toString() + "\"");
-				systemBundleCapabilities.add(eeCap);				
-			}
-			if(compact3VersionList.length() > 0){
-				final BundleCapabilityImpl eeCap = new BundleCapabilityImpl(
-						this,
-						"osgi.ee; osgi.ee=\"JavaSE/compact3\"; version:List<Version>=\""
-								+ compact3VersionList.toString() + "\"");
-				systemBundleCapabilities.add(eeCap);				
-			}
-			if (minVersionList.length() > 0) {
-				final BundleCapabilityImpl eeCap = new BundleCapabilityImpl(
-						this,
-						"osgi.ee; osgi.ee=\"OSGi/Minimum\"; version:List<Version>=\""
-								+ minVersionList.toString() + "\"");
-				systemBundleCapabilities.add(eeCap);
-			}
-		} catch (final BundleException be) {
-			// too early for log service
-			be.printStackTrace();
-		}
+		final long microServicesEnd = System.nanoTime();
 
 		if (feeStr != null) {
 			final LegacyBundleProcessing proc = getService(
@@ -826,7 +829,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 		}
 
 		defaultProperties.setProperty(Constants.FRAMEWORK_SYSTEMPACKAGES,
-				"org.osgi.framework;version=1.7,org.osgi.framework.hooks.bundle;version=1.1,org.osgi.framework.hooks.resolver;version=1.0,org.osgi.framework.hooks.service;version=1.1,org.osgi.framework.hooks.weaving;version=1.0,org.osgi.framework.launch;version=1.1,org.osgi.framework.namespace;version=1.0,org.osgi.framework.startlevel;version=1.0,org.osgi.framework.wiring;version=1.1,org.osgi.resource;version=1.0,org.osgi.service.log;version=1.3,org.osgi.service.packageadmin;version=1.2,org.osgi.service.startlevel;version=1.1,org.osgi.service.url;version=1.0,org.osgi.service.resolver;version=1.0,org.osgi.util.tracker;version=1.5.1,META-INF.services");
+				"org.osgi.framework;version=1.7,org.osgi.framework.hooks.bundle;version=1.1,org.osgi.framework.hooks.resolver;version=1.0,org.osgi.framework.hooks.service;version=1.1,org.osgi.framework.hooks.weaving;version=1.0,org.osgi.framework.launch;version=1.1,org.osgi.framework.namespace;version=1.0,org.osgi.framework.startlevel;version=1.0,org.osgi.framework.wiring;version=1.1,org.osgi.resource;version=1.0,org.osgi.service.log;version=1.3,org.osgi.service.packageadmin;version=1.2,org.osgi.service.startlevel;version=1.1,org.osgi.service.url;version=1.0,org.osgi.service.resolver;version=1.0,org.osgi.util.tracker;version=1.5.1,org.eclipse.concierge.api;version=1.0,META-INF.services");
 
 		Object obj;
 		defaultProperties.put(Constants.FRAMEWORK_OS_NAME,
@@ -865,10 +868,27 @@ public final class Concierge extends AbstractBundle implements Framework,
 				if (launchS != null) {
 					return launchS;
 				}
+				if (Constants.FRAMEWORK_UUID.equals(key)) {
+					// generating a random UUID seeds the secure random
+					// generator, which is slow on small devices
+					synchronized (this) {
+						String uuid = (String) get(key);
+						if (uuid == null) {
+							uuid = UUID.randomUUID().toString();
+							put(key, uuid);
+						}
+						return uuid;
+					}
+				}
 				final String system = System.getProperty(key);
 				return system == null ? defaults.getProperty(key) : system;
 			}
 
+			public Enumeration<?> propertyNames() {
+				getProperty(Constants.FRAMEWORK_UUID);
+				return super.propertyNames();
+			}
+
 		};
 
 		if (passedProperties != null) {
@@ -943,6 +963,16 @@ public final class Concierge extends AbstractBundle implements Framework,
 		LOG_QUIET = getProperty("org.eclipse.concierge.log.quiet", false);
 		LOG_BUFFER_SIZE = getProperty("org.eclipse.concierge.log.buffersize",
 				10);
+		LOG_QUEUE_CAPACITY = getProperty(
+				"org.eclipse.concierge.log.queue.capacity", 1000);
+		LOG_QUEUE_POLICY = properties.getProperty(
+				"org.eclipse.concierge.log.queue.policy",
+				LogServiceImpl.POLICY_DROP_OLDEST);
+		LOG_FILE = getProperty("org.eclipse.concierge.log.file", false);
+		LOG_FILE_SIZE = getProperty("org.eclipse.concierge.log.file.size",
+				1024 * 1024);
+		LOG_FILE_COUNT = getProperty("org.eclipse.concierge.log.file.count",
+				4);
 		LOG_LEVEL = getProperty("org.eclipse.concierge.log.level",
 				LogService.LOG_ERROR);
 		DEBUG_BUNDLES = getProperty("org.eclipse.concierge.debug.bundles",
@@ -971,6 +1001,20 @@ public final class Concierge extends AbstractBundle implements Framework,
 				"org.eclipse.concierge.alwaysDecompress", false);
 		DECOMPRESS_EMBEDDED = getProperty(
 				"org.eclipse.concierge.decompressEmbedded", true);
+		INSTALL_THREADS = getProperty("org.eclipse.concierge.install.threads",
+				Runtime.getRuntime().availableProcessors());
+		resolverTracer = new ResolverTracer(
+				getProperty("org.eclipse.concierge.resolver.trace", false),
+				getProperty("org.eclipse.concierge.resolver.trace.size", 16));
+		metrics = new Metrics(
+				getProperty("org.eclipse.concierge.metrics", false),
+				getProperty("org.eclipse.concierge.metrics.sample", 1));
+		timeline = new Timeline(
+				getProperty("org.eclipse.concierge.timeline", true),
+				getProperty("org.eclipse.concierge.timeline.size", 1024),
+				constructed);
+		timeline.record(BootTimeline.FRAMEWORK, "loadMicroServices",
+				microServicesBegin, microServicesEnd);
 		SECURITY_ENABLED = getProperty("org.eclipse.concierge.security.enabled",
 				false);
 
@@ -1035,6 +1079,9 @@ public final class Concierge extends AbstractBundle implements Framework,
 		context = new BundleContextImpl(this);
 		domain = Concierge.class.getProtectionDomain();
 		headers = new Hashtable<String, String>(5);
+
+		timeline.record(BootTimeline.FRAMEWORK, "construct", constructed,
+				System.nanoTime());
 	}
 
 	/**
@@ -1091,20 +1138,19 @@ public final class Concierge extends AbstractBundle implements Framework,
 			return;
 		}
 
-		final StringTokenizer t = new StringTokenizer(
-				properties.getProperty(FRAMEWORK_EXECUTIONENVIRONMENT), ",");
-		while (t.hasMoreTokens()) {
-			SUPPORTED_EE.add(t.nextToken().trim());
-		}
+		timeline.open();
+		final int span = timeline.begin(BootTimeline.FRAMEWORK, "init",
+				null);
 
 		// TODO: check if there is a security manager set and
 		// Constants.FRAMEWORK_SECURITY; is set
 
-		STORAGE_LOCATION = properties.getProperty(
+		final String storageRoot = properties.getProperty(
 				"org.eclipse.concierge.storage",
 				properties.getProperty(Constants.FRAMEWORK_STORAGE,
-						BASEDIR + File.separatorChar + "storage"))
-				+ File.separatorChar + PROFILE + File.separatorChar;
+						BASEDIR + File.separatorChar + "storage"));
+		STORAGE_LOCATION = storageRoot + File.separatorChar + PROFILE
+				+ File.separatorChar;
 
 		// clean the storage if requested
 		final File storage = new File(STORAGE_LOCATION);
@@ -1125,6 +1171,17 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 		firstInit = false;
 
+		// the cache is kept when the storage of the profile is cleaned
+		if (executionEnvironments == null) {
+			initExecutionEnvironments(new File(storageRoot, "ee.cache"));
+		}
+
+		final StringTokenizer t = new StringTokenizer(
+				properties.getProperty(FRAMEWORK_EXECUTIONENVIRONMENT), ",");
+		while (t.hasMoreTokens()) {
+			SUPPORTED_EE.add(t.nextToken().trim());
+		}
+
 		// set start level 0
 		startlevel = 0;
 
@@ -1259,7 +1316,11 @@ public final class Concierge extends AbstractBundle implements Framework,
 		// start the logger
 		if (LOG_ENABLED) {
 			final LogServiceImpl impl = new LogServiceImpl(LOG_BUFFER_SIZE,
-					LOG_LEVEL, LOG_QUIET);
+					LOG_LEVEL, LOG_QUIET, LOG_QUEUE_CAPACITY, LOG_QUEUE_POLICY,
+					LOG_FILE ? new LogFileSink(
+							new File(STORAGE_LOCATION, "log"), LOG_FILE_SIZE,
+							LOG_FILE_COUNT) : null);
+			logService = impl;
 			final ServiceReference<LogReaderService> readerref = new ServiceReferenceImpl<LogReaderService>(
 					Concierge.this, this, impl, null,
 					new String[] { LogReaderService.class.getName() });
@@ -1269,11 +1330,8 @@ public final class Concierge extends AbstractBundle implements Framework,
 					Concierge.this, this, impl.factory, null,
 					new String[] { LogService.class.getName() });
 
-			synchronized (serviceRegistry) {
-				serviceRegistry.insert(LogReaderService.class.getName(),
-						readerref);
-				serviceRegistry.insert(LogService.class.getName(), logref);
-			}
+			serviceRegistry.insert(LogReaderService.class.getName(), readerref);
+			serviceRegistry.insert(LogService.class.getName(), logref);
 
 			registeredServices.add(logref);
 			registeredServices.add(readerref);
@@ -1291,16 +1349,70 @@ public final class Concierge extends AbstractBundle implements Framework,
 			// already set...
 		}
 
-		// set the UUID
-		// TODO: need workaround for Java 1.4
-		properties.setProperty(Constants.FRAMEWORK_UUID,
-				UUID.randomUUID().toString());
+		// the UUID is generated when it is first read
+		properties.remove(Constants.FRAMEWORK_UUID);
 
 		state = Bundle.STARTING;
 
 		if (restart) {
 			// have bundle objects for all installed bundles
+			final int restoreSpan = timeline.begin(BootTimeline.FRAMEWORK,
+					"restoreProfile", null);
 			restoreProfile();
+			timeline.end(restoreSpan);
+		}
+
+		timeline.end(span);
+	}
+
+	/**
+	 * set the execution environments of the JVM and populate the osgi.ee
+	 * namespace.
+	 * 
+	 * @param cache
+	 *            the file that caches the execution environments.
+	 */
+	private void initExecutionEnvironments(final File cache) {
+		ExecutionEnvironments ees = ExecutionEnvironments.load(cache);
+		if (ees == null) {
+			ees = ExecutionEnvironments.probe(getClass().getClassLoader());
+			ees.store(cache);
+		}
+		executionEnvironments = ees;
+
+		defaultProperties.setProperty(FRAMEWORK_EXECUTIONENVIRONMENT,
+				ees.ees);
+
+		// populate osgi.ee namespace
+		try {
+			if (ees.se.length() > 0) {
+				systemBundleCapabilities.add(new BundleCapabilityImpl(this,
+						"osgi.ee; osgi.ee=\"JavaSE\"; version:List<Version>=\""
+								+ ees.se + "\""));
+			}
+			if (ees.compact1.length() > 0) {
+				systemBundleCapabilities.add(new BundleCapabilityImpl(this,
+						"osgi.ee; osgi.ee=\"JavaSE/compact1\"; version:List<Version>=\""
+								+ ees.compact1 + "\""));
+			}
+			if (ees.compact2.length() > 0) {
+				systemBundleCapabilities.add(new BundleCapabilityImpl(this,
+						"osgi.ee; osgi.ee=\"JavaSE/compact2\"; version:List<Version>=\""
+								+ ees.compact2 + "\""));
+			}
+			if (ees.compact3.length() > 0) {
+				systemBundleCapabilities.add(new BundleCapabilityImpl(this,
+						"osgi.ee; osgi.ee=\"JavaSE/compact3\"; version:List<Version>=\""
+								+ ees.compact3 + "\""));
+			}
+			if (ees.min.length() > 0) {
+				systemBundleCapabilities.add(new BundleCapabilityImpl(this,
+						"osgi.ee; osgi.ee=\"OSGi/Minimum\"; version:List<Version>=\""
+								+ ees.min + "\""));
+			}
+		} catch (final BundleException be) {
+			// too early for log service
+			be.printStackTrace();
 		}
 	}
 
@@ -1388,6 +1500,8 @@ public final class Concierge extends AbstractBundle implements Framework,
 			System.out.println("-------------------"
 					+ "--------------------------------------");
 			final long time = System.currentTimeMillis();
+			final int span = timeline.begin(BootTimeline.FRAMEWORK, "start",
+					null);
 
 			// resolve all extension bundles
 			for (final BundleImpl ext : extensionBundles) {
@@ -1395,7 +1509,10 @@ public final class Concierge extends AbstractBundle implements Framework,
 			}
 
 			// start System bundle
+			final int systemBundleSpan = timeline.begin(
+					BootTimeline.FRAMEWORK, "startSystemBundle", null);
 			start(context);
+			timeline.end(systemBundleSpan);
 
 			// set startlevel and start all bundles that are marked to be
 			// started up to the intended startlevel
@@ -1404,7 +1521,23 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 			// save the metadata
 			if (!restart) {
+				final int storeSpan = timeline.begin(BootTimeline.FRAMEWORK,
+						"storeProfile", null);
 				storeProfile();
+				timeline.end(storeSpan);
+			}
+
+			timeline.end(span);
+			timeline.close();
+			final String timelineFile = properties
+					.getProperty("org.eclipse.concierge.timeline.file");
+			if (timelineFile != null) {
+				try {
+					timeline.write(new File(timelineFile));
+				} catch (final IOException ioe) {
+					System.err.println("Could not write the boot timeline to "
+							+ timelineFile + ": " + ioe.getMessage());
+				}
 			}
 
 			final float timediff = (System.currentTimeMillis() - time)
@@ -1451,6 +1584,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 					new FileOutputStream(new File(STORAGE_LOCATION, "meta")));
 			out.writeLong(nextBundleID);
 			out.close();
+			metrics.count(Metrics.STORAGE_WRITE);
 		} catch (final IOException ioe) {
 			ioe.printStackTrace();
 		}
@@ -1574,6 +1708,11 @@ public final class Concierge extends AbstractBundle implements Framework,
 			// stop System bundle
 			stop(context);
 
+			if (logService != null) {
+				logService.close();
+				logService = null;
+			}
+
 			// release all resources
 			for (final AbstractBundle bundle : bundles) {
 				for (final BundleRevision rev : bundle.getRevisions()) {
@@ -1716,6 +1855,18 @@ public final class Concierge extends AbstractBundle implements Framework,
 			return (A) wirings.get(this);
 		}
 
+		if (type == ResolverMonitor.class) {
+			return (A) resolverTracer;
+		}
+
+		if (type == FrameworkMetrics.class) {
+			return (A) metrics;
+		}
+
+		if (type == BootTimeline.class) {
+			return (A) timeline;
+		}
+
 		if (type.isInstance(this)) {
 			return (A) this;
 		}
@@ -1748,7 +1899,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 	 * @category SystemBundle
 	 */
 	public ServiceReference<?>[] getServicesInUse() {
-		return null;
+		return collectServicesInUse();
 	}
 
 	// public boolean hasPermission(final Object permission) in AbstractBundle
@@ -1970,8 +2121,14 @@ public final class Concierge extends AbstractBundle implements Framework,
 			if (list == null) {
 				continue;
 			}
+			final int span = timeline.begin(BootTimeline.STARTLEVEL,
+					"startlevel", new Integer(startlevel));
 			final BundleImpl[] toProcess = list
 					.toArray(new BundleImpl[list.size()]);
+			if (up) {
+				// resolve the bundles of this level in a single operation
+				resolveBundles(Arrays.<Bundle> asList(toProcess));
+			}
 			for (int j = 0; j < toProcess.length; j++) {
 				try {
 					if (up) {
@@ -2004,6 +2161,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 							t);
 				}
 			}
+			timeline.end(span);
 		}
 
 		startlevel = targetLevel;
@@ -2194,24 +2352,25 @@ public final class Concierge extends AbstractBundle implements Framework,
 							}
 						}
 
-						// resolve, if possible
-						// FIXME: should be bulk operation
-
+						// resolve, if possible, in a single resolve operation
+						final ArrayList<Revision> toResolve = new ArrayList<Revision>();
+						for (final Bundle bu : restartList) {
+							if (bu.getState() == Bundle.INSTALLED) {
+								toResolve.add(
+										((BundleImpl) bu).currentRevision);
+							}
+						}
+						try {
+							resolveIncrementally(toResolve);
+						} catch (final Exception e) {
+							notifyListeners(FrameworkEvent.ERROR,
+									Concierge.this, e);
+						}
 						for (final Iterator<Bundle> resolveIter = restartList
 								.iterator(); resolveIter.hasNext();) {
-							final BundleImpl bu = (BundleImpl) resolveIter
-									.next();
-							try {
-								if (bu.state == Bundle.INSTALLED) {
-									final boolean success = bu.currentRevision
-											.resolve(false);
-									if (!success) {
-										resolveIter.remove();
-									}
-								}
-							} catch (final Exception e) {
+							if (resolveIter.next()
+									.getState() == Bundle.INSTALLED) {
 								resolveIter.remove();
-								notifyListeners(FrameworkEvent.ERROR, bu, e);
 							}
 						}
 
@@ -2255,26 +2414,161 @@ public final class Concierge extends AbstractBundle implements Framework,
 	 * @category FrameworkWiring
 	 */
 	public boolean resolveBundles(final Collection<Bundle> bundles) {
-		final ArrayList<BundleRevision> resources = new ArrayList<BundleRevision>();
+		final ArrayList<Revision> pending = new ArrayList<Revision>();
 		boolean resolved = true;
 
-		for (final Bundle bundle : bundles == null ? Concierge.this.bundles
-				: bundles) {
-			if (bundle.getState() == UNINSTALLED) {
-				resolved = false;
-				continue;
+		synchronized (this) {
+			for (final Bundle bundle : bundles == null ? Concierge.this.bundles
+					: bundles) {
+				if (bundle.getState() == UNINSTALLED) {
+					resolved = false;
+					continue;
+				}
+
+				if (bundle.getState() != INSTALLED) {
+					// already resolved
+					continue;
+				}
+
+				pending.add((Revision) bundle.adapt(BundleRevision.class));
 			}
 
-			resources.add(bundle.adapt(BundleRevision.class));
+			try {
+				return resolveIncrementally(pending) && resolved;
+			} catch (final BundleException e) {
+				// should not be thrown for critical==false
+				return false;
+			}
 		}
+	}
+
+	/**
+	 * resolve the pending revisions in a single resolve operation. Revisions
+	 * which have failed to resolve before are only considered if a capability
+	 * that could satisfy one of their unresolved requirements has become
+	 * available since then. Whenever a resolve operation makes new
+	 * capabilities available, the skipped revisions are checked again.
+	 * 
+	 * @param pending
+	 *            the revisions in state INSTALLED.
+	 * @return true if all revisions have been resolved.
+	 * @throws BundleException
+	 */
+	private boolean resolveIncrementally(final List<Revision> pending)
+			throws BundleException {
+		boolean resolved = true;
+		List<Revision> skipped = pending;
+		while (true) {
+			final ArrayList<BundleRevision> resources = new ArrayList<BundleRevision>();
+			final ArrayList<Revision> remaining = new ArrayList<Revision>();
+			// nothing changes while checking, so every revision needs to be
+			// checked only once
+			final HashMap<Revision, Boolean> checked = new HashMap<Revision, Boolean>();
+			for (final Revision revision : skipped) {
+				if (revision.getBundle().getState() != INSTALLED) {
+					continue;
+				}
+				if (mayResolve(revision, checked)) {
+					resources.add(revision);
+				} else {
+					remaining.add(revision);
+				}
+			}
+
+			if (LOG_ENABLED && DEBUG_RESOLVER) {
+				logger.log(LogService.LOG_DEBUG,
+						"Resolving " + resources.size() + " bundles, skipping "
+								+ remaining.size()
+								+ " bundles that cannot resolve");
+			}
+
+			if (resources.isEmpty()) {
+				return resolved && remaining.isEmpty();
+			}
 
-		try {
 			resolved &= resolve(resources, false);
-			return resolved;
-		} catch (final BundleException e) {
-			// should not be thrown for critical==false
-			return false;
+
+			// the resolved bundles might have made some of the skipped ones
+			// resolvable
+			skipped = remaining;
+		}
+	}
+
+	/**
+	 * check if a revision might resolve, i.e., has not failed to resolve
+	 * before or a capability that could satisfy one of its unresolved
+	 * requirements has become available or a capability has been removed
+	 * since the last attempt, either
+	 * directly or because an unresolved provider of such a capability might
+	 * resolve now.
+	 * 
+	 * @param revision
+	 *            the revision.
+	 * @param checked
+	 *            the revisions already checked.
+	 * @return false if the revision cannot resolve.
+	 */
+	private boolean mayResolve(final Revision revision,
+			final HashMap<Revision, Boolean> checked) {
+		final List<Requirement> unresolved = revision.unresolvedRequirements;
+		if (unresolved == null || !resolverHookFactories.isEmpty()) {
+			// resolver hooks can change their mind, so try again
+			return true;
+		}
+
+		final Boolean known = checked.get(revision);
+		if (known != null) {
+			return known.booleanValue();
+		}
+
+		// a cycle does not make the revision resolvable
+		checked.put(revision, Boolean.FALSE);
+		if (hasNewCandidates(revision, unresolved, checked)) {
+			checked.put(revision, Boolean.TRUE);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean hasNewCandidates(final Revision revision,
+			final List<Requirement> unresolved,
+			final HashMap<Revision, Boolean> checked) {
+		for (final Requirement requirement : unresolved) {
+			final String filterStr = requirement.getDirectives()
+					.get(Namespace.REQUIREMENT_FILTER_DIRECTIVE);
+			String value = null;
+			if (filterStr != null) {
+				try {
+					value = RFC1960Filter.getIndexValue(requirement,
+							filterStr);
+				} catch (final InvalidSyntaxException ise) {
+					return true;
+				}
+			}
+			if (capabilityRegistry.changedSince(requirement.getNamespace(),
+					value, revision.unresolvedGeneration)) {
+				return true;
+			}
+
+			// check the providers that are not resolved yet
+			final List<Capability> candidates = value == null
+					? capabilityRegistry.getAll(requirement.getNamespace())
+					: capabilityRegistry.getByKey(requirement.getNamespace(),
+							value);
+			if (candidates == null) {
+				continue;
+			}
+			for (final Capability candidate : candidates) {
+				final Resource provider = candidate.getResource();
+				if (provider instanceof Revision && provider != revision
+						&& ((Revision) provider).getBundle()
+								.getState() == INSTALLED
+						&& mayResolve((Revision) provider, checked)) {
+					return true;
+				}
+			}
 		}
+		return false;
 	}
 
 	private boolean inResolve = false;
@@ -2432,6 +2726,9 @@ public final class Concierge extends AbstractBundle implements Framework,
 	protected void filterCandidates(final Collection<ResolverHook> hooks,
 			final BundleRequirement requirement,
 			final Collection<Capability> candidates) {
+		final ResolverTracer.Trace trace = resolver.trace;
+		final long begin = trace == null ? 0 : System.nanoTime();
+
 		// sort candidates by providing resources
 		final MultiMap<BundleRevision, BundleCapability> mmap = new MultiMap<BundleRevision, BundleCapability>();
 
@@ -2458,11 +2755,18 @@ public final class Concierge extends AbstractBundle implements Framework,
 		}
 
 		candidates.addAll(filteredCandidates);
+
+		if (trace != null) {
+			trace.record(ResolverTrace.FILTER_CANDIDATES, begin);
+		}
 	}
 
 	protected void filterResources(final Collection<ResolverHook> hooks,
 			final Collection<Resource> resources,
 			final Collection<Resource> removed) {
+		final ResolverTracer.Trace trace = resolver.trace;
+		final long begin = trace == null ? 0 : System.nanoTime();
+
 		final ArrayList<BundleRevision> revisions = new ArrayList<BundleRevision>();
 		removed.addAll(resources);
 		for (final Iterator<Resource> iter = resources.iterator(); iter
@@ -2483,6 +2787,10 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 		resources.addAll(filteredResources);
 		removed.removeAll(filteredResources);
+
+		if (trace != null) {
+			trace.record(ResolverTrace.FILTER_RESOURCES, begin);
+		}
 	}
 
 	synchronized boolean resolve(final Collection<BundleRevision> bundles,
@@ -2492,9 +2800,18 @@ public final class Concierge extends AbstractBundle implements Framework,
 		}
 
 		boolean cleanup = false;
+		boolean successful = false;
+		long begin = 0;
+		int span = -1;
 		try {
 			inResolve = true;
 
+			resolver.trace = resolverTracer.begin(bundles);
+			begin = metrics.begin(Metrics.RESOLVE);
+			span = timeline.begin(BootTimeline.RESOLVE, "resolve",
+					bundles.size() == 1 ? bundles.iterator().next()
+							: bundles.size() + " bundles");
+
 			final MultiMap<Resource, HostedCapability> hostedCapabilities = new MultiMap<Resource, HostedCapability>();
 
 			if (resolver.hooks == null) {
@@ -2506,6 +2823,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 			final ArrayList<Requirement> unresolvedRequirements = new ArrayList<Requirement>();
 			final ArrayList<Resource> unresolvedResources = new ArrayList<Resource>();
 
+			resolver.failed.clear();
 			resolver.resolve0(new ResolveContext() {
 
 				public Collection<Resource> getMandatoryResources() {
@@ -2526,10 +2844,20 @@ public final class Concierge extends AbstractBundle implements Framework,
 					if (filterStr == null) {
 						providers = capabilityRegistry
 								.getAll(requirement.getNamespace());
+						sortProviders(providers, requirement.getNamespace(),
+								false);
 					} else {
+						// filterWithIndex returns the providers sorted
+						final ResolverTracer.Trace trace = resolver.trace;
+						final long begin = trace == null ? 0
+								: System.nanoTime();
 						try {
 							providers = RFC1960Filter.filterWithIndex(
 									requirement, filterStr, capabilityRegistry);
+							if (trace != null) {
+								trace.record(ResolverTrace.FILTER_WITH_INDEX,
+										begin);
+							}
 						} catch (final InvalidSyntaxException ise) {
 							// TODO: debug output
 							ise.printStackTrace();
@@ -2537,24 +2865,9 @@ public final class Concierge extends AbstractBundle implements Framework,
 						}
 					}
 
-					sortProviders(providers, requirement.getNamespace());
-
 					return providers;
 				}
 
-				private void sortProviders(final List<Capability> providers,
-						final String namespace) {
-					if (providers.isEmpty()) {
-						return;
-					}
-					if (PackageNamespace.PACKAGE_NAMESPACE.equals(namespace)) {
-						Collections.sort(providers, EXPORT_ORDER);
-					}
-					if (BundleNamespace.BUNDLE_NAMESPACE.equals(namespace)) {
-						Collections.sort(providers, BUNDLE_VERSION);
-					}
-				}
-
 				@Override
 				public int insertHostedCapability(
 						final List<Capability> capabilities,
@@ -2594,6 +2907,8 @@ public final class Concierge extends AbstractBundle implements Framework,
 				logger.log(LogService.LOG_DEBUG, "Solution: " + solution);
 			}
 
+			final long generation = capabilityRegistry.getGeneration();
+
 			// apply solution
 			for (final Resource resource : solution.keySet()) {
 				final List<Wire> wires = solution.get(resource);
@@ -2647,6 +2962,12 @@ public final class Concierge extends AbstractBundle implements Framework,
 						// set wiring for this bundle
 						wiring = new ConciergeBundleWiring(revision, wires);
 						revision.setWiring(wiring);
+
+						// the capabilities of the revision are now available
+						for (final Capability cap : revision
+								.getDeclaredCapabilities(null)) {
+							capabilityRegistry.changed(cap);
+						}
 					} else {
 						wiring = revision.addAdditionalWires(wires);
 					}
@@ -2679,11 +3000,31 @@ public final class Concierge extends AbstractBundle implements Framework,
 				}
 			}
 
+			// the revisions that failed after all capabilities of this operation
+			// were available have already considered the newly resolved
+			// providers
+			for (final Revision revision : resolver.failed) {
+				if (revision.unresolvedGeneration == generation) {
+					revision.unresolvedGeneration = capabilityRegistry
+							.getGeneration();
+				}
+			}
+			resolver.failed.clear();
+
 			if (unresolvedRequirements.isEmpty()
 					&& unresolvedResources.isEmpty()) {
+				successful = true;
 				return true;
 			}
 
+			// resources that failed for other reasons than missing providers
+			// have to be tried again
+			for (final Resource resource : unresolvedResources) {
+				if (resource instanceof Revision) {
+					((Revision) resource).unresolvedRequirements = null;
+				}
+			}
+
 			if (critical) {
 				throw new BundleException(
 						"Resolution failed " + unresolvedRequirements,
@@ -2710,6 +3051,12 @@ public final class Concierge extends AbstractBundle implements Framework,
 					resolver.hooks = null;
 				}
 				inResolve = false;
+				if (resolver.trace != null) {
+					resolverTracer.end(resolver.trace, successful);
+					resolver.trace = null;
+				}
+				metrics.end(Metrics.RESOLVE, begin);
+				timeline.end(span);
 			}
 		}
 	}
@@ -2811,6 +3158,12 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 		protected HashMap<ResolverHook, ServiceReferenceImpl<ResolverHookFactory>> hooks;
 
+		// the revisions that failed to resolve in the current operation
+		final ArrayList<Revision> failed = new ArrayList<Revision>();
+
+		// the trace of the current operation, null if it is not traced
+		ResolverTracer.Trace trace;
+
 		public synchronized Map<Resource, List<Wire>> resolve(
 				final ResolveContext context) throws ResolutionException {
 			if (context == null) {
@@ -2895,10 +3248,107 @@ public final class Concierge extends AbstractBundle implements Framework,
 			}
 		}
 
-		private boolean checkSingleton(final BundleRevision resource) {
-			try {
-				final List<Capability> identities = resource
-						.getCapabilities(IdentityNamespace.IDENTITY_NAMESPACE);
+		/**
+		 * get the capabilities implied by the uses constraints of a capability.
+		 * The closure is cached with the capability and reused as long as the
+		 * wirings it was computed from are unchanged.
+		 * 
+		 * @param capability
+		 *            the capability.
+		 * @return the list of implied capabilities.
+		 */
+		private List<BundleCapability> getUsesClosure(
+				final BundleCapability capability) {
+			if (capability instanceof BundleCapabilityImpl) {
+				final BundleCapabilityImpl impl = (BundleCapabilityImpl) capability;
+				UsesClosure closure = impl.usesClosure;
+				if (closure == null || !closure.isValid()) {
+					closure = computeUsesClosure(capability);
+					impl.usesClosure = closure;
+				}
+				return closure.implied;
+			}
+
+			return computeUsesClosure(capability).implied;
+		}
+
+		private UsesClosure computeUsesClosure(
+				final BundleCapability capability) {
+			final ArrayList<BundleCapability> caps = new ArrayList<BundleCapability>();
+
+			if (BundleNamespace.BUNDLE_NAMESPACE
+					.equals(capability.getNamespace())) {
+				caps.addAll(capability.getResource().getDeclaredCapabilities(
+						PackageNamespace.PACKAGE_NAMESPACE));
+			} else {
+				caps.add(capability);
+			}
+
+			final ArrayList<BundleCapability> impliedConstraints = new ArrayList<BundleCapability>();
+			final ArrayList<BundleRevision> revisions = new ArrayList<BundleRevision>();
+			final ArrayList<BundleWiring> wirings = new ArrayList<BundleWiring>();
+			final HashSet<BundleCapability> seen = new HashSet<BundleCapability>();
+
+			// caps grows while it is traversed
+			for (int i = 0; i < caps.size(); i++) {
+				final BundleCapability cap = caps.get(i);
+
+				if (!seen.add(cap)) {
+					continue;
+				}
+
+				final Set<String> usesSet = Resources.getUses(cap);
+
+				if (usesSet == null) {
+					continue;
+				}
+
+				final BundleWiring wiring = UsesClosure
+						.getWiringInUse(cap.getResource());
+				revisions.add(cap.getResource());
+				wirings.add(wiring);
+
+				// TODO: what does it mean that wiring is null
+				// at this point???
+				if (wiring != null) {
+					final List<BundleWire> wires = wiring
+							.getRequiredWires(PackageNamespace.PACKAGE_NAMESPACE);
+
+					final HashSet<Object> requireSet = new HashSet<Object>();
+					for (final BundleWire wire : wires) {
+						final Object pkg = wire.getCapability().getAttributes()
+								.get(PackageNamespace.PACKAGE_NAMESPACE);
+
+						if (usesSet.contains(pkg)) {
+							impliedConstraints.add(wire.getCapability());
+							caps.add(wire.getCapability());
+							requireSet.add(pkg);
+						}
+					}
+					final List<BundleCapability> caps2 = wiring
+							.getCapabilities(PackageNamespace.PACKAGE_NAMESPACE);
+
+					for (final Capability cap2 : caps2) {
+						final Object pkg = cap2.getAttributes()
+								.get(PackageNamespace.PACKAGE_NAMESPACE);
+						// don't include cap if it was already imported as
+						// requirement
+						if (usesSet.contains(pkg)
+								&& !requireSet.contains(pkg)) {
+							impliedConstraints.add((BundleCapability) cap2);
+							caps.add((BundleCapability) cap2);
+						}
+					}
+				}
+			}
+
+			return new UsesClosure(impliedConstraints, revisions, wirings);
+		}
+
+		private boolean checkSingleton(final BundleRevision resource) {
+			try {
+				final List<Capability> identities = resource
+						.getCapabilities(IdentityNamespace.IDENTITY_NAMESPACE);
 
 				if (identities == null || identities.isEmpty()) {
 					return true;
@@ -2946,34 +3396,48 @@ public final class Concierge extends AbstractBundle implements Framework,
 					return col.isEmpty();
 				}
 
-				final ConciergeCollections.RemoveOnlyList<BundleCapability> collisions = new ConciergeCollections.RemoveOnlyList<BundleCapability>(
-						col);
-
-				for (final ResolverHook hook : hooks.keySet()) {
-					hook.filterSingletonCollisions(identity, collisions);
+				final long begin = trace == null ? 0 : System.nanoTime();
+				try {
+					return filterSingletonCollisions(identity, col);
+				} finally {
+					if (trace != null) {
+						trace.record(ResolverTrace.FILTER_SINGLETON_COLLISIONS,
+								begin);
+					}
 				}
+			} catch (final Throwable t) {
+				t.printStackTrace();
+				throw new RuntimeException(t.getMessage());
+			}
+		}
 
-				if (!collisions.isEmpty()) {
-					return false;
-				}
+		private boolean filterSingletonCollisions(
+				final BundleCapability identity,
+				final List<BundleCapability> col) {
+			final ConciergeCollections.RemoveOnlyList<BundleCapability> collisions = new ConciergeCollections.RemoveOnlyList<BundleCapability>(
+					col);
 
-				for (final BundleCapability cap : col) {
-					final ConciergeCollections.RemoveOnlyList<BundleCapability> identityList = new ConciergeCollections.RemoveOnlyList<BundleCapability>(
-							Collections.singletonList(identity));
-					for (final ResolverHook hook : hooks.keySet()) {
-						hook.filterSingletonCollisions(cap, identityList);
-					}
+			for (final ResolverHook hook : hooks.keySet()) {
+				hook.filterSingletonCollisions(identity, collisions);
+			}
 
-					if (!identityList.isEmpty()) {
-						return false;
-					}
+			if (!collisions.isEmpty()) {
+				return false;
+			}
+
+			for (final BundleCapability cap : col) {
+				final ConciergeCollections.RemoveOnlyList<BundleCapability> identityList = new ConciergeCollections.RemoveOnlyList<BundleCapability>(
+						Collections.singletonList(identity));
+				for (final ResolverHook hook : hooks.keySet()) {
+					hook.filterSingletonCollisions(cap, identityList);
 				}
 
-				return true;
-			} catch (final Throwable t) {
-				t.printStackTrace();
-				throw new RuntimeException(t.getMessage());
+				if (!identityList.isEmpty()) {
+					return false;
+				}
 			}
+
+			return true;
 		}
 
 		private final Collection<Requirement> resolveResource(
@@ -3000,6 +3464,8 @@ public final class Concierge extends AbstractBundle implements Framework,
 				if (!isFragment) {
 					// check which fragments can be attached to the bundles
 					if (revision.allowsFragmentAttachment()) {
+						final long begin = trace == null ? 0
+								: System.nanoTime();
 						for (final Revision frag : getFragments(revision)) {
 							final ArrayList<Capability> capList = new ArrayList<Capability>();
 							capList.add(revision
@@ -3034,6 +3500,9 @@ public final class Concierge extends AbstractBundle implements Framework,
 								}
 							}
 						}
+						if (trace != null) {
+							trace.record(ResolverTrace.FRAGMENTS, begin);
+						}
 					}
 				}
 			} else {
@@ -3065,8 +3534,12 @@ public final class Concierge extends AbstractBundle implements Framework,
 				}
 				
 				// find candidates for the requirement
+				final long begin = trace == null ? 0 : System.nanoTime();
 				final Collection<Capability> candidates = context
 						.findProviders(requirement);
+				if (trace != null) {
+					trace.record(ResolverTrace.FIND_PROVIDERS, begin);
+				}
 
 				// filter through the resolver hooks if there are any
 				if (hooks != null && !hooks.isEmpty()
@@ -3075,6 +3548,10 @@ public final class Concierge extends AbstractBundle implements Framework,
 							(BundleRequirement) requirement, candidates);
 				}
 
+				if (trace != null) {
+					trace.record(requirement, candidates.size(), begin);
+				}
+
 				boolean resolved = false;
 				final boolean multiple = Namespace.CARDINALITY_MULTIPLE
 						.equals(requirement.getDirectives().get(
@@ -3082,116 +3559,49 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 				for (final Capability capability : candidates) {
 					if (isFragment) {
-						final Revision revision = (Revision) resource;
-						if (capability.getResource() instanceof Revision) {
-							final Revision host = (Revision) capability
-									.getResource();
-							try {
-								if (!host.attachFragment(revision)) {
-									resolved = true;
+						final long attachBegin = trace == null ? 0
+								: System.nanoTime();
+						try {
+							final Revision revision = (Revision) resource;
+							if (capability.getResource() instanceof Revision) {
+								final Revision host = (Revision) capability
+										.getResource();
+								try {
+									if (!host.attachFragment(revision)) {
+										resolved = true;
+										continue;
+									}
+								} catch (final BundleException be) {
+									// cannot attach
 									continue;
 								}
-							} catch (final BundleException be) {
-								// cannot attach
-								continue;
+							} else {
+								// case of system bundle extension is handled in
+								// Concierge.addFragment
 							}
-						} else {
-							// case of system bundle extension is handled in
-							// Concierge.addFragment
-						}
 
-						resolved = true;
+							resolved = true;
 
-						hostFragment(context, revision,
-								(BundleRevision) capability.getResource(),
-								solution);
+							hostFragment(context, revision,
+									(BundleRevision) capability.getResource(),
+									solution);
 
-						// don't trigger resolution of the host
-						continue;
+							// don't trigger resolution of the host
+							continue;
+						} finally {
+							if (trace != null) {
+								trace.record(ResolverTrace.FRAGMENTS,
+										attachBegin);
+							}
+						}
 					}
 
 					// handling potential uses constraints
 					if (capability instanceof BundleCapability) {
-						// FIXME: CLEANUP!!!, OPTIMIZE!!!
-						final ArrayList<BundleCapability> caps = new ArrayList<BundleCapability>();
-
-						if (BundleNamespace.BUNDLE_NAMESPACE
-								.equals(capability.getNamespace())) {
-							caps.addAll(((BundleCapability) capability)
-									.getResource().getDeclaredCapabilities(
-											PackageNamespace.PACKAGE_NAMESPACE));
-						} else {
-							caps.add((BundleCapability) capability);
-						}
-
-						final ArrayList<BundleCapability> impliedConstraints = new ArrayList<BundleCapability>();
-						final HashSet<BundleCapability> seen = new HashSet<BundleCapability>();
-						while (!caps.isEmpty()) {
-							final BundleCapability cap = caps.remove(0);
-
-							if (seen.contains(cap)) {
-								continue;
-							}
-
-							seen.add(cap);
-
-							final String usesStr = cap.getDirectives()
-									.get(Namespace.CAPABILITY_USES_DIRECTIVE);
-
-							if (usesStr != null) {
-								final String[] usesConstraints = Utils
-										.splitString(usesStr, ',');
-								final HashSet<String> usesSet = new HashSet<String>();
-								usesSet.addAll(Arrays.asList(usesConstraints));
-
-								final BundleWiring wiring = cap.getResource()
-										.getWiring();
-								// TODO: what does it mean that wiring is null
-								// at this point???
-								if (wiring != null && wiring.isInUse()) {
-									final List<BundleWire> wires = wiring
-											.getRequiredWires(
-													PackageNamespace.PACKAGE_NAMESPACE);
-
-									final HashSet<Object> requireSet = new HashSet<Object>();
-									for (final BundleWire wire : wires) {
-										final Object pkg = wire.getCapability()
-												.getAttributes()
-												.get(PackageNamespace.PACKAGE_NAMESPACE);
-
-										if (usesSet.contains(pkg)) {
-											impliedConstraints
-													.add(wire.getCapability());
-											caps.add(wire.getCapability());
-											requireSet.add(pkg);
-										}
-									}
-									final List<BundleCapability> caps2 = wiring
-											.getCapabilities(
-													PackageNamespace.PACKAGE_NAMESPACE);
-
-									for (final Capability cap2 : caps2) {
-										final Object pkg = cap2.getAttributes()
-												.get(PackageNamespace.PACKAGE_NAMESPACE);
-										if (usesSet.contains(pkg)
-												&& !requireSet.contains(pkg)) { // don't
-																				// include
-																				// cap
-																				// if
-																				// it
-																				// was
-																				// already
-																				// imported
-																				// as
-																				// requirement
-											impliedConstraints.add(
-													(BundleCapability) cap2);
-											caps.add((BundleCapability) cap2);
-										}
-									}
-								}
-							}
-						}
+						final long usesBegin = trace == null ? 0
+								: System.nanoTime();
+						final List<BundleCapability> impliedConstraints = getUsesClosure(
+								(BundleCapability) capability);
 
 						if (!impliedConstraints.isEmpty()) {
 							// go over implied constraints
@@ -3222,6 +3632,10 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 							}
 						}
+
+						if (trace != null) {
+							trace.record(ResolverTrace.USES, usesBegin);
+						}
 					}
 
 					// check if the provider is already resolved
@@ -3290,6 +3704,22 @@ public final class Concierge extends AbstractBundle implements Framework,
 				if (resource instanceof Revision) {
 					((Revision) resource).markResolved();
 				}
+			} else if (!standalone && resource instanceof Revision) {
+				final Revision revision = (Revision) resource;
+				if (hooks == null || hooks.isEmpty()) {
+					// remember the unresolved requirements so that the
+					// revision is only tried again when the capabilities
+					// change
+					revision.unresolvedRequirements = new ArrayList<Requirement>(
+							unresolvedRequirements);
+					revision.unresolvedGeneration = capabilityRegistry
+							.getGeneration();
+					failed.add(revision);
+				} else {
+					// the hooks might have filtered the candidates, the
+					// revision has to be tried again when they are gone
+					revision.unresolvedRequirements = null;
+				}
 			}
 
 			return unresolvedRequirements;
@@ -3574,6 +4004,42 @@ public final class Concierge extends AbstractBundle implements Framework,
 	 * framework operations
 	 */
 
+	/**
+	 * drop the snapshot of the hooks of a type after a change.
+	 * 
+	 * @param clazz
+	 *            the hook type.
+	 */
+	private void invalidateHookCache(final String clazz) {
+		final HookCache<?> cache = hookCaches.get(clazz);
+		if (cache != null) {
+			cache.invalidate();
+		}
+	}
+
+	/**
+	 * reorder the hooks after the properties of a service have been modified,
+	 * the ranking of a hook might have changed.
+	 * 
+	 * @param sref
+	 *            the service reference.
+	 */
+	void modifiedService(final ServiceReference<?> sref) {
+		final String[] clazzes = (String[]) sref
+				.getProperty(Constants.OBJECTCLASS);
+		for (int i = 0; i < clazzes.length; i++) {
+			@SuppressWarnings("unchecked")
+			final List<ServiceReference<?>> hookList = (List<ServiceReference<?>>) hooks
+					.get(clazzes[i]);
+			if (hookList != null) {
+				synchronized (hookList) {
+					Collections.sort(hookList, Collections.reverseOrder());
+				}
+				invalidateHookCache(clazzes[i]);
+			}
+		}
+	}
+
 	/**
 	 * unregister a service.
 	 * 
@@ -3594,7 +4060,10 @@ public final class Concierge extends AbstractBundle implements Framework,
 					.get(clazzes[i]);
 			if (hookList != null) {
 				isHook = true;
-				hookList.remove(sref);
+				synchronized (hookList) {
+					hookList.remove(sref);
+				}
+				invalidateHookCache(clazzes[i]);
 			}
 		}
 
@@ -3649,17 +4118,13 @@ public final class Concierge extends AbstractBundle implements Framework,
 			final ConciergeCollections.DeltaTrackingRemoveOnlyList<BundleContext> contexts = new ConciergeCollections.DeltaTrackingRemoveOnlyList<BundleContext>(
 					bundleListenerMap.keySet());
 
-			for (final ServiceReferenceImpl<org.osgi.framework.hooks.bundle.EventHook> sref : bundleEventHooks) {
-				final org.osgi.framework.hooks.bundle.EventHook eventHook = sref
-						.getService(Concierge.this);
-				if (eventHook != null) {
-					try {
-						eventHook.event(event, contexts);
-					} catch (final Throwable t) {
-						// TODO: to log?
-					}
+			for (final HookCache.Entry<org.osgi.framework.hooks.bundle.EventHook> eventHook : bundleEventHookCache
+					.get()) {
+				try {
+					eventHook.hook.event(event, contexts);
+				} catch (final Throwable t) {
+					// TODO: to log?
 				}
-				sref.ungetService(Concierge.this);
 			}
 
 			for (final BundleContext removed : contexts.getRemoved()) {
@@ -3681,9 +4146,11 @@ public final class Concierge extends AbstractBundle implements Framework,
 					.toArray(new BundleListener[bundleListeners.size()]);
 		}
 
+		final long begin = metrics.begin(Metrics.LISTENER_DISPATCH);
 		for (int i = 0; i < syncs.length; i++) {
 			syncs[i].bundleChanged(event);
 		}
+		metrics.end(Metrics.LISTENER_DISPATCH, begin);
 
 		// asynchronous listeners do not get these events
 		final int type = event.getType();
@@ -3772,14 +4239,9 @@ public final class Concierge extends AbstractBundle implements Framework,
 			final ConciergeCollections.RemoveOnlyList<Bundle> list = new ConciergeCollections.RemoveOnlyList<Bundle>(
 					collisions);
 
-			for (final ServiceReferenceImpl<CollisionHook> hookRef : bundleCollisionHooks) {
-				final CollisionHook hook = hookRef.getService(this);
-
-				if (hook != null) {
-					hook.filterCollisions(operation, contextOwner, list);
-				}
-
-				hookRef.ungetService(this);
+			for (final HookCache.Entry<CollisionHook> hook : bundleCollisionHookCache
+					.get()) {
+				hook.hook.filterCollisions(operation, contextOwner, list);
 			}
 
 			if (!list.isEmpty()) {
@@ -3838,6 +4300,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 	void notifyServiceListeners(final int state,
 			final ServiceReference<?> reference,
 			final Map<String, ?> oldProperties) {
+		metrics.count(Metrics.SERVICE_EVENT);
 		if (serviceListeners.isEmpty()) {
 			return;
 		}
@@ -3872,36 +4335,24 @@ public final class Concierge extends AbstractBundle implements Framework,
 			map.seal();
 
 			// first call the event hooks
-			final List<ServiceReferenceImpl<org.osgi.framework.hooks.service.EventHook>> serviceEventHooksCopy 
-				= new ArrayList<ServiceReferenceImpl<org.osgi.framework.hooks.service.EventHook>>(serviceEventHooks);
-			for (final ServiceReferenceImpl<org.osgi.framework.hooks.service.EventHook> eventHook : serviceEventHooksCopy) {
+			for (final HookCache.Entry<org.osgi.framework.hooks.service.EventHook> eventHook : serviceEventHookCache
+					.get()) {
 				try {
-					final org.osgi.framework.hooks.service.EventHook hook = eventHook
-							.getService(this);
-					hook.event(event, map.keySet());
+					eventHook.hook.event(event, map.keySet());
 				} catch (final Throwable t) {
 					notifyFrameworkListeners(FrameworkEvent.ERROR,
 							Concierge.this, t);
-				} finally {
-					eventHook.ungetService(this);
 				}
 			}
 
 			// then call the event listener hooks
-			final List<ServiceReferenceImpl<EventListenerHook>> serviceEventListenerHooksCopy 
-				= new ArrayList<ServiceReferenceImpl<EventListenerHook>>(serviceEventListenerHooks);
-			for (final Iterator<ServiceReferenceImpl<EventListenerHook>> iter = serviceEventListenerHooksCopy
-					.iterator(); iter.hasNext();) {
-				final ServiceReferenceImpl<EventListenerHook> hookRef = iter
-						.next();
+			for (final HookCache.Entry<EventListenerHook> hook : serviceEventListenerHookCache
+					.get()) {
 				try {
-					final EventListenerHook hook = hookRef.getService(this);
-					hook.event(event, map);
+					hook.hook.event(event, map);
 				} catch (final Throwable t) {
 					notifyFrameworkListeners(FrameworkEvent.ERROR,
 							Concierge.this, t);
-				} finally {
-					hookRef.ungetService(this);
 				}
 			}
 
@@ -3922,6 +4373,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 		final ServiceReferenceImpl<?> ref = (ServiceReferenceImpl<?>) reference;
 
+		final long begin = metrics.begin(Metrics.LISTENER_DISPATCH);
 		for (int i = 0; i < entries.length; i++) {
 			// check if the listener can receive the service event
 			if (!(entries[i].listener instanceof AllServiceListener)) {
@@ -3952,6 +4404,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 				}
 			}
 		}
+		metrics.end(Metrics.LISTENER_DISPATCH, begin);
 	}
 
 	/**
@@ -3989,13 +4442,16 @@ public final class Concierge extends AbstractBundle implements Framework,
 			bundle.registeredServices = null;
 		}
 
-		// unget all using services
-		final ServiceReference<?>[] refs = bundle.getServicesInUse();
+		// release all used services
+		final ServiceReferenceImpl<?>[] refs = bundle.collectServicesInUse();
 		if (refs != null) {
 			for (int i = 0; i < refs.length; i++) {
-				((ServiceReferenceImpl<?>) refs[i]).ungetService(bundle);
+				while (refs[i].ungetService(bundle)) {
+					// until the use count drops to zero
+				}
 			}
 		}
+		bundle.servicesInUse.clear();
 	}
 
 	/**
@@ -4034,6 +4490,38 @@ public final class Concierge extends AbstractBundle implements Framework,
 	synchronized BundleImpl installNewBundle(final BundleContext context,
 			final String location, final InputStream in)
 					throws BundleException {
+		final BundleImpl cached = getInstalledBundle(context, location);
+		if (cached != null) {
+			return cached;
+		}
+
+		final BundleImpl bundle = new BundleImpl(this, context, location,
+				nextBundleID++, in);
+
+		bundle.install();
+		metrics.count(Metrics.BUNDLE_INSTALL);
+
+		// notify the listeners
+		notifyBundleListeners(BundleEvent.INSTALLED, bundle,
+				context.getBundle());
+
+		storeMetadata();
+		return bundle;
+	}
+
+	/**
+	 * get the bundle that is already installed from a location.
+	 * 
+	 * @param context
+	 *            the installing context.
+	 * @param location
+	 *            the bundle location.
+	 * @return the bundle or <code>null</code> if there is none.
+	 * @throws BundleException
+	 *             if the existing bundle is rejected by the find hooks.
+	 */
+	private BundleImpl getInstalledBundle(final BundleContext context,
+			final String location) throws BundleException {
 		final AbstractBundle cached;
 		if ((cached = location_bundles.get(location)) != null) {
 			if (!bundleFindHooks.isEmpty()) {
@@ -4045,21 +4533,230 @@ public final class Concierge extends AbstractBundle implements Framework,
 							BundleException.REJECTED_BY_HOOK);
 				}
 			}
+		}
+		return (BundleImpl) cached;
+	}
+
+	/**
+	 * @see org.eclipse.concierge.api.BundleInstaller#installBundles(java.lang.String[])
+	 * @category BundleInstaller
+	 */
+	public Bundle[] installBundles(final String[] locations) {
+		return installBundles(context, locations);
+	}
+
+	/**
+	 * The service factory of the bundle installer, the bundles are installed
+	 * through the context of the bundle that uses the service.
+	 */
+	final class BundleInstallerFactory
+			implements ServiceFactory<BundleInstaller> {
+
+		public BundleInstaller getService(final Bundle bundle,
+				final ServiceRegistration<BundleInstaller> registration) {
+			return new BundleInstaller() {
+				public Bundle[] installBundles(final String[] locations) {
+					final BundleContext context = bundle.getBundleContext();
+					if (context == null) {
+						throw new IllegalStateException("Bundle " + bundle
+								+ " has no valid context");
+					}
+					return Concierge.this.installBundles(context, locations);
+				}
+			};
+		}
 
-			return (BundleImpl) cached;
+		public void ungetService(final Bundle bundle,
+				final ServiceRegistration<BundleInstaller> registration,
+				final BundleInstaller service) {
+			// nop
 		}
+	}
 
-		final BundleImpl bundle = new BundleImpl(this, context, location,
-				nextBundleID++, in);
+	/**
+	 * install a set of bundles. The bundle ids are assigned in the order of
+	 * the locations, then a pool of worker threads retrieves the bundles and
+	 * writes them to the storage. Processing the manifests and registering
+	 * the bundles with the framework happens again in order and under the
+	 * framework lock.
+	 * 
+	 * @param context
+	 *            the installing context.
+	 * @param locations
+	 *            the bundle locations.
+	 * @return the bundles, <code>null</code> for bundles that could not be
+	 *         installed.
+	 */
+	Bundle[] installBundles(final BundleContext context,
+			final String[] locations) {
+		if (locations == null) {
+			throw new IllegalArgumentException("Locations must not be null");
+		}
+		for (int i = 0; i < locations.length; i++) {
+			if (locations[i] == null) {
+				throw new IllegalArgumentException(
+						"Location must not be null");
+			}
+		}
+		final int n = locations.length;
+		final Bundle[] result = new Bundle[n];
+		final String[] urls = new String[n];
+		final long[] ids = new long[n];
+		final int[] duplicateOf = new int[n];
+		final List<Integer> toStore = new ArrayList<Integer>(n);
+
+		// assign the bundle ids
+		synchronized (this) {
+			final HashMap<String, Integer> batch = new HashMap<String, Integer>();
+			for (int i = 0; i < n; i++) {
+				duplicateOf[i] = -1;
+				urls[i] = locations[i].indexOf(":") > -1 ? locations[i]
+						: BUNDLE_LOCATION + File.separatorChar + locations[i];
+				try {
+					final BundleImpl cached = getInstalledBundle(context,
+							urls[i]);
+					if (cached != null) {
+						result[i] = cached;
+						continue;
+					}
+				} catch (final BundleException be) {
+					notifyFrameworkListeners(FrameworkEvent.ERROR, this, be);
+					continue;
+				}
+				final Integer first = batch.get(urls[i]);
+				if (first != null) {
+					duplicateOf[i] = first.intValue();
+					continue;
+				}
+				batch.put(urls[i], new Integer(i));
+				ids[i] = nextBundleID++;
+				toStore.add(new Integer(i));
+			}
+		}
+
+		// retrieve and store the bundles
+		final RevisionContent[] contents = new RevisionContent[n];
+		final int threads = Math.min(INSTALL_THREADS, toStore.size());
+		if (threads > 1) {
+			final ExecutorService pool = Executors.newFixedThreadPool(threads,
+					new ThreadFactory() {
+						public Thread newThread(final Runnable r) {
+							final Thread t = new Thread(r,
+									"Concierge Bundle Installer");
+							t.setDaemon(true);
+							return t;
+						}
+					});
+			try {
+				final List<Future<RevisionContent>> futures = new ArrayList<Future<RevisionContent>>(
+						toStore.size());
+				for (final Integer i : toStore) {
+					final String url = urls[i.intValue()];
+					final long id = ids[i.intValue()];
+					futures.add(pool.submit(new Callable<RevisionContent>() {
+						public RevisionContent call() throws BundleException {
+							return storeBundle(url, id);
+						}
+					}));
+				}
+				for (int j = 0; j < futures.size(); j++) {
+					final int i = toStore.get(j).intValue();
+					try {
+						contents[i] = futures.get(j).get();
+					} catch (final ExecutionException ee) {
+						notifyFrameworkListeners(FrameworkEvent.ERROR, this,
+								ee.getCause());
+					} catch (final InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						notifyFrameworkListeners(FrameworkEvent.ERROR, this,
+								ie);
+					}
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		} else {
+			for (final Integer i : toStore) {
+				try {
+					contents[i.intValue()] = storeBundle(urls[i.intValue()],
+							ids[i.intValue()]);
+				} catch (final BundleException be) {
+					notifyFrameworkListeners(FrameworkEvent.ERROR, this, be);
+				}
+			}
+		}
 
-		bundle.install();
+		// register the bundles with the framework
+		synchronized (this) {
+			for (final Integer idx : toStore) {
+				final int i = idx.intValue();
+				if (contents[i] == null) {
+					continue;
+				}
+				try {
+					final BundleImpl cached = getInstalledBundle(context,
+							urls[i]);
+					if (cached != null) {
+						// installed concurrently by someone else
+						result[i] = cached;
+						if (contents[i].jar != null) {
+							contents[i].jar.close();
+						}
+						deleteDirectory(
+								new File(STORAGE_LOCATION + ids[i]));
+						continue;
+					}
 
-		// notify the listeners
-		notifyBundleListeners(BundleEvent.INSTALLED, bundle,
-				context.getBundle());
+					final BundleImpl bundle = new BundleImpl(this, context,
+							urls[i], ids[i], contents[i]);
 
-		storeMetadata();
-		return bundle;
+					bundle.install();
+					metrics.count(Metrics.BUNDLE_INSTALL);
+
+					// notify the listeners
+					notifyBundleListeners(BundleEvent.INSTALLED, bundle,
+							context.getBundle());
+
+					result[i] = bundle;
+				} catch (final BundleException be) {
+					notifyFrameworkListeners(FrameworkEvent.ERROR, this, be);
+				} catch (final IOException ioe) {
+					notifyFrameworkListeners(FrameworkEvent.ERROR, this, ioe);
+				}
+			}
+			storeMetadata();
+		}
+
+		for (int i = 0; i < n; i++) {
+			if (duplicateOf[i] > -1) {
+				result[i] = result[duplicateOf[i]];
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * retrieve a bundle and write it to the storage.
+	 * 
+	 * @param location
+	 *            the bundle location.
+	 * @param bundleId
+	 *            the bundle id.
+	 * @return the stored content.
+	 * @throws BundleException
+	 *             if the bundle cannot be retrieved or is not valid.
+	 */
+	private RevisionContent storeBundle(final String location,
+			final long bundleId) throws BundleException {
+		final InputStream in;
+		try {
+			in = new URL(location).openConnection().getInputStream();
+		} catch (final IOException e) {
+			throw new BundleException("Cannot retrieve bundle from " + location,
+					BundleException.READ_ERROR, e);
+		}
+		return BundleImpl.storeContent(this, location, bundleId, 0, in);
 	}
 
 	protected Bundle[] filterWithBundleHooks(final BundleContext context,
@@ -4067,17 +4764,13 @@ public final class Concierge extends AbstractBundle implements Framework,
 		final ConciergeCollections.RemoveOnlyList<Bundle> list = new ConciergeCollections.RemoveOnlyList<Bundle>(
 				bundles);
 
-		for (final ServiceReferenceImpl<org.osgi.framework.hooks.bundle.FindHook> sref : bundleFindHooks) {
-			final org.osgi.framework.hooks.bundle.FindHook findHook = sref
-					.getService(Concierge.this);
-			if (findHook != null) {
-				try {
-					findHook.find(context, list);
-				} catch (final Throwable t) {
-					// TODO: log?
-				}
+		for (final HookCache.Entry<org.osgi.framework.hooks.bundle.FindHook> findHook : bundleFindHookCache
+				.get()) {
+			try {
+				findHook.hook.find(context, list);
+			} catch (final Throwable t) {
+				// TODO: log?
 			}
-			sref.ungetService(Concierge.this);
 		}
 
 		return list.toArray(new Bundle[list.size()]);
@@ -4091,12 +4784,51 @@ public final class Concierge extends AbstractBundle implements Framework,
 			final Version other = (Version) ref
 					.getProperty(Constants.VERSION_ATTRIBUTE);
 			if (other != null && other.compareTo(version) == 0) {
-				return (T) ((ServiceReferenceImpl<?>) ref).service;
+				final Object service = ((ServiceReferenceImpl<?>) ref).service;
+				return (T) (service instanceof MicroService
+						? ((MicroService) service).get() : service);
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * A micro-service of the framework. The service object is created when
+	 * the service is first used.
+	 */
+	static final class MicroService implements ServiceFactory<Object> {
+
+		private final String className;
+
+		private Object service;
+
+		MicroService(final String className) {
+			this.className = className;
+		}
+
+		synchronized Object get() {
+			if (service == null) {
+				try {
+					service = Class.forName(className).newInstance();
+				} catch (final Exception e) {
+					e.printStackTrace();
+				}
+			}
+			return service;
+		}
+
+		public Object getService(final Bundle bundle,
+				final ServiceRegistration<Object> registration) {
+			return get();
+		}
+
+		public void ungetService(final Bundle bundle,
+				final ServiceRegistration<Object> registration,
+				final Object service) {
+			// the service object is shared
+		}
+	}
+
 	/*
 	 * inner classes
 	 */
@@ -4217,14 +4949,14 @@ public final class Concierge extends AbstractBundle implements Framework,
 				serviceListeners.add(entry);
 			}
 
-			informListenerHooks(serviceListenerHooks,
+			informListenerHooks(serviceListenerHookCache.get(),
 					new ServiceListenerEntry[] { entry }, true);
 		}
 
 		private void informListenerHooks(
-				final Collection<ServiceReferenceImpl<ListenerHook>> hooks,
+				final Collection<HookCache.Entry<ListenerHook>> hooks,
 				final ServiceListenerEntry[] entries, final boolean added) {
-			if (hooks == null || hooks.isEmpty()) {
+			if (hooks.isEmpty()) {
 				return;
 			}
 
@@ -4237,21 +4969,17 @@ public final class Concierge extends AbstractBundle implements Framework,
 			final Collection<ListenerInfo> c = new ConciergeCollections.RemoveOnlyList<ListenerInfo>(
 					Arrays.asList(entries));
 
-			for (final Iterator<ServiceReferenceImpl<ListenerHook>> iter = hooks
-					.iterator(); iter.hasNext();) {
-				final ServiceReferenceImpl<ListenerHook> hookRef = iter.next();
-				final ListenerHook hook = getService(hookRef);
+			for (final HookCache.Entry<ListenerHook> hook : hooks) {
 				try {
 					if (added) {
-						hook.added(c);
+						hook.hook.added(c);
 					} else {
-						hook.removed(c);
+						hook.hook.removed(c);
 					}
 				} catch (final Throwable t) {
 					notifyFrameworkListeners(FrameworkEvent.ERROR,
 							Concierge.this, t);
 				}
-				ungetService(hookRef);
 			}
 		}
 
@@ -4500,6 +5228,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 				final String clazz, final String filter, final boolean all)
 						throws InvalidSyntaxException {
 			checkValid();
+			metrics.count(Metrics.SERVICE_LOOKUP);
 
 			final Filter theFilter = RFC1960Filter.fromString(filter);
 			final Collection<ServiceReference<?>> references;
@@ -4513,14 +5242,13 @@ public final class Concierge extends AbstractBundle implements Framework,
 			final List<ServiceReference<?>> result = new ArrayList<ServiceReference<?>>();
 
 			if (references != null) {
-				final ServiceReferenceImpl<?>[] refs = references
-						.toArray(new ServiceReferenceImpl[references.size()]);
-
-				for (int i = 0; i < refs.length; i++) {
-					if (theFilter.match(refs[i]) && (all
-							|| refs[i].isAssignableTo(bundle, (String[]) refs[i]
-									.getProperty(Constants.OBJECTCLASS)))) {
-						result.add(refs[i]);
+				// the registry returns immutable snapshots
+				for (final ServiceReference<?> ref : references) {
+					if (theFilter.match(ref) && (all
+							|| ((ServiceReferenceImpl<?>) ref).isAssignableTo(
+									bundle, (String[]) ref.getProperty(
+											Constants.OBJECTCLASS)))) {
+						result.add(ref);
 					}
 				}
 			}
@@ -4528,17 +5256,14 @@ public final class Concierge extends AbstractBundle implements Framework,
 			if (!serviceFindHooks.isEmpty()) {
 				final Collection<ServiceReference<?>> c = new ConciergeCollections.RemoveOnlyList<ServiceReference<?>>(
 						result);
-				for (final Iterator<ServiceReferenceImpl<FindHook>> iter = serviceFindHooks
-						.iterator(); iter.hasNext();) {
-					final ServiceReferenceImpl<FindHook> hookRef = iter.next();
-					final FindHook hook = getService(hookRef);
+				for (final HookCache.Entry<FindHook> hook : serviceFindHookCache
+						.get()) {
 					try {
-						hook.find(this, clazz, filter, all, c);
+						hook.hook.find(this, clazz, filter, all, c);
 					} catch (final Throwable t) {
 						notifyFrameworkListeners(FrameworkEvent.ERROR,
 								Concierge.this, t);
 					}
-					ungetService(hookRef);
 				}
 
 				return c.size() == 0 ? null
@@ -4696,6 +5421,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 			final ServiceReferenceImpl<?> sref = new ServiceReferenceImpl<Object>(
 					Concierge.this, bundle, service, serviceProperties,
 					clazzes);
+			metrics.count(Metrics.SERVICE_REGISTRATION);
 
 			// lazy initialization
 			if (bundle.registeredServices == null) {
@@ -4737,21 +5463,29 @@ public final class Concierge extends AbstractBundle implements Framework,
 			}
 
 			if (add) {
-				hookList.add(sref);
-				// not required for collision hook, weaving hook,
-				// resolverHookFactory...
-				Collections.sort(hookList, Collections.reverseOrder());
+				synchronized (hookList) {
+					hookList.add(sref);
+					// not required for collision hook, weaving hook,
+					// resolverHookFactory...
+					Collections.sort(hookList, Collections.reverseOrder());
+				}
+				invalidateHookCache(clazz);
 			} else {
 				// FIXME: remove!
 			}
 
 			// special case: ListenerHook
 			if (add && (Object) hookList == (Object) serviceListenerHooks) {
-				@SuppressWarnings("unchecked")
-				final ServiceReferenceImpl<ListenerHook> hookRef = (ServiceReferenceImpl<ListenerHook>) sref;
-				if (serviceListeners != null) {
+				HookCache.Entry<ListenerHook> hook = null;
+				for (final HookCache.Entry<ListenerHook> entry : serviceListenerHookCache
+						.get()) {
+					if (entry.ref == sref) {
+						hook = entry;
+					}
+				}
+				if (hook != null && serviceListeners != null) {
 					try {
-						informListenerHooks(Collections.singletonList(hookRef),
+						informListenerHooks(Collections.singletonList(hook),
 								serviceListeners.toArray(
 										new ServiceListenerEntry[serviceListeners
 												.size()]),
@@ -4855,7 +5589,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 				}
 			}
 
-			informListenerHooks(serviceListenerHooks,
+			informListenerHooks(serviceListenerHookCache.get(),
 					new ServiceListenerEntry[] { entry }, false);
 		}
 
@@ -5019,6 +5753,79 @@ public final class Concierge extends AbstractBundle implements Framework,
 		// namespace -> value (of canonical attribute) -> list of capability
 		private final HashMap<String, MultiMap<String, Capability>> defaultAttributeIndex = new HashMap<String, MultiMap<String, Capability>>();
 
+		// incremented whenever a capability becomes available or is removed
+		private long generation;
+
+		// namespace -> generation of the last capability that became available
+		// or was removed
+		private final HashMap<String, Long> namespaceGenerations = new HashMap<String, Long>();
+
+		// namespace -> value (of canonical attribute) -> generation of the last
+		// capability that became available or was removed
+		private final HashMap<String, HashMap<String, Long>> valueGenerations = new HashMap<String, HashMap<String, Long>>();
+
+		// sorts the capabilities of a package by descending version, then by
+		// ascending bundle id. This is EXPORT_ORDER without the preference for
+		// resolved providers, which can change over time.
+		private static final Comparator<Capability> PACKAGE_INDEX_ORDER = new Comparator<Capability>() {
+			public int compare(final Capability cap1, final Capability cap2) {
+				final int score = getVersion(cap2,
+						PackageNamespace.CAPABILITY_VERSION_ATTRIBUTE)
+								.compareTo(getVersion(cap1,
+										PackageNamespace.CAPABILITY_VERSION_ATTRIBUTE));
+				if (score != 0 || !(cap1 instanceof BundleCapability
+						&& cap2 instanceof BundleCapability)) {
+					return score;
+				}
+
+				final long cap1BundleId = ((BundleCapability) cap1)
+						.getRevision().getBundle().getBundleId();
+				final long cap2BundleId = ((BundleCapability) cap2)
+						.getRevision().getBundle().getBundleId();
+
+				return cap1BundleId < cap2BundleId ? -1
+						: cap1BundleId == cap2BundleId ? 0 : 1;
+			}
+		};
+
+		// sorts the capabilities of a bundle by descending bundle version,
+		// like BUNDLE_VERSION
+		private static final Comparator<Capability> BUNDLE_INDEX_ORDER = new Comparator<Capability>() {
+			public int compare(final Capability cap1, final Capability cap2) {
+				return getVersion(cap2,
+						AbstractWiringNamespace.CAPABILITY_BUNDLE_VERSION_ATTRIBUTE)
+								.compareTo(getVersion(cap1,
+										AbstractWiringNamespace.CAPABILITY_BUNDLE_VERSION_ATTRIBUTE));
+			}
+		};
+
+		/**
+		 * get the attribute by which the index sorts the capabilities of a
+		 * namespace.
+		 * 
+		 * @param namespace
+		 *            the namespace.
+		 * @return the version attribute or <code>null</code> if the index
+		 *         keeps the capabilities of the namespace in the order in
+		 *         which they were added.
+		 */
+		static String getVersionAttribute(final String namespace) {
+			if (PackageNamespace.PACKAGE_NAMESPACE.equals(namespace)) {
+				return PackageNamespace.CAPABILITY_VERSION_ATTRIBUTE;
+			}
+			if (BundleNamespace.BUNDLE_NAMESPACE.equals(namespace)) {
+				return AbstractWiringNamespace.CAPABILITY_BUNDLE_VERSION_ATTRIBUTE;
+			}
+			return null;
+		}
+
+		static Version getVersion(final Capability cap,
+				final String attribute) {
+			final Object version = cap.getAttributes().get(attribute);
+			return version instanceof Version ? (Version) version
+					: Version.emptyVersion;
+		}
+
 		void add(final Capability cap) {
 			final String namespace = cap.getNamespace();
 			capabilities.insert(namespace, cap);
@@ -5028,11 +5835,77 @@ public final class Concierge extends AbstractBundle implements Framework,
 				MultiMap<String, Capability> attributeIndex = defaultAttributeIndex
 						.get(namespace);
 				if (attributeIndex == null) {
-					attributeIndex = new MultiMap<String, Capability>();
+					if (PackageNamespace.PACKAGE_NAMESPACE.equals(namespace)) {
+						attributeIndex = new MultiMap<String, Capability>(
+								PACKAGE_INDEX_ORDER);
+					} else if (BundleNamespace.BUNDLE_NAMESPACE
+							.equals(namespace)) {
+						attributeIndex = new MultiMap<String, Capability>(
+								BUNDLE_INDEX_ORDER);
+					} else {
+						attributeIndex = new MultiMap<String, Capability>();
+					}
 					defaultAttributeIndex.put(namespace, attributeIndex);
 				}
 				attributeIndex.insert((String) defaultAttribute, cap);
 			}
+
+			changed(cap);
+		}
+
+		/**
+		 * record that a capability has become available, either because it
+		 * has been added or because its provider has been resolved, or that
+		 * it has been removed. A removal can resolve a revision, e.g., when
+		 * it had a conflict with the removed capability.
+		 * 
+		 * @param cap
+		 *            the capability.
+		 */
+		void changed(final Capability cap) {
+			final String namespace = cap.getNamespace();
+			final Long gen = new Long(++generation);
+			namespaceGenerations.put(namespace, gen);
+
+			final Object defaultAttribute = cap.getAttributes().get(namespace);
+			if (defaultAttribute instanceof String) {
+				HashMap<String, Long> values = valueGenerations.get(namespace);
+				if (values == null) {
+					values = new HashMap<String, Long>();
+					valueGenerations.put(namespace, values);
+				}
+				values.put((String) defaultAttribute, gen);
+			}
+		}
+
+		long getGeneration() {
+			return generation;
+		}
+
+		/**
+		 * check if a capability has become available or has been removed
+		 * since a given generation.
+		 * 
+		 * @param namespace
+		 *            the namespace.
+		 * @param value
+		 *            the value of the canonical attribute or <code>null</code>
+		 *            for any capability in the namespace.
+		 * @param gen
+		 *            the generation.
+		 * @return true if there was such a capability.
+		 */
+		boolean changedSince(final String namespace, final String value,
+				final long gen) {
+			final Long last;
+			if (value == null) {
+				last = namespaceGenerations.get(namespace);
+			} else {
+				final HashMap<String, Long> values = valueGenerations
+						.get(namespace);
+				last = values == null ? null : values.get(value);
+			}
+			return last != null && last.longValue() > gen;
 		}
 
 		void addAll(final Resource res) {
@@ -5044,6 +5917,7 @@ public final class Concierge extends AbstractBundle implements Framework,
 		boolean remove(final Capability cap) {
 			final String namespace = cap.getNamespace();
 			capabilities.remove(namespace, cap);
+			changed(cap);
 
 			final Object defaultAttribute = cap.getAttributes().get(namespace);
 
@@ -5148,6 +6022,11 @@ public final class Concierge extends AbstractBundle implements Framework,
 	 */
 	public void start(final BundleContext context) throws Exception {
 		context.registerService(Resolver.class, resolver, null);
+		context.registerService(BundleInstaller.class.getName(),
+				new BundleInstallerFactory(), null);
+		context.registerService(ResolverMonitor.class, resolverTracer, null);
+		context.registerService(FrameworkMetrics.class, metrics, null);
+		context.registerService(BootTimeline.class, timeline, null);
 	}
 
 	/**
@@ -5158,6 +6037,61 @@ public final class Concierge extends AbstractBundle implements Framework,
 
 	}
 
+	/**
+	 * the transitive uses constraints implied by a capability, together with
+	 * the wirings of the revisions whose uses directives were evaluated.
+	 */
+	static final class UsesClosure {
+
+		final List<BundleCapability> implied;
+
+		private final BundleRevision[] revisions;
+
+		private final BundleWiring[] wirings;
+
+		private final int[] modCounts;
+
+		UsesClosure(final List<BundleCapability> implied,
+				final List<BundleRevision> revisions,
+				final List<BundleWiring> wirings) {
+			this.implied = implied;
+			this.revisions = revisions
+					.toArray(new BundleRevision[revisions.size()]);
+			this.wirings = wirings.toArray(new BundleWiring[wirings.size()]);
+			this.modCounts = new int[this.wirings.length];
+			for (int i = 0; i < this.wirings.length; i++) {
+				modCounts[i] = modCount(this.wirings[i]);
+			}
+		}
+
+		static BundleWiring getWiringInUse(final BundleRevision revision) {
+			final BundleWiring wiring = revision.getWiring();
+			return wiring != null && wiring.isInUse() ? wiring : null;
+		}
+
+		private static int modCount(final BundleWiring wiring) {
+			return wiring instanceof ConciergeBundleWiring
+					? ((ConciergeBundleWiring) wiring).modCount : -1;
+		}
+
+		boolean isValid() {
+			for (int i = 0; i < revisions.length; i++) {
+				final BundleWiring wiring = getWiringInUse(revisions[i]);
+				if (wiring != wirings[i]) {
+					return false;
+				}
+				if (wiring != null) {
+					final int mod = modCount(wiring);
+					if (mod == -1 || mod != modCounts[i]) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+	}
+
 	String[] getLibraryName(final String libname) {
 		if (libraryExtensions == null) {
 			return new String[] { System.mapLibraryName(libname) };
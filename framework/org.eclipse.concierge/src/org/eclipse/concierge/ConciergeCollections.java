@@ -20,7 +20,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,11 +31,18 @@ public interface ConciergeCollections {
 
 		protected final HashMap<K, List<V>> map;
 
-		protected final LinkedHashSet<V> allValues = new LinkedHashSet<V>();
+		/**
+		 * all values in the order of their first insertion, with the number of
+		 * lists that contain them.
+		 */
+		protected final LinkedHashMap<V, int[]> allValues = new LinkedHashMap<V, int[]>();
 
 		private final Comparator<V> comp;
 
-		boolean dirty = false;
+		/**
+		 * the immutable list of all values, <code>null</code> after a change.
+		 */
+		private List<V> snapshot;
 
 		public MultiMap() {
 			this.map = new HashMap<K, List<V>>();
@@ -71,9 +78,7 @@ public interface ConciergeCollections {
 			if (comp != null) {
 				Collections.sort(list, comp);
 			}
-			if (!dirty) {
-				allValues.add(value);
-			}
+			added(value);
 		}
 
 		public void insertEmpty(final K key) {
@@ -95,9 +100,7 @@ public interface ConciergeCollections {
 				if (comp != null) {
 					Collections.sort(list, comp);
 				}
-				if (!dirty) {
-					allValues.add(value);
-				}
+				added(value);
 			}
 		}
 
@@ -112,8 +115,8 @@ public interface ConciergeCollections {
 			if (comp != null) {
 				Collections.sort(list, comp);
 			}
-			if (!dirty) {
-				allValues.addAll(values);
+			for (final V value : values) {
+				added(value);
 			}
 		}
 
@@ -138,7 +141,7 @@ public interface ConciergeCollections {
 			if (list != null) {
 				final boolean result = list.remove(value);
 				if (result) {
-					dirty = true;
+					removed(value);
 				}
 				return result;
 			}
@@ -151,7 +154,9 @@ public interface ConciergeCollections {
 				return null;
 			}
 
-			dirty = true;
+			for (final V value : values) {
+				removed(value);
+			}
 			return values;
 		}
 
@@ -160,30 +165,46 @@ public interface ConciergeCollections {
 			return result == null ? Collections.<V> emptyList() : result;
 		}
 
-		protected void redoAllValues() {
-			allValues.clear();
-			for (final List<V> valueList : values()) {
-				allValues.addAll(valueList);
+		private void added(final V value) {
+			final int[] count = allValues.get(value);
+			if (count == null) {
+				allValues.put(value, new int[] { 1 });
+				snapshot = null;
+			} else {
+				count[0]++;
+			}
+		}
+
+		private void removed(final Object value) {
+			final int[] count = allValues.get(value);
+			if (count != null && --count[0] == 0) {
+				allValues.remove(value);
+				snapshot = null;
 			}
-			dirty = false;
 		}
 
+		/**
+		 * get all values. Values that are contained in more than one list are
+		 * only returned once.
+		 * 
+		 * @return an immutable snapshot of all values, shared until the next
+		 *         change of the values.
+		 */
 		public List<V> getAllValues() {
-			if (dirty) {
-				redoAllValues();
+			if (snapshot == null) {
+				snapshot = Collections.unmodifiableList(
+						new ArrayList<V>(allValues.keySet()));
 			}
-			return new ArrayList<V>(allValues);
+			return snapshot;
 		}
 
 		public void removeAll(final K[] keys, final V value) {
 			for (int i = 0; i < keys.length; i++) {
 				final List<V> list = get(keys[i]);
-				if (list != null) {
-					list.remove(value);
+				if (list != null && list.remove(value)) {
+					removed(value);
 				}
 			}
-
-			dirty = true;
 		}
 
 		public Set<K> keySet() {
@@ -233,19 +254,11 @@ public interface ConciergeCollections {
 			}
 
 			public boolean remove(final Object key) {
-				final boolean result = MultiMap.this.remove(key) != null;
-
-				if (result) {
-					dirty = true;
-				}
-
-				return result;
+				return MultiMap.this.remove(key) != null;
 			}
 
 			public void clear() {
 				MultiMap.this.clear();
-				allValues.clear();
-				dirty = false;
 			}
 		}
 
@@ -262,10 +275,7 @@ public interface ConciergeCollections {
 		}
 
 		public boolean containsValue(final Object value) {
-			if (dirty) {
-				redoAllValues();
-			}
-			return allValues.contains(value);
+			return allValues.containsKey(value);
 		}
 
 		public List<V> put(final K key, final List<V> value) {
@@ -279,7 +289,7 @@ public interface ConciergeCollections {
 		public void clear() {
 			map.clear();
 			allValues.clear();
-			dirty = false;
+			snapshot = null;
 		}
 
 		public Collection<List<V>> values() {
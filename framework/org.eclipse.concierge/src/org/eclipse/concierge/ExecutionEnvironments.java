@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The execution environments supported by the JVM. Probing the compact
+ * profiles loads classes of the JVM, so the framework caches the result in its
+ * storage and only probes again when it runs on a different JVM.
+ */
+final class ExecutionEnvironments {
+
+	/**
+	 * the value of org.osgi.framework.executionenvironment.
+	 */
+	final String ees;
+
+	/**
+	 * the versions of the osgi.ee capabilities, an empty string if there is
+	 * no capability.
+	 */
+	final String se;
+
+	final String compact1;
+
+	final String compact2;
+
+	final String compact3;
+
+	final String min;
+
+	private ExecutionEnvironments(final String ees, final String se,
+			final String compact1, final String compact2,
+			final String compact3, final String min) {
+		this.ees = ees;
+		this.se = se;
+		this.compact1 = compact1;
+		this.compact2 = compact2;
+		this.compact3 = compact3;
+		this.min = min;
+	}
+
+	/**
+	 * get the key of the JVM.
+	 *
+	 * @return a string that changes when the JVM changes.
+	 */
+	static String key() {
+		return System.getProperty("java.specification.name") + '|'
+				+ System.getProperty("java.specification.version") + '|'
+				+ System.getProperty("java.vm.vendor") + '|'
+				+ System.getProperty("java.vm.version") + '|'
+				+ System.getProperty("java.home");
+	}
+
+	/**
+	 * read the cached execution environments.
+	 *
+	 * @param file
+	 *            the cache file.
+	 * @return the execution environments or <code>null</code> if the file
+	 *         does not exist or was written by a different JVM.
+	 */
+	static ExecutionEnvironments load(final File file) {
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			final DataInputStream in = new DataInputStream(
+					new FileInputStream(file));
+			try {
+				if (!key().equals(in.readUTF())) {
+					return null;
+				}
+				return new ExecutionEnvironments(in.readUTF(), in.readUTF(),
+						in.readUTF(), in.readUTF(), in.readUTF(),
+						in.readUTF());
+			} finally {
+				in.close();
+			}
+		} catch (final IOException ioe) {
+			// probe again
+			return null;
+		}
+	}
+
+	/**
+	 * write the execution environments to the cache.
+	 *
+	 * @param file
+	 *            the cache file.
+	 */
+	void store(final File file) {
+		try {
+			final DataOutputStream out = new DataOutputStream(
+					new FileOutputStream(file));
+			try {
+				out.writeUTF(key());
+				out.writeUTF(ees);
+				out.writeUTF(se);
+				out.writeUTF(compact1);
+				out.writeUTF(compact2);
+				out.writeUTF(compact3);
+				out.writeUTF(min);
+			} finally {
+				out.close();
+			}
+		} catch (final IOException ioe) {
+			ioe.printStackTrace();
+		}
+	}
+
+	/**
+	 * probe the execution environments of the JVM.
+	 *
+	 * @param loader
+	 *            the class loader used to probe the compact profiles.
+	 * @return the execution environments.
+	 */
+	static ExecutionEnvironments probe(final ClassLoader loader) {
+		final StringBuffer myEEs = new StringBuffer();
+
+		final StringBuffer seVersionList = new StringBuffer();
+		final StringBuffer compact1VersionList = new StringBuffer();
+		final StringBuffer compact2VersionList = new StringBuffer();
+		final StringBuffer compact3VersionList = new StringBuffer();
+
+		final StringBuffer minVersionList = new StringBuffer();
+
+		final int minor;
+		int parsed = 0;
+		try {
+			parsed = Integer.parseInt(System
+					.getProperty("java.specification.version").substring(2));
+		} catch (final NumberFormatException nfe) {
+			nfe.printStackTrace();
+		} finally {
+			minor = parsed;
+		}
+
+		if (System.getProperty("java.specification.name")
+				.equals("J2ME Foundation Specification")) {
+			switch (minor) {
+			case 1:
+				myEEs.append("CDC-1.1/Foundation-1.1,");
+			case 0:
+				myEEs.append("CDC-1.0/Foundation-1.0");
+			}
+		} else {
+			switch (minor) {
+			case 8:
+				myEEs.append("J2SE-1.8,");
+				myEEs.append("JavaSE-1.8,");
+				// also add the valid compact profiles
+				try {
+					// Figure out the profile by loading some classes from the profile
+					// Is there any other way to discover the profile of the JRE?
+					myEEs.append("JavaSE-1.8/compact1,");
+					compact1VersionList.append("1.8,");
+				 	loader.loadClass("org.w3c.dom.Document");
+				 	myEEs.append("JavaSE-1.8/compact2,");
+				 	compact2VersionList.append("1.8,");
+				 	loader.loadClass("javax.management.Descriptor");
+				 	myEEs.append("JavaSE-1.8/compact3,");
+				 	compact3VersionList.append("1.8,");
+					loader.loadClass("javax.imageio.ImageIO");
+				} catch(ClassNotFoundException e){
+				}
+				seVersionList.append("1.8,");
+			case 7:
+				myEEs.append("J2SE-1.7,");
+				myEEs.append("JavaSE-1.7,");
+				seVersionList.append("1.7,");
+			case 6:
+				myEEs.append("J2SE-1.6,");
+				myEEs.append("JavaSE-1.6,");
+				seVersionList.append("1.6,");
+			case 5:
+				myEEs.append("J2SE-1.5,");
+				seVersionList.append("1.5,");
+			case 4:
+				myEEs.append("J2SE-1.4,");
+				myEEs.append("OSGi/Minimum-1.1,");
+				seVersionList.append("1.4,");
+				minVersionList.append("1.2,1.1,");
+			case 3:
+				myEEs.append("J2SE-1.3,");
+				seVersionList.append("1.3,");
+			case 2:
+				myEEs.append("J2SE-1.2,");
+				myEEs.append("OSGi/Minimum-1.0,");
+				seVersionList.append("1.2,");
+				minVersionList.append("1.0");
+			case 1:
+				myEEs.append("JRE-1.1");
+				seVersionList.append("1.1");
+			}
+		}
+
+		return new ExecutionEnvironments(myEEs.toString(),
+				seVersionList.toString(), compact1VersionList.toString(),
+				compact2VersionList.toString(), compact3VersionList.toString(),
+				minVersionList.toString());
+	}
+
+}
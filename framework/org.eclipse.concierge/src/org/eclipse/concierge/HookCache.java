@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * caches the service objects of the hooks of one type. The framework gets a
+ * hook service once, when the first snapshot after its registration is taken,
+ * and keeps using it until the hook is unregistered. Unregistering the hook
+ * releases the service object.
+ * </p>
+ * <p>
+ * The snapshot is immutable and is replaced when a hook of the type is
+ * registered, unregistered, or modified. Callers iterate the snapshot without
+ * locking and without touching the use counters of the hooks.
+ * </p>
+ */
+final class HookCache<T> {
+
+	/**
+	 * the framework.
+	 */
+	private final Concierge framework;
+
+	/**
+	 * the registered hooks, ordered by ranking. Changes have to synchronize on
+	 * the list.
+	 */
+	private final List<ServiceReferenceImpl<T>> refs;
+
+	/**
+	 * the current snapshot or <code>null</code> after a change.
+	 */
+	private volatile List<Entry<T>> snapshot;
+
+	/**
+	 * the last snapshot, also after a change. Guarded by the list of
+	 * references.
+	 */
+	private List<Entry<T>> last;
+
+	HookCache(final Concierge framework,
+			final List<ServiceReferenceImpl<T>> refs) {
+		this.framework = framework;
+		this.refs = refs;
+	}
+
+	/**
+	 * drop the snapshot after the registered hooks have changed.
+	 */
+	void invalidate() {
+		snapshot = null;
+	}
+
+	/**
+	 * get the snapshot of the hooks.
+	 *
+	 * @return an immutable list of the hooks, ordered by ranking.
+	 */
+	List<Entry<T>> get() {
+		final List<Entry<T>> current = snapshot;
+		if (current != null) {
+			return current;
+		}
+		synchronized (refs) {
+			if (snapshot != null) {
+				return snapshot;
+			}
+
+			// keep the service objects of the hooks that are still registered
+			final Map<ServiceReferenceImpl<T>, T> previous = new IdentityHashMap<ServiceReferenceImpl<T>, T>();
+			if (last != null) {
+				for (final Entry<T> entry : last) {
+					previous.put(entry.ref, entry.hook);
+				}
+			}
+
+			final List<Entry<T>> result = new ArrayList<Entry<T>>(refs.size());
+			for (final ServiceReferenceImpl<T> ref : refs) {
+				T hook = previous.get(ref);
+				if (hook == null) {
+					hook = ref.getService(framework);
+				}
+				if (hook != null) {
+					result.add(new Entry<T>(ref, hook));
+				}
+			}
+
+			last = Collections.unmodifiableList(result);
+			snapshot = last;
+			return last;
+		}
+	}
+
+	/**
+	 * a hook service and its service object.
+	 */
+	static final class Entry<T> {
+
+		final ServiceReferenceImpl<T> ref;
+
+		final T hook;
+
+		Entry(final ServiceReferenceImpl<T> ref, final T hook) {
+			this.ref = ref;
+			this.hook = hook;
+		}
+	}
+
+}
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.concierge.api.FrameworkMetrics;
+
+/**
+ * <p>
+ * Records the metrics of the framework. Every metric is a counter that is
+ * striped over several cells, a thread only updates the cell selected by its
+ * id, so threads on different processors rarely share a cache line. The cells
+ * are summed up when the counter is read.
+ * </p>
+ * <p>
+ * Timed metrics additionally sample the latency of every n-th operation into
+ * a histogram of power of two buckets. When the metrics are disabled, every
+ * operation costs a single volatile read.
+ * </p>
+ */
+final class Metrics implements FrameworkMetrics {
+
+	static final int BUNDLE_INSTALL = 0;
+
+	static final int BUNDLE_START = 1;
+
+	static final int BUNDLE_STOP = 2;
+
+	static final int RESOLVE = 3;
+
+	static final int SERVICE_REGISTRATION = 4;
+
+	static final int SERVICE_LOOKUP = 5;
+
+	static final int SERVICE_EVENT = 6;
+
+	static final int LISTENER_DISPATCH = 7;
+
+	static final int CLASS_LOAD = 8;
+
+	static final int STORAGE_WRITE = 9;
+
+	private static final String[] NAMES = { BUNDLE_INSTALLS, BUNDLE_STARTS,
+			BUNDLE_STOPS, RESOLVES, SERVICE_REGISTRATIONS, SERVICE_LOOKUPS,
+			SERVICE_EVENTS, LISTENER_DISPATCHES, CLASS_LOADS, STORAGE_WRITES };
+
+	private static final boolean[] TIMED = { false, false, false, true, false,
+			false, false, true, true, false };
+
+	// a cell takes a cache line of 64 bytes
+	private static final int PAD = 8;
+
+	private static final int BUCKETS = 64;
+
+	private volatile boolean enabled;
+
+	// the number of cells per counter, a power of two
+	private final int stripes;
+
+	// sample if the count of a cell modulo the interval is zero
+	private final long sampleMask;
+
+	private final AtomicLongArray cells;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(
+			NAMES.length * BUCKETS);
+
+	private final AtomicLongArray totals = new AtomicLongArray(NAMES.length);
+
+	private final AtomicLongArray max = new AtomicLongArray(NAMES.length);
+
+	Metrics(final boolean enabled, final int sample) {
+		this.enabled = enabled;
+		stripes = powerOfTwo(
+				Math.min(Runtime.getRuntime().availableProcessors(), 64));
+		sampleMask = powerOfTwo(Math.max(sample, 1)) - 1;
+		cells = new AtomicLongArray(NAMES.length * stripes * PAD);
+	}
+
+	private static int powerOfTwo(final int n) {
+		final int p = Integer.highestOneBit(n);
+		return p == n ? n : p << 1;
+	}
+
+	private int cell(final int metric) {
+		final int stripe = (int) Thread.currentThread().getId()
+				& (stripes - 1);
+		return (metric * stripes + stripe) * PAD;
+	}
+
+	/**
+	 * count an operation.
+	 *
+	 * @param metric
+	 *            the metric.
+	 */
+	void count(final int metric) {
+		if (enabled) {
+			cells.getAndIncrement(cell(metric));
+		}
+	}
+
+	/**
+	 * count a timed operation and start sampling its latency.
+	 *
+	 * @param metric
+	 *            the metric.
+	 * @return the value of System.nanoTime() if the operation is sampled, 0
+	 *         otherwise.
+	 */
+	long begin(final int metric) {
+		if (!enabled) {
+			return 0;
+		}
+		if ((cells.getAndIncrement(cell(metric)) & sampleMask) != 0) {
+			return 0;
+		}
+		final long now = System.nanoTime();
+		return now == 0 ? 1 : now;
+	}
+
+	/**
+	 * start timing an operation that is only counted if it succeeds.
+	 *
+	 * @return the value of System.nanoTime() if the metrics are enabled, 0
+	 *         otherwise.
+	 */
+	long time() {
+		if (!enabled) {
+			return 0;
+		}
+		final long now = System.nanoTime();
+		return now == 0 ? 1 : now;
+	}
+
+	/**
+	 * count a timed operation that has succeeded and sample its latency.
+	 *
+	 * @param metric
+	 *            the metric.
+	 * @param begin
+	 *            the value returned by time.
+	 */
+	void count(final int metric, final long begin) {
+		if (begin == 0 || !enabled) {
+			return;
+		}
+		if ((cells.getAndIncrement(cell(metric)) & sampleMask) == 0) {
+			end(metric, begin);
+		}
+	}
+
+	/**
+	 * finish sampling the latency of an operation.
+	 *
+	 * @param metric
+	 *            the metric.
+	 * @param begin
+	 *            the value returned by begin.
+	 */
+	void end(final int metric, final long begin) {
+		if (begin == 0) {
+			return;
+		}
+		final long duration = Math.max(System.nanoTime() - begin, 0);
+		buckets.incrementAndGet(metric * BUCKETS
+				+ Math.min(BUCKETS - Long.numberOfLeadingZeros(duration),
+						BUCKETS - 1));
+		totals.addAndGet(metric, duration);
+		long current;
+		while ((current = max.get(metric)) < duration) {
+			if (max.compareAndSet(metric, current, duration)) {
+				break;
+			}
+		}
+	}
+
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public String[] getNames() {
+		return NAMES.clone();
+	}
+
+	private static int index(final String name) {
+		for (int i = 0; i < NAMES.length; i++) {
+			if (NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown metric " + name);
+	}
+
+	public long getCount(final String name) {
+		return sum(index(name));
+	}
+
+	private long sum(final int metric) {
+		long sum = 0;
+		for (int i = 0; i < stripes; i++) {
+			sum += cells.get((metric * stripes + i) * PAD);
+		}
+		return sum;
+	}
+
+	public Latency getLatency(final String name) {
+		final int metric = index(name);
+		return TIMED[metric] ? new LatencyImpl(metric) : null;
+	}
+
+	public void reset() {
+		for (int i = 0; i < cells.length(); i++) {
+			cells.set(i, 0);
+		}
+		for (int i = 0; i < buckets.length(); i++) {
+			buckets.set(i, 0);
+		}
+		for (int i = 0; i < NAMES.length; i++) {
+			totals.set(i, 0);
+			max.set(i, 0);
+		}
+	}
+
+	public String export() {
+		final StringBuffer buffer = new StringBuffer();
+		for (int i = 0; i < NAMES.length; i++) {
+			buffer.append(NAMES[i]).append(' ').append(sum(i))
+					.append('\n');
+			if (TIMED[i]) {
+				final Latency latency = new LatencyImpl(i);
+				line(buffer, NAMES[i], "samples", latency.getSamples());
+				line(buffer, NAMES[i], "total_ns", latency.getTotal());
+				line(buffer, NAMES[i], "max_ns", latency.getMax());
+				line(buffer, NAMES[i], "p50_ns", latency.getPercentile(50));
+				line(buffer, NAMES[i], "p90_ns", latency.getPercentile(90));
+				line(buffer, NAMES[i], "p99_ns", latency.getPercentile(99));
+			}
+		}
+		return buffer.toString();
+	}
+
+	private static void line(final StringBuffer buffer, final String name,
+			final String suffix, final long value) {
+		buffer.append(name).append('.').append(suffix).append(' ')
+				.append(value).append('\n');
+	}
+
+	/**
+	 * the latency of a timed metric, read when it is accessed.
+	 */
+	private final class LatencyImpl implements Latency {
+
+		private final int metric;
+
+		LatencyImpl(final int metric) {
+			this.metric = metric;
+		}
+
+		public long getSamples() {
+			long samples = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				samples += buckets.get(metric * BUCKETS + i);
+			}
+			return samples;
+		}
+
+		public long getTotal() {
+			return totals.get(metric);
+		}
+
+		public long getMax() {
+			return max.get(metric);
+		}
+
+		public long getPercentile(final double percentile) {
+			final long samples = getSamples();
+			if (samples == 0) {
+				return 0;
+			}
+			final long rank = (long) Math.ceil(samples * percentile / 100.0);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += buckets.get(metric * BUCKETS + i);
+				if (seen >= rank && seen > 0) {
+					// bucket i holds the durations below 2^i
+					return Math.min(i == 0 ? 0 : 1L << Math.min(i, 62),
+							getMax());
+				}
+			}
+			return getMax();
+		}
+	}
+
+}
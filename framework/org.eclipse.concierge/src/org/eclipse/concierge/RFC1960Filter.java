@@ -37,6 +37,7 @@ import java.util.Stack;
 import org.osgi.framework.Filter;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
+import org.osgi.framework.Version;
 import org.osgi.resource.Capability;
 import org.osgi.resource.Requirement;
 
@@ -1138,14 +1139,18 @@ public final class RFC1960Filter implements Filter {
 		final int prefilterResult = prefilter(namespace, filter,
 				capabilityIndex, INSUFFICIENT, false, values);
 
-		final List<Capability> candidates;
+		List<Capability> candidates;
+		// candidates from the index are already sorted by version
+		boolean inIndexOrder = false;
 
 		if (prefilterResult == REQUIRED) {
 			if (values.size() != 1) {
 				return Collections.emptyList();
 			}
-			return capabilityIndex.getByValue(namespace,
-					values.iterator().next());
+			final List<Capability> result = capabilityIndex
+					.getByValue(namespace, values.iterator().next());
+			Concierge.sortProviders(result, namespace, true);
+			return result;
 		} else if (prefilterResult == NECESSARY) {
 			// FIXME: check
 			if (values.size() != 1) {
@@ -1153,6 +1158,17 @@ public final class RFC1960Filter implements Filter {
 			} else {
 				candidates = capabilityIndex.getByKey(namespace,
 						values.iterator().next());
+				inIndexOrder = true;
+
+				// narrow down the candidates to the version range
+				final String versionAttribute = Concierge.CapabilityRegistry
+						.getVersionAttribute(namespace);
+				if (candidates != null && versionAttribute != null) {
+					final VersionBounds bounds = new VersionBounds();
+					collectVersionBounds(filter, versionAttribute, false,
+							bounds);
+					candidates = bounds.select(candidates, versionAttribute);
+				}
 			}
 		} else {
 			candidates = capabilityIndex.getAll(namespace);
@@ -1171,9 +1187,205 @@ public final class RFC1960Filter implements Filter {
 			}
 		}
 
+		Concierge.sortProviders(matches, namespace, inIndexOrder);
+
 		return matches;
 	}
 
+	/**
+	 * collect the bounds that the version clauses of a filter impose on the
+	 * version attribute. Only clauses that every match has to satisfy are
+	 * considered, i.e., clauses that are not nested into an OR and not
+	 * nested into more than one NOT.
+	 * 
+	 * @param filter
+	 *            the filter.
+	 * @param attribute
+	 *            the version attribute.
+	 * @param inNegation
+	 *            true if the filter is nested into a NOT.
+	 * @param bounds
+	 *            the bounds to restrict.
+	 */
+	private static void collectVersionBounds(final Filter filter,
+			final String attribute, final boolean inNegation,
+			final VersionBounds bounds) {
+		if (filter instanceof RFC1960Filter) {
+			final RFC1960Filter f = (RFC1960Filter) filter;
+			if (f.operator == NOT_OPERATOR) {
+				if (!inNegation) {
+					collectVersionBounds(f.operands.get(0), attribute, true,
+							bounds);
+				}
+			} else if (f.operator == AND_OPERATOR
+					|| f.operands.size() == 1) {
+				if (!inNegation) {
+					for (final Filter next : f.operands) {
+						collectVersionBounds(next, attribute, false, bounds);
+					}
+				}
+			}
+		} else if (filter instanceof RFC1960SimpleFilter) {
+			final RFC1960SimpleFilter f = (RFC1960SimpleFilter) filter;
+			if (attribute.equals(f.id)) {
+				try {
+					bounds.restrict(f.comparator,
+							Version.parseVersion(f.value.trim()), inNegation);
+				} catch (final IllegalArgumentException iae) {
+					// not a version, no bound
+				}
+			}
+		}
+	}
+
+	/**
+	 * the bounds of the version range that the capabilities matching a filter
+	 * have to be in.
+	 */
+	static final class VersionBounds {
+
+		private Version low;
+
+		private boolean lowInclusive;
+
+		private Version high;
+
+		private boolean highInclusive;
+
+		void restrict(final int comparator, final Version version,
+				final boolean negated) {
+			switch (comparator) {
+			case EQUALS:
+				if (!negated) {
+					restrictLow(version, true);
+					restrictHigh(version, true);
+				}
+				return;
+			case GREATER:
+				if (negated) {
+					restrictHigh(version, false);
+				} else {
+					restrictLow(version, true);
+				}
+				return;
+			case LESS:
+				if (negated) {
+					restrictLow(version, false);
+				} else {
+					restrictHigh(version, true);
+				}
+				return;
+			default:
+				return;
+			}
+		}
+
+		private void restrictLow(final Version version,
+				final boolean inclusive) {
+			final int c = low == null ? 1 : version.compareTo(low);
+			if (c > 0 || c == 0 && !inclusive) {
+				low = version;
+				lowInclusive = inclusive;
+			}
+		}
+
+		private void restrictHigh(final Version version,
+				final boolean inclusive) {
+			final int c = high == null ? -1 : version.compareTo(high);
+			if (c < 0 || c == 0 && !inclusive) {
+				high = version;
+				highInclusive = inclusive;
+			}
+		}
+
+		private boolean belowHigh(final Version version) {
+			if (high == null) {
+				return true;
+			}
+			final int c = version.compareTo(high);
+			return c < 0 || c == 0 && highInclusive;
+		}
+
+		private boolean aboveLow(final Version version) {
+			if (low == null) {
+				return true;
+			}
+			final int c = version.compareTo(low);
+			return c > 0 || c == 0 && lowInclusive;
+		}
+
+		/**
+		 * select the capabilities within the bounds.
+		 * 
+		 * @param caps
+		 *            the capabilities, sorted by descending version.
+		 * @param attribute
+		 *            the version attribute.
+		 * @return the capabilities within the bounds.
+		 */
+		List<Capability> select(final List<Capability> caps,
+				final String attribute) {
+			if (low == null && high == null) {
+				return caps;
+			}
+
+			// first capability that is not above the upper bound
+			int lo = 0;
+			int hi = caps.size();
+			while (lo < hi) {
+				final int mid = (lo + hi) >>> 1;
+				if (belowHigh(Concierge.CapabilityRegistry
+						.getVersion(caps.get(mid), attribute))) {
+					hi = mid;
+				} else {
+					lo = mid + 1;
+				}
+			}
+			final int start = lo;
+
+			// first capability that is below the lower bound
+			hi = caps.size();
+			while (lo < hi) {
+				final int mid = (lo + hi) >>> 1;
+				if (aboveLow(Concierge.CapabilityRegistry
+						.getVersion(caps.get(mid), attribute))) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+
+			return new ArrayList<Capability>(caps.subList(start, lo));
+		}
+
+	}
+
+	/**
+	 * get the value of the namespace attribute that every capability matching
+	 * the requirement must have. This is the value under which
+	 * <code>filterWithIndex</code> looks up the candidates.
+	 * 
+	 * @param requirement
+	 *            the requirement.
+	 * @param filterStr
+	 *            the filter of the requirement.
+	 * @return the value or <code>null</code> if the candidates are not
+	 *         restricted to a single value.
+	 * @throws InvalidSyntaxException
+	 */
+	static String getIndexValue(final Requirement requirement,
+			final String filterStr) throws InvalidSyntaxException {
+		final Set<String> values = new HashSet<String>();
+
+		final int prefilterResult = prefilter(requirement.getNamespace(),
+				fromString(filterStr), null, INSUFFICIENT, false, values);
+
+		if (prefilterResult != INSUFFICIENT && values.size() == 1) {
+			return values.iterator().next();
+		}
+		return null;
+	}
+
 	private static int prefilter(final String namespace, final Filter filter,
 			final Concierge.CapabilityRegistry capabilities, final int state,
 			final boolean inNegation, final Set<String> values) {
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.concierge.api.ResolverMonitor;
+import org.eclipse.concierge.api.ResolverTrace;
+import org.eclipse.concierge.api.ResolverTraceListener;
+import org.osgi.resource.Requirement;
+import org.osgi.resource.Resource;
+
+/**
+ * Records the traces of the resolve operations of the framework.
+ */
+final class ResolverTracer implements ResolverMonitor {
+
+	private volatile boolean enabled;
+
+	// the number of traces to keep
+	private final int size;
+
+	private final LinkedList<ResolverTrace> traces = new LinkedList<ResolverTrace>();
+
+	private final List<ResolverTraceListener> listeners = new CopyOnWriteArrayList<ResolverTraceListener>();
+
+	ResolverTracer(final boolean enabled, final int size) {
+		this.enabled = enabled;
+		this.size = size;
+	}
+
+	/**
+	 * start tracing a resolve operation.
+	 * 
+	 * @param resources
+	 *            the mandatory resources.
+	 * @return the trace, or null if tracing is disabled.
+	 */
+	Trace begin(final Collection<? extends Resource> resources) {
+		return enabled ? new Trace(resources) : null;
+	}
+
+	/**
+	 * finish tracing a resolve operation.
+	 * 
+	 * @param trace
+	 *            the trace.
+	 * @param successful
+	 *            true if all mandatory resources were resolved.
+	 */
+	void end(final Trace trace, final boolean successful) {
+		trace.duration = System.nanoTime() - trace.start;
+		trace.successful = successful;
+
+		synchronized (traces) {
+			traces.add(trace);
+			while (traces.size() > size) {
+				traces.removeFirst();
+			}
+		}
+
+		for (final ResolverTraceListener listener : listeners) {
+			try {
+				listener.resolved(trace);
+			} catch (final Throwable t) {
+				t.printStackTrace();
+			}
+		}
+	}
+
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public List<ResolverTrace> getTraces() {
+		synchronized (traces) {
+			return new ArrayList<ResolverTrace>(traces);
+		}
+	}
+
+	public void clear() {
+		synchronized (traces) {
+			traces.clear();
+		}
+	}
+
+	public void addListener(final ResolverTraceListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(final ResolverTraceListener listener) {
+		listeners.remove(listener);
+	}
+
+	static final class Trace implements ResolverTrace {
+
+		private final long timestamp = System.currentTimeMillis();
+
+		private final long start = System.nanoTime();
+
+		private long duration;
+
+		private boolean successful;
+
+		private final long[] times = new long[PHASES.length];
+
+		private final int[] invocations = new int[PHASES.length];
+
+		private final List<Resource> resources;
+
+		private final ArrayList<RequirementTrace> requirements = new ArrayList<RequirementTrace>();
+
+		Trace(final Collection<? extends Resource> resources) {
+			this.resources = Collections
+					.unmodifiableList(new ArrayList<Resource>(resources));
+		}
+
+		/**
+		 * record the time spent in a phase.
+		 * 
+		 * @param phase
+		 *            the phase.
+		 * @param begin
+		 *            the value of System.nanoTime() when the phase was
+		 *            entered.
+		 */
+		void record(final int phase, final long begin) {
+			times[phase] += System.nanoTime() - begin;
+			invocations[phase]++;
+		}
+
+		/**
+		 * record the lookup of the providers of a requirement.
+		 * 
+		 * @param requirement
+		 *            the requirement.
+		 * @param candidates
+		 *            the number of candidates.
+		 * @param begin
+		 *            the value of System.nanoTime() when the lookup started.
+		 */
+		void record(final Requirement requirement, final int candidates,
+				final long begin) {
+			requirements.add(new RequirementTraceImpl(requirement, candidates,
+					System.nanoTime() - begin));
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public long getDuration() {
+			return duration;
+		}
+
+		public long getTime(final int phase) {
+			return times[phase];
+		}
+
+		public int getInvocations(final int phase) {
+			return invocations[phase];
+		}
+
+		public List<Resource> getResources() {
+			return resources;
+		}
+
+		public boolean isSuccessful() {
+			return successful;
+		}
+
+		public List<RequirementTrace> getRequirements() {
+			return Collections.unmodifiableList(requirements);
+		}
+
+		@Override
+		public String toString() {
+			final StringBuffer buffer = new StringBuffer();
+			buffer.append("ResolverTrace{resources=" + resources.size()
+					+ ", successful=" + successful + ", duration="
+					+ duration / 1000 + "us");
+			for (int i = 0; i < PHASES.length; i++) {
+				buffer.append(", " + PHASES[i] + "=" + times[i] / 1000 + "us/"
+						+ invocations[i]);
+			}
+			buffer.append("}");
+			return buffer.toString();
+		}
+
+	}
+
+	private static final class RequirementTraceImpl
+			implements ResolverTrace.RequirementTrace {
+
+		private final Requirement requirement;
+
+		private final int candidates;
+
+		private final long time;
+
+		RequirementTraceImpl(final Requirement requirement,
+				final int candidates, final long time) {
+			this.requirement = requirement;
+			this.candidates = candidates;
+			this.time = time;
+		}
+
+		public Requirement getRequirement() {
+			return requirement;
+		}
+
+		public int getCandidates() {
+			return candidates;
+		}
+
+		public long getTime() {
+			return time;
+		}
+
+		@Override
+		public String toString() {
+			return requirement + ": " + candidates + " candidates, " + time / 1000
+					+ "us";
+		}
+
+	}
+
+}
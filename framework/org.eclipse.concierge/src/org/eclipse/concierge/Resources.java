@@ -15,6 +15,7 @@ package org.eclipse.concierge;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -23,6 +24,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.concierge.BundleImpl.Revision;
 import org.eclipse.concierge.ConciergeCollections.MultiMap;
@@ -60,6 +62,27 @@ public class Resources {
 		return null;
 	}
 
+	static Set<String> getUses(final BundleCapability cap) {
+		if (cap instanceof BundleCapabilityImpl) {
+			return ((BundleCapabilityImpl) cap).uses;
+		}
+		if (cap instanceof HostedBundleCapability) {
+			return getUses((BundleCapability) ((HostedBundleCapability) cap)
+					.getDeclaredCapability());
+		}
+		return parseUses(cap.getDirectives().get(
+				Namespace.CAPABILITY_USES_DIRECTIVE));
+	}
+
+	static Set<String> parseUses(final String usesStr) {
+		if (usesStr == null) {
+			return null;
+		}
+		final Set<String> usesSet = new HashSet<String>();
+		usesSet.addAll(Arrays.asList(Utils.splitString(usesStr, ',')));
+		return usesSet;
+	}
+
 	static abstract class GenericReqCap implements Requirement, Capability {
 
 		private final String namespace;
@@ -133,11 +156,19 @@ public class Resources {
 		private final String[] excludes;
 		private final boolean hasExcludes;
 
+		// the pre-split uses directive, null if there is none
+		private final Set<String> uses;
+
+		// the resolver's cached uses closure of this capability
+		Concierge.UsesClosure usesClosure;
+
 		BundleCapabilityImpl(final BundleRevision revision, final String str)
 				throws BundleException {
 			super(str);
 			this.revision = revision;
 			this.prettyPrint = null;
+			this.uses = parseUses(getDirectives().get(
+					Namespace.CAPABILITY_USES_DIRECTIVE));
 
 			final String excludeStr = getDirectives().get(
 					PackageNamespace.CAPABILITY_EXCLUDE_DIRECTIVE);
@@ -167,6 +198,8 @@ public class Resources {
 			super(namespace, directives, attributes);
 			this.revision = revision;
 			this.prettyPrint = prettyPrint;
+			this.uses = parseUses(getDirectives().get(
+					Namespace.CAPABILITY_USES_DIRECTIVE));
 
 			final String excludeStr = getDirectives().get(
 					PackageNamespace.CAPABILITY_EXCLUDE_DIRECTIVE);
@@ -522,6 +555,9 @@ public class Resources {
 
 		final HashSet<BundleRevision> inUseSet = new HashSet<BundleRevision>();
 
+		// incremented whenever required wires or capabilities are added
+		int modCount;
+
 		ConciergeBundleWiring(final BundleRevision revision,
 				final List<Wire> wires) {
 			this.revision = revision;
@@ -579,6 +615,7 @@ public class Resources {
 				inUseSet.add(wire.getRequirer());
 				((ConciergeBundleWire) wire).providerWiring = this;
 			} else {
+				modCount++;
 				requiredWires.insert(req.getNamespace(), wire);
 				if (HostNamespace.HOST_NAMESPACE.equals(wire.getRequirement()
 						.getNamespace())) {
@@ -759,6 +796,7 @@ public class Resources {
 		}
 
 		void addCapability(final HostedCapability hostedCap) {
+			modCount++;
 			capabilities.insert(hostedCap.getNamespace(),
 					(BundleCapability) hostedCap.getDeclaredCapability());
 		}
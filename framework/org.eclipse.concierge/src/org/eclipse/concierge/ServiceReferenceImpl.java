@@ -18,6 +18,9 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.Constants;
@@ -53,24 +56,55 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 	final Map<String, Object> properties;
 
 	/**
-	 * the bundles that are using the service.
+	 * the bundles that are using the service. A counter that has dropped to
+	 * zero is about to be removed and must not be incremented again.
 	 */
-	final Map<Bundle, Integer> useCounters = new HashMap<Bundle, Integer>(0);
+	final ConcurrentHashMap<Bundle, AtomicInteger> useCounters = new ConcurrentHashMap<Bundle, AtomicInteger>(
+			2, 0.75f, 2);
 
 	/**
 	 * cached service objects if the registered service is a service factory.
 	 */
-	private HashMap<Bundle, S> cachedServices = null;
+	private final ConcurrentHashMap<Bundle, S> cachedServices;
 
 	/**
-	 * the registration.
+	 * the locks serializing the factory calls for a bundle if the registered
+	 * service is a service factory.
 	 */
-	ServiceRegistration<S> registration;
+	private final ConcurrentHashMap<Bundle, Object> factoryLocks;
+
+	/**
+	 * the threads currently calling the factory, by bundle.
+	 */
+	private final ConcurrentHashMap<Bundle, Thread> factoryCalls;
+
+	/**
+	 * the service property that enables pooling for a service factory. The
+	 * value is the maximum number of idle service objects. When a bundle
+	 * releases the service, its service object is kept and handed out to the
+	 * same bundle again instead of calling the factory.
+	 */
+	static final String POOL_SIZE = "org.eclipse.concierge.service.pool.size";
 
 	/**
-	 * the next service id.
+	 * the maximum number of idle service objects.
 	 */
-	private static long nextServiceID = 0;
+	private final int poolSize;
+
+	/**
+	 * the idle service objects, by the bundle they have been factored for.
+	 */
+	private final ConcurrentHashMap<Bundle, S> pool;
+
+	/**
+	 * the number of idle service objects.
+	 */
+	private final AtomicInteger idle = new AtomicInteger();
+
+	/**
+	 * the registration.
+	 */
+	ServiceRegistration<S> registration;
 
 	private final boolean isServiceFactory;
 
@@ -102,8 +136,14 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 			final String[] clazzes) {
 		if (service instanceof ServiceFactory) {
 			isServiceFactory = true;
+			cachedServices = new ConcurrentHashMap<Bundle, S>(2, 0.75f, 2);
+			factoryLocks = new ConcurrentHashMap<Bundle, Object>(2, 0.75f, 2);
+			factoryCalls = new ConcurrentHashMap<Bundle, Thread>(2, 0.75f, 2);
 		} else {
 			isServiceFactory = false;
+			cachedServices = null;
+			factoryLocks = null;
+			factoryCalls = null;
 			checkService(service, clazzes);
 		}
 
@@ -120,7 +160,11 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 			}
 		}
 		properties.put(Constants.OBJECTCLASS, clazzes);
-		properties.put(Constants.SERVICE_ID, new Long(++nextServiceID));
+		poolSize = isServiceFactory ? getPoolSize(properties.get(POOL_SIZE))
+				: 0;
+		pool = poolSize > 0 ? new ConcurrentHashMap<Bundle, S>() : null;
+		properties.put(Constants.SERVICE_ID, new Long(
+				framework.serviceRegistry.nextServiceID()));
 		final Integer ranking = props == null ? null : (Integer) props
 				.get(Constants.SERVICE_RANKING);
 		properties.put(Constants.SERVICE_RANKING,
@@ -128,6 +172,20 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 		this.registration = new ServiceRegistrationImpl();
 	}
 
+	private static int getPoolSize(final Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		}
+		if (value instanceof String) {
+			try {
+				return Integer.parseInt(((String) value).trim());
+			} catch (final NumberFormatException nfe) {
+				// not pooled
+			}
+		}
+		return 0;
+	}
+
 	private void checkService(final Object service, final String[] clazzes)
 			throws IllegalArgumentException {
 		if (service == null) {
@@ -152,12 +210,14 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 	}
 
 	void invalidate() {
+		final S svc = service;
 		service = null;
-		useCounters.clear();
+		release(svc);
 		bundle = null;
 		registration = null;
-		if (cachedServices != null) {
-			cachedServices = null;
+		if (isServiceFactory) {
+			cachedServices.clear();
+			factoryLocks.clear();
 		}
 	}
 
@@ -223,17 +283,11 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 	 * @category ServiceReference
 	 */
 	public Bundle[] getUsingBundles() {
-		synchronized (useCounters) {
-			if (useCounters.isEmpty()) {
-				return null;
-			}
-			return useCounters.keySet().toArray(new Bundle[useCounters.size()]);
-		}
+		final Bundle[] result = useCounters.keySet().toArray(
+				new Bundle[useCounters.size()]);
+		return result.length == 0 ? null : result;
 	}
 
-	// FIXME: concurrency???
-	private boolean marker = false;
-
 	/**
 	 * get the service object. If the service is a service factory, a cached
 	 * value might be returned.
@@ -243,78 +297,219 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 	 * @return the service object.
 	 */
 	S getService(final Bundle theBundle) {
-		if (service == null || marker) {
+		final S svc = service;
+		if (svc == null) {
 			return null;
 		}
 
-		synchronized (useCounters) {
-			if (isServiceFactory) {
-				if (cachedServices == null) {
-					cachedServices = new HashMap<Bundle, S>(1);
-				}
-				final S cachedService = cachedServices.get(theBundle);
-				if (cachedService != null) {
-					incrementCounter(theBundle);
-					return cachedService;
-				}
-				@SuppressWarnings("unchecked")
-				final ServiceFactory<S> factory = (ServiceFactory<S>) service;
-				final S factoredService;
+		if (!isServiceFactory) {
+			incrementCounter(theBundle);
+			return svc;
+		}
+
+		synchronized (getFactoryLock(theBundle)) {
+			// the factory asks for its own service
+			if (factoryCalls.get(theBundle) == Thread.currentThread()) {
+				return null;
+			}
+			final S cachedService = cachedServices.get(theBundle);
+			if (cachedService != null) {
+				incrementCounter(theBundle);
+				return cachedService;
+			}
+			final S pooledService = pollPooled(theBundle);
+			if (pooledService != null) {
+				incrementCounter(theBundle);
+				cachedServices.put(theBundle, pooledService);
+				return pooledService;
+			}
+			@SuppressWarnings("unchecked")
+			final ServiceFactory<S> factory = (ServiceFactory<S>) svc;
+			final S factoredService;
+			try {
+				incrementCounter(theBundle);
+				factoryCalls.put(theBundle, Thread.currentThread());
 				try {
-					incrementCounter(theBundle);
-					marker = true;
 					factoredService = factory.getService(theBundle,
 							registration);
-					marker = false;
-					checkService(factoredService,
-							(String[]) properties.get(Constants.OBJECTCLASS));
-					// catch failed check and exceptions thrown in factory
-				} catch (final IllegalArgumentException iae) {
-					decrementCounter(theBundle);
-					framework.notifyFrameworkListeners(FrameworkEvent.ERROR,
-							bundle, new ServiceException(
-									"Invalid service object",
-									ServiceException.FACTORY_ERROR));
-					return null;
+				} finally {
+					factoryCalls.remove(theBundle);
+				}
+				checkService(factoredService,
+						(String[]) properties.get(Constants.OBJECTCLASS));
+				// catch failed check and exceptions thrown in factory
+			} catch (final IllegalArgumentException iae) {
+				decrementCounter(theBundle);
+				framework.notifyFrameworkListeners(FrameworkEvent.ERROR,
+						bundle, new ServiceException("Invalid service object",
+								ServiceException.FACTORY_ERROR));
+				return null;
+			} catch (final Throwable t) {
+				decrementCounter(theBundle);
+				framework.notifyFrameworkListeners(FrameworkEvent.ERROR,
+						bundle, new ServiceException(
+								"Exception while factoring the service",
+								ServiceException.FACTORY_EXCEPTION, t));
+				return null;
+			}
+			cachedServices.put(theBundle, factoredService);
+
+			return factoredService;
+		}
+	}
+
+	/**
+	 * release the service for all bundles that are still using it.
+	 * 
+	 * @param svc
+	 *            the service object before the service was unregistered.
+	 */
+	@SuppressWarnings("unchecked")
+	private void release(final S svc) {
+		for (final Bundle theBundle : useCounters.keySet()) {
+			final AtomicInteger counter = useCounters.remove(theBundle);
+			if (counter == null) {
+				continue;
+			}
+			((AbstractBundle) theBundle).servicesInUse.remove(this, counter);
+			if (isServiceFactory && svc != null) {
+				synchronized (getFactoryLock(theBundle)) {
+					final S cachedService = cachedServices.remove(theBundle);
+					if (cachedService != null) {
+						try {
+							((ServiceFactory<S>) svc).ungetService(theBundle,
+									registration, cachedService);
+							// catch exceptions thrown in factory
+						} catch (final Throwable t) {
+							framework.notifyFrameworkListeners(
+									FrameworkEvent.ERROR, bundle, t);
+						}
+					}
+				}
+			}
+		}
+		if (pool != null && svc != null) {
+			for (final Bundle theBundle : pool.keySet()) {
+				final S pooledService = pollPooled(theBundle);
+				if (pooledService == null) {
+					continue;
+				}
+				try {
+					((ServiceFactory<S>) svc).ungetService(theBundle,
+							registration, pooledService);
+					// catch exceptions thrown in factory
 				} catch (final Throwable t) {
-					decrementCounter(theBundle);
 					framework.notifyFrameworkListeners(FrameworkEvent.ERROR,
-							bundle, new ServiceException(
-									"Exception while factoring the service",
-									ServiceException.FACTORY_EXCEPTION, t));
-					return null;
+							bundle, t);
 				}
-				cachedServices.put(theBundle, factoredService);
-
-				return factoredService;
+			}
+		}
+	}
 
+	/**
+	 * put a service object that is no longer used by a bundle into the pool.
+	 * The caller must hold the factory lock of the bundle.
+	 * 
+	 * @return <code>false</code> if the service is not pooled or the pool is
+	 *         full.
+	 */
+	private boolean offerPooled(final Bundle theBundle, final S svc) {
+		if (pool == null || svc == null) {
+			return false;
+		}
+		while (true) {
+			final int count = idle.get();
+			if (count >= poolSize) {
+				return false;
+			}
+			if (idle.compareAndSet(count, count + 1)) {
+				pool.put(theBundle, svc);
+				return true;
 			}
+		}
+	}
 
-			incrementCounter(theBundle);
+	/**
+	 * take the idle service object of a bundle from the pool.
+	 * 
+	 * @param theBundle
+	 *            the bundle.
+	 * @return the service object or <code>null</code>.
+	 */
+	private S pollPooled(final Bundle theBundle) {
+		if (pool == null) {
+			return null;
+		}
+		final S pooledService = pool.remove(theBundle);
+		if (pooledService == null) {
+			return null;
+		}
+		idle.decrementAndGet();
+		return pooledService;
+	}
 
-			return service;
+	private Object getFactoryLock(final Bundle theBundle) {
+		final Object lock = factoryLocks.get(theBundle);
+		if (lock != null) {
+			return lock;
 		}
+		final Object newLock = new Object();
+		final Object existing = factoryLocks.putIfAbsent(theBundle, newLock);
+		return existing == null ? newLock : existing;
 	}
 
 	private void incrementCounter(final Bundle theBundle) {
-		Integer counter = useCounters.get(theBundle);
-		if (counter == null) {
-			counter = new Integer(1);
-		} else {
-			counter = new Integer(counter.intValue() + 1);
+		while (true) {
+			final AtomicInteger counter = useCounters.get(theBundle);
+			if (counter == null) {
+				final AtomicInteger newCounter = new AtomicInteger(1);
+				if (useCounters.putIfAbsent(theBundle, newCounter) == null) {
+					// the bundle shares the counter in its index
+					final ConcurrentMap<ServiceReference<?>, AtomicInteger> index = ((AbstractBundle) theBundle).servicesInUse;
+					index.put(this, newCounter);
+					if (newCounter.get() == 0) {
+						index.remove(this, newCounter);
+					}
+					return;
+				}
+				continue;
+			}
+			final int count = counter.get();
+			if (count == 0) {
+				// help removing the stale counter
+				useCounters.remove(theBundle, counter);
+			} else if (counter.compareAndSet(count, count + 1)) {
+				return;
+			}
 		}
-		useCounters.put(theBundle, counter);
 	}
 
-	private void decrementCounter(final Bundle theBundle) {
-		Integer counter = useCounters.get(theBundle);
-		final int newValue = counter.intValue() - 1;
-		if (newValue == 0) {
-			counter = null;
-		} else {
-			counter = new Integer(newValue);
+	/**
+	 * decrement the use counter of a bundle.
+	 * 
+	 * @param theBundle
+	 *            the bundle.
+	 * @return the new value or -1 if the bundle did not use the service.
+	 */
+	private int decrementCounter(final Bundle theBundle) {
+		final AtomicInteger counter = useCounters.get(theBundle);
+		if (counter == null) {
+			return -1;
+		}
+		while (true) {
+			final int count = counter.get();
+			if (count == 0) {
+				return -1;
+			}
+			if (counter.compareAndSet(count, count - 1)) {
+				if (count == 1) {
+					useCounters.remove(theBundle, counter);
+					((AbstractBundle) theBundle).servicesInUse.remove(this,
+							counter);
+				}
+				return count - 1;
+			}
 		}
-		useCounters.put(theBundle, counter);
 	}
 
 	/**
@@ -328,33 +523,32 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 	 */
 	@SuppressWarnings("unchecked")
 	boolean ungetService(final Bundle theBundle) {
-		synchronized (useCounters) {
-			if (service == null) {
-				return false;
-			}
-			Integer counter = useCounters.get(theBundle);
-			if (counter == null) {
-				return false;
-			}
-			if (counter.intValue() == 1) {
-				if (isServiceFactory) {
-					try {
-						((ServiceFactory<S>) service).ungetService(theBundle,
-								registration, cachedServices.get(theBundle));
-						// catch exceptions thrown in factory
-					} catch (final Throwable t) {
-						framework.notifyFrameworkListeners(
-								FrameworkEvent.ERROR, bundle, t);
-					}
-					useCounters.remove(theBundle);
-					cachedServices.remove(theBundle);
+		final S svc = service;
+		if (svc == null) {
+			return false;
+		}
+
+		if (!isServiceFactory) {
+			return decrementCounter(theBundle) >= 0;
+		}
+
+		synchronized (getFactoryLock(theBundle)) {
+			final int count = decrementCounter(theBundle);
+			if (count == 0) {
+				final S cachedService = cachedServices.remove(theBundle);
+				if (offerPooled(theBundle, cachedService)) {
+					return true;
+				}
+				try {
+					((ServiceFactory<S>) svc).ungetService(theBundle,
+							registration, cachedService);
+					// catch exceptions thrown in factory
+				} catch (final Throwable t) {
+					framework.notifyFrameworkListeners(FrameworkEvent.ERROR,
+							bundle, t);
 				}
-				return true;
-			} else {
-				counter = new Integer(counter.intValue() - 1);
-				useCounters.put(theBundle, counter);
-				return true;
 			}
+			return count >= 0;
 		}
 	}
 
@@ -516,6 +710,7 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 				}
 			}
 
+			framework.modifiedService(ServiceReferenceImpl.this);
 			framework.notifyServiceListeners(ServiceEvent.MODIFIED,
 					ServiceReferenceImpl.this, oldProps);
 		}
@@ -533,7 +728,9 @@ final class ServiceReferenceImpl<S> implements ServiceReference<S> {
 			}
 
 			framework.unregisterService(ServiceReferenceImpl.this);
+			final S svc = service;
 			service = null;
+			release(svc);
 		}
 	}
 
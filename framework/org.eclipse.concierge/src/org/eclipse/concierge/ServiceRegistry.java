@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.concierge.ConciergeCollections.MultiMap;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * <p>
+ * the service registry. The services are kept in one bucket per object class
+ * and in one bucket for all services. A bucket is a concurrent map keyed by
+ * service id, so registrations and unregistrations do not lock out each
+ * other.
+ * </p>
+ * <p>
+ * Lookups do not lock at all. They return an immutable snapshot of a bucket,
+ * ordered by service id, that is built on the first lookup after a change and
+ * then shared by all lookups until the next change of the bucket.
+ * </p>
+ */
+final class ServiceRegistry {
+
+	/**
+	 * the buckets, by object class.
+	 */
+	private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+
+	/**
+	 * the bucket of all services.
+	 */
+	private final Bucket all = new Bucket();
+
+	/**
+	 * the last service id.
+	 */
+	private final AtomicLong serviceID = new AtomicLong();
+
+	/**
+	 * orders service references by service id.
+	 */
+	private static final Comparator<ServiceReference<?>> BY_ID = new Comparator<ServiceReference<?>>() {
+		public int compare(final ServiceReference<?> s1,
+				final ServiceReference<?> s2) {
+			return getID(s1).compareTo(getID(s2));
+		}
+	};
+
+	/**
+	 * allocate a new service id.
+	 *
+	 * @return the service id.
+	 */
+	long nextServiceID() {
+		return serviceID.incrementAndGet();
+	}
+
+	/**
+	 * register a service under an object class.
+	 *
+	 * @param clazz
+	 *            the object class.
+	 * @param sref
+	 *            the service reference.
+	 */
+	void insert(final String clazz, final ServiceReference<?> sref) {
+		Bucket bucket = buckets.get(clazz);
+		if (bucket == null) {
+			final Bucket newBucket = new Bucket();
+			bucket = buckets.putIfAbsent(clazz, newBucket);
+			if (bucket == null) {
+				bucket = newBucket;
+			}
+		}
+		final Long id = getID(sref);
+		bucket.put(id, sref);
+		all.put(id, sref);
+	}
+
+	/**
+	 * register all services of a multimap.
+	 *
+	 * @param services
+	 *            the services, by object class.
+	 */
+	void insertMap(final MultiMap<String, ServiceReference<?>> services) {
+		for (final String clazz : services.keySet()) {
+			for (final ServiceReference<?> sref : services.get(clazz)) {
+				insert(clazz, sref);
+			}
+		}
+	}
+
+	/**
+	 * unregister a service.
+	 *
+	 * @param clazzes
+	 *            the object classes of the service.
+	 * @param sref
+	 *            the service reference.
+	 */
+	void removeAll(final String[] clazzes, final ServiceReference<?> sref) {
+		final Long id = getID(sref);
+		for (int i = 0; i < clazzes.length; i++) {
+			final Bucket bucket = buckets.get(clazzes[i]);
+			if (bucket != null) {
+				bucket.remove(id);
+			}
+		}
+		all.remove(id);
+	}
+
+	/**
+	 * get the services registered under an object class.
+	 *
+	 * @param clazz
+	 *            the object class.
+	 * @return an immutable list of the services or <code>null</code> if no
+	 *         service has ever been registered under the object class.
+	 */
+	List<ServiceReference<?>> get(final String clazz) {
+		final Bucket bucket = buckets.get(clazz);
+		return bucket == null ? null : bucket.snapshot();
+	}
+
+	/**
+	 * get the services registered under an object class.
+	 *
+	 * @param clazz
+	 *            the object class.
+	 * @return an immutable, possibly empty, list of the services.
+	 */
+	List<ServiceReference<?>> lookup(final String clazz) {
+		final List<ServiceReference<?>> result = get(clazz);
+		return result == null ? Collections.<ServiceReference<?>> emptyList()
+				: result;
+	}
+
+	/**
+	 * get all services.
+	 *
+	 * @return an immutable list of all services.
+	 */
+	List<ServiceReference<?>> getAllValues() {
+		return all.snapshot();
+	}
+
+	/**
+	 * remove all services. The service ids are not reset.
+	 */
+	void clear() {
+		buckets.clear();
+		all.clear();
+	}
+
+	private static Long getID(final ServiceReference<?> sref) {
+		return (Long) sref.getProperty(Constants.SERVICE_ID);
+	}
+
+	/**
+	 * the services of one object class, or all services.
+	 */
+	private static final class Bucket {
+
+		/**
+		 * the services, by service id.
+		 */
+		private final ConcurrentHashMap<Long, ServiceReference<?>> services = new ConcurrentHashMap<Long, ServiceReference<?>>();
+
+		/**
+		 * the number of changes, incremented after every change.
+		 */
+		private final AtomicLong version = new AtomicLong();
+
+		/**
+		 * the last snapshot.
+		 */
+		private volatile Snapshot snapshot;
+
+		void put(final Long id, final ServiceReference<?> sref) {
+			services.put(id, sref);
+			version.incrementAndGet();
+		}
+
+		void remove(final Long id) {
+			if (services.remove(id) != null) {
+				version.incrementAndGet();
+			}
+		}
+
+		void clear() {
+			services.clear();
+			version.incrementAndGet();
+		}
+
+		List<ServiceReference<?>> snapshot() {
+			final long current = version.get();
+			final Snapshot last = snapshot;
+			if (last != null && last.version == current) {
+				return last.services;
+			}
+			// a snapshot built during a change is tagged with the version
+			// before the change and therefore never reused
+			final ArrayList<ServiceReference<?>> sorted = new ArrayList<ServiceReference<?>>(
+					this.services.values());
+			Collections.sort(sorted, BY_ID);
+			final List<ServiceReference<?>> services = Collections
+					.unmodifiableList(sorted);
+			snapshot = new Snapshot(current, services);
+			return services;
+		}
+	}
+
+	/**
+	 * an immutable snapshot of a bucket.
+	 */
+	private static final class Snapshot {
+
+		final long version;
+
+		final List<ServiceReference<?>> services;
+
+		Snapshot(final long version, final List<ServiceReference<?>> services) {
+			this.version = version;
+			this.services = services;
+		}
+	}
+
+}
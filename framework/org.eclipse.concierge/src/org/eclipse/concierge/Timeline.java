@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.concierge.api.BootTimeline;
+
+/**
+ * <p>
+ * Records the boot timeline of the framework. The spans are kept in arrays
+ * that are allocated when the framework is created, a span takes the next free
+ * slot when it begins and is completed by setting its duration. The name of a
+ * span is only built when the timeline is read.
+ * </p>
+ * <p>
+ * Recording stops when the framework has started and restarts with an empty
+ * timeline when the framework is initialized again.
+ * </p>
+ */
+final class Timeline implements BootTimeline {
+
+	private final boolean enabled;
+
+	private final String[] categories;
+
+	private final String[] names;
+
+	// appended to the name, e.g., the bundle
+	private final Object[] subjects;
+
+	private final long[] threadIds;
+
+	private final String[] threadNames;
+
+	// relative to the origin
+	private final long[] starts;
+
+	// -1 while the span is open, written last
+	private final AtomicLongArray durations;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	// the value of System.nanoTime() when the boot began
+	private volatile long origin;
+
+	private volatile boolean recording;
+
+	Timeline(final boolean enabled, final int size, final long origin) {
+		this.enabled = enabled;
+		final int capacity = enabled ? size : 0;
+		categories = new String[capacity];
+		names = new String[capacity];
+		subjects = new Object[capacity];
+		threadIds = new long[capacity];
+		threadNames = new String[capacity];
+		starts = new long[capacity];
+		durations = new AtomicLongArray(capacity);
+		clear();
+		this.origin = origin;
+		recording = enabled;
+	}
+
+	/**
+	 * begin a new boot, discard the timeline of the previous boot.
+	 */
+	void open() {
+		if (!enabled || recording) {
+			return;
+		}
+		// mark all slots as open before they can be claimed again, so readers
+		// never see a span of the previous boot or an unwritten slot
+		clear();
+		origin = System.nanoTime();
+		next.set(0);
+		recording = true;
+	}
+
+	private void clear() {
+		for (int i = 0; i < durations.length(); i++) {
+			durations.set(i, -1);
+		}
+	}
+
+	/**
+	 * stop recording when the boot has finished.
+	 */
+	void close() {
+		recording = false;
+	}
+
+	/**
+	 * begin a span.
+	 *
+	 * @param category
+	 *            the category.
+	 * @param name
+	 *            the name.
+	 * @param subject
+	 *            the subject appended to the name or <code>null</code>.
+	 * @return the slot of the span or -1 if the span is not recorded.
+	 */
+	int begin(final String category, final String name,
+			final Object subject) {
+		if (!recording) {
+			return -1;
+		}
+		final int slot = next.getAndIncrement();
+		if (slot >= starts.length) {
+			return -1;
+		}
+		final Thread thread = Thread.currentThread();
+		categories[slot] = category;
+		names[slot] = name;
+		subjects[slot] = subject;
+		threadIds[slot] = thread.getId();
+		threadNames[slot] = thread.getName();
+		durations.set(slot, -1);
+		starts[slot] = System.nanoTime() - origin;
+		return slot;
+	}
+
+	/**
+	 * end a span.
+	 *
+	 * @param slot
+	 *            the slot returned by begin.
+	 */
+	void end(final int slot) {
+		if (slot >= 0) {
+			durations.set(slot,
+					Math.max(System.nanoTime() - origin - starts[slot], 0));
+		}
+	}
+
+	/**
+	 * record a span that has already ended.
+	 *
+	 * @param category
+	 *            the category.
+	 * @param name
+	 *            the name.
+	 * @param begin
+	 *            the value of System.nanoTime() when the span began.
+	 * @param end
+	 *            the value of System.nanoTime() when the span ended.
+	 */
+	void record(final String category, final String name, final long begin,
+			final long end) {
+		final int slot = begin(category, name, null);
+		if (slot >= 0) {
+			starts[slot] = begin - origin;
+			durations.set(slot, Math.max(end - begin, 0));
+		}
+	}
+
+	public List<Span> getSpans() {
+		final int count = Math.min(next.get(), starts.length);
+		final List<Span> spans = new ArrayList<Span>(count);
+		for (int i = 0; i < count; i++) {
+			// the duration is written last
+			final long duration = durations.get(i);
+			if (duration >= 0) {
+				spans.add(new SpanImpl(categories[i],
+						subjects[i] == null ? names[i]
+								: names[i] + ' ' + subjects[i],
+						threadIds[i], threadNames[i], starts[i], duration));
+			}
+		}
+		Collections.sort(spans, new Comparator<Span>() {
+			public int compare(final Span s1, final Span s2) {
+				return s1.getStart() < s2.getStart() ? -1
+						: s1.getStart() > s2.getStart() ? 1 : 0;
+			}
+		});
+		return spans;
+	}
+
+	public int getDropped() {
+		return Math.max(next.get() - starts.length, 0);
+	}
+
+	public String toTraceEvents() {
+		final StringBuffer buffer = new StringBuffer();
+		final Map<Long, String> threads = new HashMap<Long, String>();
+		buffer.append("{\"traceEvents\":[");
+		boolean first = true;
+		for (final Span span : getSpans()) {
+			if (!first) {
+				buffer.append(',');
+			}
+			first = false;
+			buffer.append("\n{\"name\":");
+			quote(buffer, span.getName());
+			buffer.append(",\"cat\":");
+			quote(buffer, span.getCategory());
+			buffer.append(",\"ph\":\"X\",\"ts\":");
+			micros(buffer, span.getStart());
+			buffer.append(",\"dur\":");
+			micros(buffer, span.getDuration());
+			buffer.append(",\"pid\":1,\"tid\":").append(span.getThreadId())
+					.append('}');
+			threads.put(new Long(span.getThreadId()), span.getThreadName());
+		}
+		for (final Map.Entry<Long, String> thread : threads.entrySet()) {
+			buffer.append(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+					.append(thread.getKey()).append(",\"args\":{\"name\":");
+			quote(buffer, thread.getValue());
+			buffer.append("}}");
+		}
+		buffer.append("\n],\"displayTimeUnit\":\"ms\"}\n");
+		return buffer.toString();
+	}
+
+	/**
+	 * write the timeline in the Chrome trace event format.
+	 *
+	 * @param file
+	 *            the file.
+	 * @throws IOException
+	 *             if the file cannot be written.
+	 */
+	void write(final File file) throws IOException {
+		final Writer out = new OutputStreamWriter(new FileOutputStream(file),
+				"UTF-8");
+		try {
+			out.write(toTraceEvents());
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void micros(final StringBuffer buffer, final long nanos) {
+		final long fraction = nanos % 1000;
+		buffer.append(nanos / 1000).append('.');
+		if (fraction < 100) {
+			buffer.append(fraction < 10 ? "00" : "0");
+		}
+		buffer.append(fraction);
+	}
+
+	private static void quote(final StringBuffer buffer, final String s) {
+		buffer.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				buffer.append('\\').append(c);
+			} else if (c < 0x20) {
+				final String hex = Integer.toHexString(c);
+				buffer.append("\\u00").append(hex.length() == 1 ? "0" : "")
+						.append(hex);
+			} else {
+				buffer.append(c);
+			}
+		}
+		buffer.append('"');
+	}
+
+	/**
+	 * a completed span.
+	 */
+	private static final class SpanImpl implements Span {
+
+		private final String category;
+
+		private final String name;
+
+		private final long threadId;
+
+		private final String threadName;
+
+		private final long start;
+
+		private final long duration;
+
+		SpanImpl(final String category, final String name,
+				final long threadId, final String threadName,
+				final long start, final long duration) {
+			this.category = category;
+			this.name = name;
+			this.threadId = threadId;
+			this.threadName = threadName;
+			this.start = start;
+			this.duration = duration;
+		}
+
+		public String getCategory() {
+			return category;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getThreadId() {
+			return threadId;
+		}
+
+		public String getThreadName() {
+			return threadName;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getDuration() {
+			return duration;
+		}
+
+		public String toString() {
+			return category + ' ' + name + " [" + threadName + "] "
+					+ start + "+" + duration;
+		}
+	}
+
+}
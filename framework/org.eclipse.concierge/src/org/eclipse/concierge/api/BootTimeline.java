@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.api;
+
+import java.util.List;
+
+/**
+ * The timeline of the last boot of the framework, from the creation of the
+ * framework until <code>start()</code> returns. The framework records the
+ * phases of the boot, the start levels, and the resolve operations and
+ * activations of bundles as spans. Recording is enabled by default, it can be
+ * disabled by setting the framework property
+ * <code>org.eclipse.concierge.timeline</code> to <code>false</code>. The
+ * number of spans is limited by
+ * <code>org.eclipse.concierge.timeline.size</code>, if
+ * <code>org.eclipse.concierge.timeline.file</code> is set, the timeline is
+ * written to this file in the Chrome trace event format when the framework has
+ * started. Available as a service and through adapting the system bundle.
+ */
+public interface BootTimeline {
+
+	/**
+	 * the phases of the framework: construction, init, profile restore,
+	 * system bundle start.
+	 */
+	String FRAMEWORK = "framework";
+
+	/**
+	 * raising the start level, one span per level with bundles to start.
+	 */
+	String STARTLEVEL = "startlevel";
+
+	/**
+	 * resolve operations.
+	 */
+	String RESOLVE = "resolve";
+
+	/**
+	 * bundle activations, including the activator.
+	 */
+	String ACTIVATE = "activate";
+
+	/**
+	 * get the completed spans.
+	 *
+	 * @return the spans, ordered by their start.
+	 */
+	List<Span> getSpans();
+
+	/**
+	 * get the number of spans that were not recorded because the timeline was
+	 * full.
+	 *
+	 * @return the number of dropped spans.
+	 */
+	int getDropped();
+
+	/**
+	 * export the timeline in the Chrome trace event format, it can be loaded
+	 * into <code>chrome://tracing</code>.
+	 *
+	 * @return the JSON document.
+	 */
+	String toTraceEvents();
+
+	/**
+	 * A phase of the boot. Times are measured in nanoseconds since the
+	 * framework was created.
+	 */
+	interface Span {
+
+		/**
+		 * get the category of the span.
+		 *
+		 * @return one of the categories of the timeline.
+		 */
+		String getCategory();
+
+		/**
+		 * get the name of the span.
+		 *
+		 * @return the name.
+		 */
+		String getName();
+
+		/**
+		 * get the id of the thread that executed the span.
+		 *
+		 * @return the thread id.
+		 */
+		long getThreadId();
+
+		/**
+		 * get the name of the thread that executed the span.
+		 *
+		 * @return the thread name.
+		 */
+		String getThreadName();
+
+		/**
+		 * get the start of the span.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		long getStart();
+
+		/**
+		 * get the duration of the span.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		long getDuration();
+
+	}
+
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.api;
+
+import org.osgi.framework.Bundle;
+
+/**
+ * Installs a set of bundles in a single operation. Retrieving and storing the
+ * bundle content happens in parallel, the bundles are registered with the
+ * framework in the order of the given locations. Available as a service and
+ * through adapting the system bundle. The service installs the bundles through
+ * the context of the bundle that got the service, the system bundle installs
+ * them through its own context.
+ */
+public interface BundleInstaller {
+
+	/**
+	 * install bundles.
+	 * 
+	 * @param locations
+	 *            the bundle locations. Locations without a scheme are
+	 *            resolved against the bundle location of the framework.
+	 * @return the bundles, in the order of the locations. The entry of a
+	 *         bundle that could not be installed is <code>null</code>, the
+	 *         failure is reported as a framework event of type ERROR.
+	 * @throws IllegalArgumentException
+	 *             if a location is <code>null</code>.
+	 */
+	Bundle[] installBundles(String[] locations);
+
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.api;
+
+/**
+ * Counts the operations of the framework and samples the latency of the
+ * expensive ones. Metrics are disabled by default, they can be enabled
+ * through this service or by setting the framework property
+ * <code>org.eclipse.concierge.metrics</code> to <code>true</code>. Only every
+ * n-th timed operation is sampled, n is set by
+ * <code>org.eclipse.concierge.metrics.sample</code>. Available as a service
+ * and through adapting the system bundle.
+ */
+public interface FrameworkMetrics {
+
+	/**
+	 * bundles installed.
+	 */
+	String BUNDLE_INSTALLS = "bundle.installs";
+
+	/**
+	 * bundles started.
+	 */
+	String BUNDLE_STARTS = "bundle.starts";
+
+	/**
+	 * bundles stopped.
+	 */
+	String BUNDLE_STOPS = "bundle.stops";
+
+	/**
+	 * resolve operations, timed.
+	 */
+	String RESOLVES = "resolves";
+
+	/**
+	 * services registered.
+	 */
+	String SERVICE_REGISTRATIONS = "service.registrations";
+
+	/**
+	 * service lookups.
+	 */
+	String SERVICE_LOOKUPS = "service.lookups";
+
+	/**
+	 * service events.
+	 */
+	String SERVICE_EVENTS = "service.events";
+
+	/**
+	 * dispatches of a bundle or service event to the synchronous listeners,
+	 * timed.
+	 */
+	String LISTENER_DISPATCHES = "listener.dispatches";
+
+	/**
+	 * classes defined by bundle class loaders, timed.
+	 */
+	String CLASS_LOADS = "class.loads";
+
+	/**
+	 * files written to the storage.
+	 */
+	String STORAGE_WRITES = "storage.writes";
+
+	/**
+	 * enable or disable the metrics.
+	 *
+	 * @param enabled
+	 *            true to count subsequent operations.
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * check if the metrics are enabled.
+	 *
+	 * @return true if the metrics are enabled.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * get the names of the metrics.
+	 *
+	 * @return the names.
+	 */
+	String[] getNames();
+
+	/**
+	 * get the number of operations.
+	 *
+	 * @param name
+	 *            the name of the metric.
+	 * @return the number of operations.
+	 * @throws IllegalArgumentException
+	 *             if there is no metric with this name.
+	 */
+	long getCount(String name);
+
+	/**
+	 * get the sampled latency of an operation.
+	 *
+	 * @param name
+	 *            the name of the metric.
+	 * @return the latency or <code>null</code> if the operation is not timed.
+	 * @throws IllegalArgumentException
+	 *             if there is no metric with this name.
+	 */
+	Latency getLatency(String name);
+
+	/**
+	 * reset all metrics to zero.
+	 */
+	void reset();
+
+	/**
+	 * export the metrics in a plain text format, one
+	 * <code>name value</code> pair per line. Latencies are given in
+	 * nanoseconds.
+	 *
+	 * @return the metrics.
+	 */
+	String export();
+
+	/**
+	 * The sampled latency of an operation. Percentiles are approximated by
+	 * the upper bound of a power of two bucket.
+	 */
+	interface Latency {
+
+		/**
+		 * get the number of samples.
+		 *
+		 * @return the number of samples.
+		 */
+		long getSamples();
+
+		/**
+		 * get the total time of the samples.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		long getTotal();
+
+		/**
+		 * get the longest sample.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		long getMax();
+
+		/**
+		 * get a percentile of the samples.
+		 *
+		 * @param percentile
+		 *            the percentile, between 0 and 100.
+		 * @return the time in nanoseconds.
+		 */
+		long getPercentile(double percentile);
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.api;
+
+import java.util.List;
+
+/**
+ * Traces the resolve operations of the framework. Tracing is disabled by
+ * default, it can be enabled through this service or by setting the framework
+ * property <code>org.eclipse.concierge.resolver.trace</code> to
+ * <code>true</code>. The framework keeps the most recent traces, their number
+ * is set by <code>org.eclipse.concierge.resolver.trace.size</code>. Available
+ * as a service and through adapting the system bundle.
+ */
+public interface ResolverMonitor {
+
+	/**
+	 * enable or disable tracing.
+	 * 
+	 * @param enabled
+	 *            true to trace subsequent resolve operations.
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * check if tracing is enabled.
+	 * 
+	 * @return true if tracing is enabled.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * get the most recent traces.
+	 * 
+	 * @return the traces, oldest first.
+	 */
+	List<ResolverTrace> getTraces();
+
+	/**
+	 * discard the recorded traces.
+	 */
+	void clear();
+
+	/**
+	 * add a listener that is notified of every traced resolve operation.
+	 * 
+	 * @param listener
+	 *            the listener.
+	 */
+	void addListener(ResolverTraceListener listener);
+
+	/**
+	 * remove a listener.
+	 * 
+	 * @param listener
+	 *            the listener.
+	 */
+	void removeListener(ResolverTraceListener listener);
+
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.api;
+
+import java.util.List;
+
+import org.osgi.resource.Requirement;
+import org.osgi.resource.Resource;
+
+/**
+ * The trace of a single resolve operation of the framework. Times are
+ * measured in nanoseconds, the time of a phase includes the time of the
+ * phases nested into it.
+ */
+public interface ResolverTrace {
+
+	/**
+	 * finding the providers of a requirement.
+	 */
+	int FIND_PROVIDERS = 0;
+
+	/**
+	 * matching the filter of a requirement against the capability index,
+	 * nested into FIND_PROVIDERS.
+	 */
+	int FILTER_WITH_INDEX = 1;
+
+	/**
+	 * resolver hooks filtering the candidates of a requirement.
+	 */
+	int FILTER_CANDIDATES = 2;
+
+	/**
+	 * resolver hooks filtering the resolvable resources.
+	 */
+	int FILTER_RESOURCES = 3;
+
+	/**
+	 * resolver hooks filtering singleton collisions.
+	 */
+	int FILTER_SINGLETON_COLLISIONS = 4;
+
+	/**
+	 * processing the uses constraints of the candidates.
+	 */
+	int USES = 5;
+
+	/**
+	 * attaching fragments to their hosts.
+	 */
+	int FRAGMENTS = 6;
+
+	/**
+	 * the names of the phases, indexed by phase.
+	 */
+	String[] PHASES = { "findProviders", "filterWithIndex",
+			"filterCandidates", "filterResources",
+			"filterSingletonCollisions", "uses", "fragments" };
+
+	/**
+	 * get the time when the operation started.
+	 * 
+	 * @return the start time in milliseconds since the epoch.
+	 */
+	long getTimestamp();
+
+	/**
+	 * get the duration of the operation.
+	 * 
+	 * @return the duration in nanoseconds.
+	 */
+	long getDuration();
+
+	/**
+	 * get the time spent in a phase.
+	 * 
+	 * @param phase
+	 *            the phase.
+	 * @return the time in nanoseconds.
+	 */
+	long getTime(int phase);
+
+	/**
+	 * get the number of times a phase was entered.
+	 * 
+	 * @param phase
+	 *            the phase.
+	 * @return the number of invocations.
+	 */
+	int getInvocations(int phase);
+
+	/**
+	 * get the resources that were to be resolved.
+	 * 
+	 * @return the mandatory resources of the operation.
+	 */
+	List<Resource> getResources();
+
+	/**
+	 * check if the operation resolved all mandatory resources.
+	 * 
+	 * @return true if the operation was successful.
+	 */
+	boolean isSuccessful();
+
+	/**
+	 * get the requirements considered during the operation, in the order in
+	 * which their providers were looked up.
+	 * 
+	 * @return the requirement traces.
+	 */
+	List<RequirementTrace> getRequirements();
+
+	/**
+	 * The trace of looking up the providers of a requirement.
+	 */
+	public interface RequirementTrace {
+
+		/**
+		 * get the requirement.
+		 * 
+		 * @return the requirement.
+		 */
+		Requirement getRequirement();
+
+		/**
+		 * get the number of candidates, after filtering through the
+		 * resolver hooks.
+		 * 
+		 * @return the number of candidates.
+		 */
+		int getCandidates();
+
+		/**
+		 * get the time spent finding and filtering the candidates.
+		 * 
+		 * @return the time in nanoseconds.
+		 */
+		long getTime();
+
+	}
+
+}
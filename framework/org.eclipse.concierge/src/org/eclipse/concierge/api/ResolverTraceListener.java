@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.api;
+
+/**
+ * Listener for resolver traces, see {@link ResolverMonitor}.
+ */
+public interface ResolverTraceListener {
+
+	/**
+	 * called after a traced resolve operation has finished. Called
+	 * synchronously by the resolving thread, implementations should return
+	 * quickly.
+	 * 
+	 * @param trace
+	 *            the trace of the operation.
+	 */
+	void resolved(ResolverTrace trace);
+
+}
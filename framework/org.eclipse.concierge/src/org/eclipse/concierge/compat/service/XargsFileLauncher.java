@@ -145,13 +145,22 @@ public class XargsFileLauncher {
 						break;
 					}
 					// first install all bundles
-					final List<Bundle> bundlesToStart = new ArrayList<Bundle>();
+					final List<String> locations = new ArrayList<String>();
 					for (int i = 0; i < files.length; i++) {
 						if (files[i].isDirectory()) {
 							continue;
 						}
-						final Bundle b = (Bundle) context
-								.installBundle(files[i].getPath());
+						locations.add(files[i].getPath());
+					}
+					final Bundle[] installed = concierge.installBundles(
+							locations.toArray(new String[locations.size()]));
+					final List<Bundle> bundlesToStart = new ArrayList<Bundle>();
+					for (int i = 0; i < installed.length; i++) {
+						final Bundle b = installed[i];
+						if (b == null) {
+							printErr("COULD NOT INSTALL " + locations.get(i));
+							continue;
+						}
 						// adapt to BundleStartLevel
 						final BundleStartLevel bundleStartLevel = b
 								.adapt(BundleStartLevel.class);
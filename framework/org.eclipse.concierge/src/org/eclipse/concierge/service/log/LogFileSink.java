@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.service.log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.eclipse.concierge.service.log.LogServiceImpl.LogEntryImpl;
+
+/**
+ * <p>
+ * writes the log entries to a rolling set of files. The current file is
+ * <code>log.0</code>, when it grows beyond the maximum size it becomes
+ * <code>log.1</code> and so on, the oldest file is deleted.
+ * </p>
+ * <p>
+ * Every entry is one line of tab separated fields: time, level, bundle id,
+ * message, and the message of the exception. The entries are collected in a
+ * buffer and written and forced to the disk as a group when the dispatcher of
+ * the log service runs out of entries or the buffer is full. An entry that is
+ * larger than the buffer is a group of its own.
+ * </p>
+ */
+public final class LogFileSink {
+
+	/**
+	 * the name of the log files.
+	 */
+	private static final String PREFIX = "log.";
+
+	/**
+	 * the charset of the log files.
+	 */
+	private static final String CHARSET = "UTF-8";
+
+	/**
+	 * the directory of the log files.
+	 */
+	private final File dir;
+
+	/**
+	 * the maximum size of a log file.
+	 */
+	private final long maxSize;
+
+	/**
+	 * the number of log files.
+	 */
+	private final int count;
+
+	/**
+	 * the buffer of the current group.
+	 */
+	private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+	/**
+	 * the channel of the current log file.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * create a new sink.
+	 *
+	 * @param dir
+	 *            the directory of the log files.
+	 * @param maxSize
+	 *            the maximum size of a log file in bytes.
+	 * @param count
+	 *            the number of log files to keep.
+	 */
+	public LogFileSink(final File dir, final long maxSize, final int count) {
+		this.dir = dir;
+		this.maxSize = Math.max(maxSize, 1024);
+		this.count = Math.max(count, 1);
+	}
+
+	/**
+	 * read the last entries of the log files.
+	 *
+	 * @param n
+	 *            the maximum number of entries.
+	 * @return the entries, oldest first.
+	 */
+	List<String[]> replay(final int n) {
+		final LinkedList<String[]> result = new LinkedList<String[]>();
+		if (n <= 0) {
+			return result;
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			final File file = new File(dir, PREFIX + i);
+			if (!file.exists()) {
+				continue;
+			}
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(new InputStreamReader(
+						new FileInputStream(file), CHARSET));
+				String line;
+				while ((line = reader.readLine()) != null) {
+					final String[] fields = line.split("\t", -1);
+					// skip the torn last line of a crashed framework
+					if (fields.length != 5) {
+						continue;
+					}
+					for (int j = 0; j < fields.length; j++) {
+						fields[j] = unescape(fields[j]);
+					}
+					result.add(fields);
+					if (result.size() > n) {
+						result.removeFirst();
+					}
+				}
+			} catch (final IOException ioe) {
+				ioe.printStackTrace();
+			} finally {
+				if (reader != null) {
+					try {
+						reader.close();
+					} catch (final IOException ioe) {
+						// ignore
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * add an entry to the current group.
+	 *
+	 * @param entry
+	 *            the entry.
+	 * @throws IOException
+	 *             if the group cannot be written.
+	 */
+	void write(final LogEntryImpl entry) throws IOException {
+		final StringBuffer line = new StringBuffer();
+		line.append(entry.getTime()).append('\t');
+		line.append(entry.getLevel()).append('\t');
+		line.append(entry.getBundle() == null ? -1
+				: entry.getBundle().getBundleId()).append('\t');
+		escape(line, entry.getMessage());
+		line.append('\t');
+		if (entry.getException() != null) {
+			escape(line, String.valueOf(entry.getException()));
+		}
+		line.append('\n');
+
+		final byte[] bytes = line.toString().getBytes(CHARSET);
+		if (bytes.length > buffer.remaining()) {
+			flush();
+		}
+		if (bytes.length > buffer.capacity()) {
+			// too large for a group, written as a group of its own
+			commit(ByteBuffer.wrap(bytes));
+		} else {
+			buffer.put(bytes);
+		}
+	}
+
+	/**
+	 * write the current group to the disk and rotate the files if the current
+	 * file is full.
+	 *
+	 * @throws IOException
+	 *             if the group cannot be written.
+	 */
+	void flush() throws IOException {
+		if (buffer.position() == 0) {
+			return;
+		}
+		buffer.flip();
+		try {
+			commit(buffer);
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * write the pending group and close the current file.
+	 */
+	void close() {
+		try {
+			flush();
+		} catch (final IOException ioe) {
+			ioe.printStackTrace();
+		}
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (final IOException ioe) {
+				ioe.printStackTrace();
+			}
+			channel = null;
+		}
+	}
+
+	/**
+	 * write a group to the disk and rotate the files if the current file is
+	 * full.
+	 */
+	private void commit(final ByteBuffer bytes) throws IOException {
+		if (channel == null) {
+			open();
+		}
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		channel.force(false);
+		if (channel.size() >= maxSize) {
+			rotate();
+		}
+	}
+
+	private void open() throws IOException {
+		if (!dir.exists() && !dir.mkdirs()) {
+			throw new IOException("Could not create log directory " + dir);
+		}
+		channel = new FileOutputStream(new File(dir, PREFIX + 0), true)
+				.getChannel();
+	}
+
+	private void rotate() throws IOException {
+		channel.close();
+		channel = null;
+		new File(dir, PREFIX + (count - 1)).delete();
+		for (int i = count - 2; i >= 0; i--) {
+			new File(dir, PREFIX + i).renameTo(new File(dir, PREFIX + (i + 1)));
+		}
+	}
+
+	private static void escape(final StringBuffer buffer, final String s) {
+		if (s == null) {
+			return;
+		}
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			switch (c) {
+			case '\\':
+				buffer.append("\\\\");
+				break;
+			case '\t':
+				buffer.append("\\t");
+				break;
+			case '\n':
+				buffer.append("\\n");
+				break;
+			case '\r':
+				buffer.append("\\r");
+				break;
+			default:
+				buffer.append(c);
+			}
+		}
+	}
+
+	private static String unescape(final String s) {
+		if (s.indexOf('\\') == -1) {
+			return s;
+		}
+		final StringBuffer buffer = new StringBuffer(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '\\' && i + 1 < s.length()) {
+				c = s.charAt(++i);
+				if (c == 't') {
+					c = '\t';
+				} else if (c == 'n') {
+					c = '\n';
+				} else if (c == 'r') {
+					c = '\r';
+				}
+			}
+			buffer.append(c);
+		}
+		return buffer.toString();
+	}
+
+}
@@ -15,11 +15,18 @@
 package org.eclipse.concierge.service.log;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Vector;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.ServiceFactory;
@@ -40,16 +47,63 @@ import org.osgi.service.log.LogService;
  */
 public final class LogServiceImpl implements LogReaderService {
 	/**
-	 * the log buffer. Works like a ring buffer. The size can be configured by a
+	 * the log buffer. Works like a ring buffer, the entry with sequence number
+	 * n is stored at index n modulo the size. The size can be configured by a
 	 * property.
 	 */
-	private final Vector<LogEntryImpl> logBuffer;
+	private final AtomicReferenceArray<LogEntryImpl> logBuffer;
+
+	/**
+	 * the sequence number of the next entry.
+	 */
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * the entries that have not been printed and delivered to the listeners
+	 * yet.
+	 */
+	private final ConcurrentLinkedQueue<LogEntryImpl> pending = new ConcurrentLinkedQueue<LogEntryImpl>();
+
+	/**
+	 * the free slots of the pending queue.
+	 */
+	private final Semaphore capacity;
+
+	/**
+	 * the number of entries that were not delivered because the pending queue
+	 * was full.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * the number of dropped entries that have already been reported.
+	 */
+	private long reported;
+
+	/**
+	 * the file sink or <code>null</code>.
+	 */
+	private final LogFileSink sink;
+
+	/**
+	 * the thread that prints the entries and delivers them to the listeners.
+	 */
+	private final Thread dispatcher;
+
+	/**
+	 * set while the dispatcher is about to park.
+	 */
+	private volatile boolean waiting;
+
+	/**
+	 * set when the log service has been closed.
+	 */
+	private volatile boolean closed;
 
 	/**
 	 * the list of subscribed listeners.
 	 */
-	private final List<LogListener> logListeners = new ArrayList<LogListener>(
-			0);
+	private final List<LogListener> logListeners = new CopyOnWriteArrayList<LogListener>();
 
 	/**
 	 * the size.
@@ -66,6 +120,22 @@ public final class LogServiceImpl implements LogReaderService {
 	 */
 	private final boolean QUIET;
 
+	/**
+	 * block the logging thread when the pending queue is full instead of
+	 * dropping the oldest pending entry ?
+	 */
+	private final boolean BLOCK;
+
+	/**
+	 * the overflow policy that drops the oldest pending entry.
+	 */
+	public static final String POLICY_DROP_OLDEST = "drop-oldest";
+
+	/**
+	 * the overflow policy that blocks the logging thread.
+	 */
+	public static final String POLICY_BLOCK = "block";
+
 	/**
 	 * the constants for the log levels.
 	 */
@@ -83,6 +153,12 @@ public final class LogServiceImpl implements LogReaderService {
 
 	public LogServiceImpl(final int buffersize, final int loglevel,
 			final boolean quiet) {
+		this(buffersize, loglevel, quiet, 1000, POLICY_DROP_OLDEST, null);
+	}
+
+	public LogServiceImpl(final int buffersize, final int loglevel,
+			final boolean quiet, final int queueCapacity, final String policy,
+			final LogFileSink sink) {
 		LOG_BUFFER_SIZE = buffersize;
 		if (loglevel < 0) {
 			LOG_LEVEL = 0;
@@ -92,13 +168,178 @@ public final class LogServiceImpl implements LogReaderService {
 			LOG_LEVEL = loglevel;
 		}
 		QUIET = quiet;
-		logBuffer = new Vector<LogEntryImpl>(LOG_BUFFER_SIZE);
+		BLOCK = POLICY_BLOCK.equals(policy);
+		capacity = new Semaphore(Math.max(queueCapacity, 1));
+		logBuffer = new AtomicReferenceArray<LogEntryImpl>(
+				Math.max(LOG_BUFFER_SIZE, 0));
+		this.sink = sink;
+		if (sink != null) {
+			replay(sink);
+		}
+		dispatcher = new Thread("Concierge Log Dispatcher") {
+			public void run() {
+				dispatch();
+			}
+		};
+		dispatcher.setDaemon(true);
+		dispatcher.start();
 		if (!QUIET) {
 			System.out.println(
 					"Logger initialized, loglevel is " + LEVELS[LOG_LEVEL]);
 		}
 	}
 
+	/**
+	 * stop the dispatcher after the pending entries have been delivered. With
+	 * a log file, wait longer since every group is forced to the disk.
+	 */
+	public void close() {
+		closed = true;
+		LockSupport.unpark(dispatcher);
+		try {
+			dispatcher.join(sink == null ? 1000 : 10000);
+		} catch (final InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * the loop of the dispatcher thread.
+	 */
+	void dispatch() {
+		while (true) {
+			final LogEntryImpl entry = pending.poll();
+			if (entry == null) {
+				final boolean last = closed;
+				if (sink != null) {
+					try {
+						if (last) {
+							sink.close();
+						} else {
+							sink.flush();
+						}
+					} catch (final IOException ioe) {
+						ioe.printStackTrace();
+					}
+				}
+				if (last) {
+					return;
+				}
+				waiting = true;
+				if (pending.isEmpty() && !closed) {
+					LockSupport.park(this);
+				}
+				waiting = false;
+				continue;
+			}
+			capacity.release();
+			if (sink != null) {
+				try {
+					sink.write(entry);
+				} catch (final IOException ioe) {
+					ioe.printStackTrace();
+				}
+			}
+			deliver(entry);
+			if (!QUIET) {
+				final long lost = dropped.get();
+				if (lost != reported) {
+					System.err.println("Log queue overflow, dropped "
+							+ (lost - reported) + " entries");
+					reported = lost;
+				}
+			}
+		}
+	}
+
+	/**
+	 * put the last entries of the log files of the previous run into the log
+	 * buffer. The bundles and exceptions of these entries are not restored,
+	 * the message of the exception is appended to the message.
+	 *
+	 * @param sink
+	 *            the file sink.
+	 */
+	private void replay(final LogFileSink sink) {
+		for (final String[] fields : sink.replay(LOG_BUFFER_SIZE)) {
+			try {
+				final long seq = sequence.getAndIncrement();
+				final String message = fields[4].length() == 0 ? fields[3]
+						: fields[3] + " (" + fields[4] + ")";
+				logBuffer.set((int) (seq % LOG_BUFFER_SIZE),
+						new LogEntryImpl(seq, Long.parseLong(fields[0]),
+								Integer.parseInt(fields[1]), message, null,
+								null, null));
+			} catch (final NumberFormatException nfe) {
+				// skip a corrupted entry
+			}
+		}
+	}
+
+	/**
+	 * get the number of entries that were not delivered to the listeners
+	 * because the pending queue was full.
+	 *
+	 * @return the number of dropped entries.
+	 */
+	public long getDroppedEntries() {
+		return dropped.get();
+	}
+
+	/**
+	 * take a slot of the pending queue, either by waiting for the dispatcher
+	 * or by dropping the oldest pending entry.
+	 *
+	 * @return <code>false</code> if the entry has to be dropped.
+	 */
+	private boolean reserve() {
+		if (capacity.tryAcquire()) {
+			return true;
+		}
+		// the dispatcher itself must never wait for its own queue
+		if (BLOCK && Thread.currentThread() != dispatcher) {
+			try {
+				capacity.acquire();
+				return true;
+			} catch (final InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				dropped.incrementAndGet();
+				return false;
+			}
+		}
+		while (true) {
+			// reuse the slot of the oldest pending entry
+			if (pending.poll() != null) {
+				dropped.incrementAndGet();
+				return true;
+			}
+			if (capacity.tryAcquire()) {
+				return true;
+			}
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * print an entry and deliver it to the listeners.
+	 *
+	 * @param entry
+	 *            the entry.
+	 */
+	private void deliver(final LogEntryImpl entry) {
+		for (final Iterator<LogListener> listeners = logListeners
+				.iterator(); listeners.hasNext();) {
+			try {
+				listeners.next().logged(entry);
+			} catch (final Throwable t) {
+				t.printStackTrace();
+			}
+		}
+		if (!QUIET) {
+			System.out.println(entry);
+		}
+	}
+
 	/**
 	 * log an entry.
 	 *
@@ -109,18 +350,20 @@ public final class LogServiceImpl implements LogReaderService {
 			final Throwable throwable, final ServiceReference<?> sref,
 			final Bundle bundle) {
 		if (level <= LOG_LEVEL) {
-			final LogEntryImpl entry = LogEntryImpl.getEntry(level, message,
+			final long seq = sequence.getAndIncrement();
+			final LogEntryImpl entry = new LogEntryImpl(seq, level, message,
 					throwable, sref, bundle);
-			logBuffer.add(entry);
-			if (logBuffer.size() > LOG_BUFFER_SIZE) {
-				LogEntryImpl.releaseEntry(logBuffer.remove(0));
-			}
-			for (final Iterator<LogListener> listeners = logListeners
-					.iterator(); listeners.hasNext();) {
-				listeners.next().logged(entry);
+			if (LOG_BUFFER_SIZE > 0) {
+				logBuffer.set((int) (seq % LOG_BUFFER_SIZE), entry);
 			}
-			if (!QUIET) {
-				System.out.println(entry);
+			if (closed) {
+				deliver(entry);
+			} else if ((!QUIET || sink != null || !logListeners.isEmpty())
+					&& reserve()) {
+				pending.offer(entry);
+				if (waiting) {
+					LockSupport.unpark(dispatcher);
+				}
 			}
 		}
 	}
@@ -150,14 +393,27 @@ public final class LogServiceImpl implements LogReaderService {
 	}
 
 	/**
-	 * get the buffered log messages.
+	 * get the buffered log messages. The enumeration is a snapshot of the
+	 * buffer, entries that are logged later do not show up.
 	 *
 	 * @return an <code>Enumeration</code> over the buffered log messages.
 	 *
 	 * @see org.osgi.service.log.LogReaderService#getLog()
 	 */
 	public Enumeration<? extends LogEntry> getLog() {
-		return logBuffer.elements();
+		final long end = sequence.get();
+		final long start = Math.max(0, end - LOG_BUFFER_SIZE);
+		final List<LogEntry> snapshot = new ArrayList<LogEntry>(
+				(int) (end - start));
+		for (long seq = start; seq < end; seq++) {
+			final LogEntryImpl entry = logBuffer
+					.get((int) (seq % LOG_BUFFER_SIZE));
+			// skip entries that are not yet stored or already overwritten
+			if (entry != null && entry.sequence == seq) {
+				snapshot.add(entry);
+			}
+		}
+		return Collections.enumeration(snapshot);
 	}
 
 	/**
@@ -270,65 +526,54 @@ public final class LogServiceImpl implements LogReaderService {
 	 *
 	 */
 	final static class LogEntryImpl implements LogEntry {
-		private int level;
-
-		private String message;
+		final long sequence;
 
-		private ServiceReference<?> sref;
+		private final int level;
 
-		private Throwable exception;
+		private final String message;
 
-		private Bundle bundle;
+		private final ServiceReference<?> sref;
 
-		private long time;
+		private final Throwable exception;
 
-		private final static List<LogEntryImpl> entryRecyclingList = new ArrayList<LogEntryImpl>(
-				5);
-
-		private final static int THRESHOLD = 5;
-
-		protected static LogEntryImpl getEntry(final int level,
-				final String message, final Throwable throwable,
-				final ServiceReference<?> sref, final Bundle bundle) {
-			synchronized (entryRecyclingList) {
-				final LogEntryImpl entry = entryRecyclingList.isEmpty()
-						? new LogEntryImpl()
-						: (LogEntryImpl) entryRecyclingList.remove(0);
-				entry.log(level, message, throwable, sref, bundle);
-				return entry;
-			}
-		}
+		private final Bundle bundle;
 
-		protected static void releaseEntry(final LogEntryImpl entry) {
-			synchronized (entryRecyclingList) {
-				if (entryRecyclingList.size() < THRESHOLD) {
-					entry.log(0, null, null, null, null);
-					entryRecyclingList.add(entry);
-				}
-			}
-		}
+		private final long time;
 
 		/**
-		 *
+		 * @param sequence
+		 * @param level
+		 * @param message
+		 * @param exception
+		 * @param sref
+		 * @param bundle
 		 */
-		private LogEntryImpl() {
+		LogEntryImpl(final long sequence, final int level,
+				final String message, final Throwable exception,
+				final ServiceReference<?> sref, final Bundle bundle) {
+			this(sequence, System.currentTimeMillis(), level, message,
+					exception, sref, bundle);
 		}
 
 		/**
-		 * @param sref
+		 * @param sequence
+		 * @param time
 		 * @param level
 		 * @param message
 		 * @param exception
+		 * @param sref
+		 * @param bundle
 		 */
-		private void log(final int level, final String message,
-				final Throwable exception, final ServiceReference<?> sref,
-				final Bundle bundle) {
+		LogEntryImpl(final long sequence, final long time, final int level,
+				final String message, final Throwable exception,
+				final ServiceReference<?> sref, final Bundle bundle) {
+			this.sequence = sequence;
 			this.level = level;
 			this.message = message;
 			this.exception = exception;
 			this.sref = sref;
 			this.bundle = bundle;
-			this.time = System.currentTimeMillis();
+			this.time = time;
 		}
 
 		/**
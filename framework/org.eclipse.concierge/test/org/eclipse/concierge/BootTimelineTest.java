@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.concierge.api.BootTimeline;
+import org.eclipse.concierge.api.BootTimeline.Span;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.eclipse.concierge.test.util.SyntheticBundleBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+
+/**
+ * Tests the boot timeline.
+ */
+public class BootTimelineTest extends AbstractConciergeTestCase {
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private BootTimeline getTimeline() {
+		return bundleContext.getService(
+				bundleContext.getServiceReference(BootTimeline.class));
+	}
+
+	private static List<String> names(final BootTimeline timeline) {
+		final List<String> names = new ArrayList<String>();
+		for (final Span span : timeline.getSpans()) {
+			names.add(span.getName());
+		}
+		return names;
+	}
+
+	@Test
+	public void testRecordsBoot() throws Exception {
+		startFramework();
+		final BootTimeline timeline = getTimeline();
+		final List<String> names = names(timeline);
+		Assert.assertTrue(names.toString(), names.contains("construct"));
+		Assert.assertTrue(names.toString(),
+				names.contains("loadMicroServices"));
+		Assert.assertTrue(names.toString(), names.contains("init"));
+		Assert.assertTrue(names.toString(),
+				names.contains("startSystemBundle"));
+		Assert.assertFalse(names.toString(),
+				names.contains("restoreProfile"));
+
+		long last = 0;
+		for (final Span span : timeline.getSpans()) {
+			Assert.assertTrue(span.getStart() >= last);
+			Assert.assertTrue(span.getDuration() >= 0);
+			Assert.assertEquals(Thread.currentThread().getName(),
+					span.getThreadName());
+			last = span.getStart();
+		}
+
+		final String json = timeline.toTraceEvents();
+		Assert.assertTrue(json.startsWith("{\"traceEvents\":["));
+		Assert.assertTrue(json.contains("\"name\":\"startSystemBundle\""));
+		Assert.assertTrue(json.contains("\"ph\":\"X\""));
+		Assert.assertTrue(json.contains("\"name\":\"thread_name\""));
+	}
+
+	@Test
+	public void testRecordsRestart() throws Exception {
+		startFramework();
+		final SyntheticBundleBuilder builder = SyntheticBundleBuilder
+				.newBuilder();
+		builder.bundleSymbolicName("BootTimelineTest.bundle")
+				.bundleVersion("1.0.0");
+		final Bundle bundle = installBundle(builder);
+		bundle.start();
+		stopFramework();
+
+		startFrameworkNonClean();
+		final BootTimeline timeline = getTimeline();
+		final List<String> names = names(timeline);
+		Assert.assertTrue(names.toString(), names.contains("restoreProfile"));
+		Assert.assertTrue(names.toString(), names.contains("startlevel 1"));
+
+		boolean activated = false;
+		boolean resolved = false;
+		for (final Span span : timeline.getSpans()) {
+			if (span.getName().contains("BootTimelineTest.bundle")) {
+				activated |= BootTimeline.ACTIVATE.equals(span.getCategory());
+				resolved |= BootTimeline.RESOLVE.equals(span.getCategory());
+			}
+		}
+		Assert.assertTrue(names.toString(), activated);
+		Assert.assertTrue(names.toString(), resolved);
+
+		// the boot is over
+		final int spans = timeline.getSpans().size();
+		final Bundle bundle2 = installBundle(SyntheticBundleBuilder.newBuilder()
+				.bundleSymbolicName("BootTimelineTest.bundle2")
+				.bundleVersion("1.0.0"));
+		bundle2.start();
+		Assert.assertEquals(spans, timeline.getSpans().size());
+	}
+
+	@Test
+	public void testDropsSpansWhenFull() throws Exception {
+		final Map<String, String> launchArgs = new HashMap<String, String>();
+		launchArgs.put("org.eclipse.concierge.timeline.size", "2");
+		startFrameworkClean(launchArgs);
+		final BootTimeline timeline = getTimeline();
+		Assert.assertEquals(2, timeline.getSpans().size());
+		Assert.assertTrue(timeline.getDropped() > 0);
+	}
+
+	@Test
+	public void testWritesFile() throws Exception {
+		final File file = File.createTempFile("concierge", ".json");
+		file.delete();
+		try {
+			final Map<String, String> launchArgs = new HashMap<String, String>();
+			launchArgs.put("org.eclipse.concierge.timeline.file",
+					file.getAbsolutePath());
+			startFrameworkClean(launchArgs);
+			Assert.assertTrue(file.exists());
+			final BufferedReader reader = new BufferedReader(
+					new FileReader(file));
+			try {
+				Assert.assertEquals("{\"traceEvents\":[", reader.readLine());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testSkipsOpenAndStaleSpans() throws Exception {
+		final Timeline timeline = new Timeline(true, 4, System.nanoTime());
+		final int slot = timeline.begin("test", "open", null);
+		Assert.assertTrue(timeline.getSpans().isEmpty());
+		Assert.assertFalse(timeline.toTraceEvents().contains("\"ph\":\"X\""));
+		timeline.end(slot);
+		Assert.assertEquals(1, timeline.getSpans().size());
+
+		timeline.close();
+		timeline.open();
+		Assert.assertTrue(timeline.getSpans().isEmpty());
+		timeline.begin("test", "reopened", null);
+		Assert.assertTrue(timeline.getSpans().isEmpty());
+	}
+
+	@Test
+	public void testDisabled() throws Exception {
+		final Map<String, String> launchArgs = new HashMap<String, String>();
+		launchArgs.put("org.eclipse.concierge.timeline", "false");
+		startFrameworkClean(launchArgs);
+		final BootTimeline timeline = getTimeline();
+		Assert.assertTrue(timeline.getSpans().isEmpty());
+		Assert.assertEquals(0, timeline.getDropped());
+	}
+
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.concierge.api.BundleInstaller;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.eclipse.concierge.test.util.SyntheticBundleBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the bulk installation of bundles.
+ */
+public class BundleInstallerTest extends AbstractConciergeTestCase {
+
+	private static final String DIR = "build/tests/bundleInstaller";
+
+	@Before
+	public void setUp() throws Exception {
+		startFramework();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private String[] createBundles(final int count) throws Exception {
+		new File(DIR).mkdirs();
+		final String[] locations = new String[count];
+		for (int i = 0; i < count; i++) {
+			final SyntheticBundleBuilder builder = SyntheticBundleBuilder
+					.newBuilder();
+			builder.bundleSymbolicName("bundle" + i).bundleVersion("1.0.0");
+			if (i > 0) {
+				builder.addManifestHeader("Require-Bundle",
+						"bundle" + (i - 1));
+			}
+			final File file = builder.asFile(DIR + "/bundle" + i + ".jar");
+			file.deleteOnExit();
+			locations[i] = file.toURI().toURL().toString();
+		}
+		return locations;
+	}
+
+	@Test
+	public void testInstallBundlesInOrder() throws Exception {
+		final String[] locations = createBundles(20);
+		final BundleInstaller installer = framework
+				.adapt(BundleInstaller.class);
+		Assert.assertNotNull(installer);
+
+		final Bundle[] bundles = installer.installBundles(locations);
+		Assert.assertEquals(locations.length, bundles.length);
+		for (int i = 0; i < bundles.length; i++) {
+			Assert.assertNotNull(bundles[i]);
+			Assert.assertEquals("bundle" + i, bundles[i].getSymbolicName());
+			Assert.assertEquals(locations[i], bundles[i].getLocation());
+			assertBundleInstalled(bundles[i]);
+			if (i > 0) {
+				Assert.assertEquals(bundles[i - 1].getBundleId() + 1,
+						bundles[i].getBundleId());
+			}
+		}
+
+		startBundles(bundles);
+		assertBundlesActive(bundles);
+	}
+
+	@Test
+	public void testInstallBundlesWithDuplicatesAndFailures()
+			throws Exception {
+		final String[] created = createBundles(2);
+		final Bundle existing = bundleContext.installBundle(created[0]);
+
+		final List<FrameworkEvent> errors = new ArrayList<FrameworkEvent>();
+		bundleContext.addFrameworkListener(new FrameworkListener() {
+			public void frameworkEvent(final FrameworkEvent event) {
+				if (event.getType() == FrameworkEvent.ERROR) {
+					errors.add(event);
+				}
+			}
+		});
+
+		final ServiceReference<BundleInstaller> ref = bundleContext
+				.getServiceReference(BundleInstaller.class);
+		Assert.assertNotNull(ref);
+		final BundleInstaller installer = bundleContext.getService(ref);
+
+		final Bundle[] bundles = installer.installBundles(new String[] {
+				created[0], created[1],
+				new File(DIR + "/doesNotExist.jar").toURI().toURL()
+						.toString(),
+				created[1] });
+		Assert.assertSame(existing, bundles[0]);
+		Assert.assertNotNull(bundles[1]);
+		Assert.assertNull(bundles[2]);
+		Assert.assertSame(bundles[1], bundles[3]);
+		Assert.assertEquals(1, errors.size());
+		Assert.assertEquals(3, bundleContext.getBundles().length);
+	}
+
+	@Test
+	public void testInstallBundlesThroughCallerContext() throws Exception {
+		final String[] locations = createBundles(1);
+		final SyntheticBundleBuilder builder = SyntheticBundleBuilder
+				.newBuilder();
+		builder.bundleSymbolicName("caller").bundleVersion("1.0.0");
+		final Bundle caller = installBundle(builder);
+		caller.start();
+
+		final List<Bundle> origins = new ArrayList<Bundle>();
+		bundleContext.addBundleListener(new BundleListener() {
+			public void bundleChanged(final BundleEvent event) {
+				if (event.getType() == BundleEvent.INSTALLED) {
+					origins.add(event.getOrigin());
+				}
+			}
+		});
+
+		final BundleContext callerContext = caller.getBundleContext();
+		final BundleInstaller installer = callerContext.getService(
+				callerContext.getServiceReference(BundleInstaller.class));
+		final Bundle[] bundles = installer.installBundles(locations);
+		Assert.assertNotNull(bundles[0]);
+		Assert.assertEquals(1, origins.size());
+		Assert.assertSame(caller, origins.get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInstallBundlesRejectsNullLocation() throws Exception {
+		framework.adapt(BundleInstaller.class)
+				.installBundles(new String[] { null });
+	}
+
+}
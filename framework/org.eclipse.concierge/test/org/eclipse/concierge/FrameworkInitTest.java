@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.concierge.compat.LegacyBundleProcessing;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the deferred initialization of the framework.
+ */
+public class FrameworkInitTest extends AbstractConciergeTestCase {
+
+	private File storage;
+
+	@Before
+	public void setUp() throws Exception {
+		storage = File.createTempFile("concierge", "");
+		storage.delete();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+		delete(storage);
+	}
+
+	private static void delete(final File file) {
+		final File[] files = file.listFiles();
+		if (files != null) {
+			for (final File child : files) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private void start() throws Exception {
+		final Map<String, String> launchArgs = new HashMap<String, String>();
+		launchArgs.put(Constants.FRAMEWORK_STORAGE, storage.getAbsolutePath());
+		startFrameworkClean(launchArgs);
+	}
+
+	private void writeCache(final String key, final String ees)
+			throws Exception {
+		final DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(new File(storage, "ee.cache")));
+		out.writeUTF(key);
+		out.writeUTF(ees);
+		for (int i = 0; i < 5; i++) {
+			out.writeUTF("");
+		}
+		out.close();
+	}
+
+	@Test
+	public void testExecutionEnvironmentsAreCached() throws Exception {
+		start();
+		final String ees = bundleContext
+				.getProperty(Constants.FRAMEWORK_EXECUTIONENVIRONMENT);
+		Assert.assertTrue(new File(storage, "ee.cache").exists());
+		stopFramework();
+
+		writeCache(ExecutionEnvironments.key(), "Cached-1.0");
+		start();
+		Assert.assertEquals("Cached-1.0", bundleContext
+				.getProperty(Constants.FRAMEWORK_EXECUTIONENVIRONMENT));
+		stopFramework();
+
+		// a different JVM probes again
+		writeCache("other", "Cached-1.0");
+		start();
+		Assert.assertEquals(ees, bundleContext
+				.getProperty(Constants.FRAMEWORK_EXECUTIONENVIRONMENT));
+	}
+
+	@Test
+	public void testMicroServicesAreCreatedOnDemand() throws Exception {
+		start();
+		final ServiceReference<?>[] refs = bundleContext.getServiceReferences(
+				LegacyBundleProcessing.class.getName(), null);
+		Assert.assertEquals(2, refs.length);
+		for (final ServiceReference<?> ref : refs) {
+			final Object service = bundleContext.getService(ref);
+			Assert.assertTrue(service instanceof LegacyBundleProcessing);
+			Assert.assertSame(service, bundleContext.getService(ref));
+		}
+	}
+
+	@Test
+	public void testUUID() throws Exception {
+		start();
+		final String uuid = bundleContext
+				.getProperty(Constants.FRAMEWORK_UUID);
+		Assert.assertNotNull(uuid);
+		Assert.assertEquals(uuid,
+				bundleContext.getProperty(Constants.FRAMEWORK_UUID));
+		stopFramework();
+
+		start();
+		Assert.assertFalse(uuid.equals(
+				bundleContext.getProperty(Constants.FRAMEWORK_UUID)));
+	}
+
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.eclipse.concierge.BundleImpl.Revision;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.eclipse.concierge.test.util.SyntheticBundleBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.hooks.resolver.ResolverHook;
+import org.osgi.framework.hooks.resolver.ResolverHookFactory;
+import org.osgi.framework.wiring.BundleCapability;
+import org.osgi.framework.wiring.BundleRequirement;
+import org.osgi.framework.wiring.BundleRevision;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+/**
+ * Tests that bundles which failed to resolve are only tried again when new
+ * capabilities become available.
+ */
+public class IncrementalResolveTest extends AbstractConciergeTestCase {
+
+	private FrameworkWiring frameworkWiring;
+
+	@Before
+	public void setUp() throws Exception {
+		startFramework();
+		frameworkWiring = framework.adapt(FrameworkWiring.class);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private Revision revision(final Bundle bundle) {
+		return (Revision) bundle.adapt(BundleRevision.class);
+	}
+
+	@Test
+	public void testResolveWhenProviderIsInstalled() throws Exception {
+		final Bundle importer = install("importer", "Import-Package", "p");
+		Assert.assertFalse(frameworkWiring
+				.resolveBundles(Collections.singleton(importer)));
+		assertBundleInstalled(importer);
+		Assert.assertNotNull(revision(importer).unresolvedRequirements);
+		final long generation = revision(importer).unresolvedGeneration;
+
+		// an unrelated export does not trigger another attempt
+		install("unrelated", "Export-Package", "q");
+		Assert.assertFalse(frameworkWiring
+				.resolveBundles(Collections.singleton(importer)));
+		Assert.assertEquals(generation,
+				revision(importer).unresolvedGeneration);
+
+		final Bundle exporter = install("exporter", "Export-Package", "p");
+		Assert.assertTrue(
+				frameworkWiring.resolveBundles(Arrays.asList(importer)));
+		assertBundleResolved(importer);
+		assertBundleResolved(exporter);
+		Assert.assertNull(revision(importer).unresolvedRequirements);
+	}
+
+	@Test
+	public void testResolveWhenIndirectProviderIsInstalled()
+			throws Exception {
+		final Bundle importer = install("importer", "Import-Package", "p");
+		final Bundle middle = installBundle(SyntheticBundleBuilder
+				.newBuilder().bundleSymbolicName("middle")
+				.bundleVersion("1.0.0").addManifestHeader("Export-Package", "p")
+				.addManifestHeader("Import-Package", "q"));
+		Assert.assertFalse(frameworkWiring
+				.resolveBundles(Collections.singleton(importer)));
+		assertBundleInstalled(importer);
+		assertBundleInstalled(middle);
+
+		install("exporter", "Export-Package", "q");
+		Assert.assertTrue(frameworkWiring
+				.resolveBundles(Collections.singleton(importer)));
+		assertBundleResolved(importer);
+		assertBundleResolved(middle);
+	}
+
+	@Test
+	public void testResolveAllPendingBundles() throws Exception {
+		final Bundle a = install("a", "Require-Bundle", "b");
+		final Bundle b = install("b", "Require-Bundle", "c");
+		Assert.assertFalse(frameworkWiring.resolveBundles(null));
+		assertBundleInstalled(a);
+		assertBundleInstalled(b);
+
+		final Bundle c = install("c");
+		Assert.assertTrue(frameworkWiring.resolveBundles(null));
+		assertBundleResolved(a);
+		assertBundleResolved(b);
+		assertBundleResolved(c);
+	}
+
+	@Test
+	public void testResolveWhenResolverHookIsUnregistered()
+			throws Exception {
+		final ServiceRegistration<ResolverHookFactory> reg = bundleContext
+				.registerService(ResolverHookFactory.class,
+						new ResolverHookFactory() {
+							public ResolverHook begin(
+									final Collection<BundleRevision> triggers) {
+								return new ResolverHook() {
+									public void filterResolvable(
+											final Collection<BundleRevision> candidates) {
+									}
+
+									public void filterSingletonCollisions(
+											final BundleCapability singleton,
+											final Collection<BundleCapability> collisionCandidates) {
+									}
+
+									public void filterMatches(
+											final BundleRequirement requirement,
+											final Collection<BundleCapability> candidates) {
+										candidates.clear();
+									}
+
+									public void end() {
+									}
+								};
+							}
+						}, null);
+
+		final Bundle exporter = install("exporter", "Export-Package", "p");
+		final Bundle importer = install("importer", "Import-Package", "p");
+		Assert.assertFalse(frameworkWiring
+				.resolveBundles(Collections.singleton(importer)));
+		assertBundleInstalled(importer);
+		Assert.assertNull(revision(importer).unresolvedRequirements);
+
+		// no capability has changed but the hook is gone
+		reg.unregister();
+		Assert.assertTrue(frameworkWiring
+				.resolveBundles(Collections.singleton(importer)));
+		assertBundleResolved(importer);
+		assertBundleResolved(exporter);
+	}
+
+	@Test
+	public void testResolveWhenCapabilityIsRemoved() throws Exception {
+		final Bundle importer = install("importer", "Import-Package", "p");
+		Assert.assertFalse(frameworkWiring
+				.resolveBundles(Collections.singleton(importer)));
+		final long generation = revision(importer).unresolvedGeneration;
+
+		final Bundle exporter = install("exporter", "Export-Package", "p");
+		Assert.assertTrue(((Concierge) framework).capabilityRegistry.changedSince(
+				"osgi.wiring.package", "p", generation));
+		final long installed = ((Concierge) framework).capabilityRegistry.getGeneration();
+		exporter.uninstall();
+		Assert.assertTrue(((Concierge) framework).capabilityRegistry.changedSince(
+				"osgi.wiring.package", "p", installed));
+	}
+
+}
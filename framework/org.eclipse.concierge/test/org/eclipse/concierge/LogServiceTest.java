@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.concierge.service.log.LogFileSink;
+import org.eclipse.concierge.service.log.LogServiceImpl;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.launch.Framework;
+import org.osgi.service.log.LogEntry;
+import org.osgi.service.log.LogListener;
+import org.osgi.service.log.LogReaderService;
+import org.osgi.service.log.LogService;
+
+/**
+ * Tests the framework log service.
+ */
+public class LogServiceTest extends AbstractConciergeTestCase {
+
+	private LogService log;
+
+	private LogReaderService reader;
+
+	@Before
+	public void setUp() throws Exception {
+		startFrameworkClean(launchArgs(false));
+	}
+
+	private Map<String, String> launchArgs(final boolean file) {
+		final Map<String, String> launchArgs = new HashMap<String, String>();
+		launchArgs.put("org.eclipse.concierge.log.enabled", "true");
+		launchArgs.put("org.eclipse.concierge.log.quiet", "true");
+		launchArgs.put("org.eclipse.concierge.log.buffersize", "4");
+		launchArgs.put("org.eclipse.concierge.log.level", "4");
+		if (file) {
+			launchArgs.put("org.eclipse.concierge.log.file", "true");
+			launchArgs.put("org.eclipse.concierge.log.file.size", "1024");
+			launchArgs.put("org.eclipse.concierge.log.file.count", "2");
+		}
+		return launchArgs;
+	}
+
+	@Override
+	public void useFramework(final Framework frameworkToStart)
+			throws Exception {
+		super.useFramework(frameworkToStart);
+		log = bundleContext.getService(
+				bundleContext.getServiceReference(LogService.class));
+		reader = bundleContext.getService(
+				bundleContext.getServiceReference(LogReaderService.class));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private List<String> messages(final Enumeration<?> entries) {
+		final List<String> result = new ArrayList<String>();
+		for (final Object entry : Collections.list(entries)) {
+			final String message = ((LogEntry) entry).getMessage();
+			if (message.startsWith("test")) {
+				result.add(message);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testBufferKeepsLastEntries() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			log.log(LogService.LOG_INFO, "test" + i);
+		}
+		Assert.assertEquals(Arrays.asList("test6", "test7", "test8", "test9"),
+				messages(reader.getLog()));
+	}
+
+	@Test
+	public void testGetLogIsSnapshot() throws Exception {
+		log.log(LogService.LOG_INFO, "test0");
+		final Enumeration<?> snapshot = reader.getLog();
+		for (int i = 1; i < 10; i++) {
+			log.log(LogService.LOG_INFO, "test" + i);
+		}
+		Assert.assertEquals(Collections.singletonList("test0"),
+				messages(snapshot));
+	}
+
+	@Test
+	public void testListenerIsCalledAsynchronously() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(3);
+		final List<Thread> threads = new ArrayList<Thread>();
+		reader.addLogListener(new LogListener() {
+			public void logged(final LogEntry entry) {
+				if (entry.getMessage().startsWith("test")) {
+					threads.add(Thread.currentThread());
+					latch.countDown();
+				}
+			}
+		});
+		for (int i = 0; i < 3; i++) {
+			log.log(LogService.LOG_INFO, "test" + i);
+		}
+		Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Assert.assertNotSame(Thread.currentThread(), threads.get(0));
+	}
+
+	@Test
+	public void testLogIsReplayedAfterRestart() throws Exception {
+		stopFramework();
+		startFrameworkClean(launchArgs(true));
+		for (int i = 0; i < 100; i++) {
+			log.log(LogService.LOG_INFO, "test" + i + "\tx\ny");
+		}
+		stopFramework();
+
+		final File dir = new File(((Concierge) framework).STORAGE_LOCATION,
+				"log");
+		Assert.assertTrue(new File(dir, "log.1").exists());
+		Assert.assertFalse(new File(dir, "log.2").exists());
+
+		startFramework(launchArgs(true));
+		Assert.assertEquals(
+				Arrays.asList("test96\tx\ny", "test97\tx\ny",
+						"test98\tx\ny", "test99\tx\ny"),
+				messages(reader.getLog()));
+	}
+
+	@Test
+	public void testLargeEntryIsForcedAndRotated() throws Exception {
+		final File dir = new File(((Concierge) framework).STORAGE_LOCATION,
+				"largelog");
+		final LogServiceImpl impl = new LogServiceImpl(4, 4, true, 2,
+				LogServiceImpl.POLICY_DROP_OLDEST,
+				new LogFileSink(dir, 1024, 2));
+		final CountDownLatch logged = new CountDownLatch(1);
+		impl.addLogListener(new LogListener() {
+			public void logged(final LogEntry entry) {
+				logged.countDown();
+			}
+		});
+		final StringBuffer message = new StringBuffer();
+		for (int i = 0; i < 10000; i++) {
+			message.append('x');
+		}
+		impl.factory.getService(null, null).log(LogService.LOG_INFO,
+				message.toString());
+		Assert.assertTrue(logged.await(5, TimeUnit.SECONDS));
+		// larger than a group, written before it is delivered
+		Assert.assertTrue(new File(dir, "log.1").length() > 10000);
+		impl.close();
+	}
+
+	@Test
+	public void testFullQueueDropsOldestEntries() throws Exception {
+		final LogServiceImpl impl = new LogServiceImpl(4, 4, true, 2,
+				LogServiceImpl.POLICY_DROP_OLDEST, null);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<String> delivered = Collections
+				.synchronizedList(new ArrayList<String>());
+		impl.addLogListener(new LogListener() {
+			public void logged(final LogEntry entry) {
+				blocked.countDown();
+				try {
+					release.await();
+				} catch (final InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+				delivered.add(entry.getMessage());
+			}
+		});
+		final LogService service = impl.factory.getService(null, null);
+		service.log(LogService.LOG_INFO, "test0");
+		Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+		for (int i = 1; i < 10; i++) {
+			service.log(LogService.LOG_INFO, "test" + i);
+		}
+		release.countDown();
+		impl.close();
+		Assert.assertEquals(7, impl.getDroppedEntries());
+		Assert.assertEquals(Arrays.asList("test0", "test8", "test9"),
+				delivered);
+	}
+
+	@Test
+	public void testFullQueueBlocksLogger() throws Exception {
+		final LogServiceImpl impl = new LogServiceImpl(4, 4, true, 1,
+				LogServiceImpl.POLICY_BLOCK, null);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<String> delivered = Collections
+				.synchronizedList(new ArrayList<String>());
+		impl.addLogListener(new LogListener() {
+			public void logged(final LogEntry entry) {
+				try {
+					release.await();
+				} catch (final InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+				delivered.add(entry.getMessage());
+			}
+		});
+		final LogService service = impl.factory.getService(null, null);
+		final Thread logger = new Thread() {
+			public void run() {
+				for (int i = 0; i < 3; i++) {
+					service.log(LogService.LOG_INFO, "test" + i);
+				}
+			}
+		};
+		logger.start();
+		logger.join(200);
+		Assert.assertTrue(logger.isAlive());
+		release.countDown();
+		logger.join(5000);
+		Assert.assertFalse(logger.isAlive());
+		impl.close();
+		Assert.assertEquals(0, impl.getDroppedEntries());
+		Assert.assertEquals(Arrays.asList("test0", "test1", "test2"),
+				delivered);
+	}
+
+}
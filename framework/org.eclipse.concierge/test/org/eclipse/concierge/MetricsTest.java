@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.concierge.api.FrameworkMetrics;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.eclipse.concierge.test.util.SyntheticBundleBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * Tests the framework metrics.
+ */
+public class MetricsTest extends AbstractConciergeTestCase {
+
+	private FrameworkMetrics metrics;
+
+	@Before
+	public void setUp() throws Exception {
+		final Map<String, String> launchArgs = new HashMap<String, String>();
+		launchArgs.put("org.eclipse.concierge.metrics", "true");
+		startFrameworkClean(launchArgs);
+		metrics = bundleContext.getService(
+				bundleContext.getServiceReference(FrameworkMetrics.class));
+		metrics.reset();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	@Test
+	public void testCountsOperations() throws Exception {
+		final SyntheticBundleBuilder builder = SyntheticBundleBuilder
+				.newBuilder();
+		builder.bundleSymbolicName("MetricsTest.bundle").bundleVersion("1.0.0");
+		final Bundle bundle = installBundle(builder);
+		bundle.start();
+		bundle.stop();
+
+		bundleContext.addServiceListener(new ServiceListener() {
+			public void serviceChanged(final ServiceEvent event) {
+			}
+		});
+		final ServiceRegistration<Runnable> reg = bundleContext
+				.registerService(Runnable.class, new Runnable() {
+					public void run() {
+					}
+				}, null);
+		bundleContext.getServiceReferences(Runnable.class, null);
+		reg.unregister();
+
+		Assert.assertEquals(1, metrics.getCount(FrameworkMetrics.BUNDLE_INSTALLS));
+		Assert.assertEquals(1, metrics.getCount(FrameworkMetrics.BUNDLE_STARTS));
+		Assert.assertEquals(1, metrics.getCount(FrameworkMetrics.BUNDLE_STOPS));
+		Assert.assertEquals(1,
+				metrics.getCount(FrameworkMetrics.SERVICE_REGISTRATIONS));
+		Assert.assertEquals(1, metrics.getCount(FrameworkMetrics.SERVICE_LOOKUPS));
+		Assert.assertEquals(2, metrics.getCount(FrameworkMetrics.SERVICE_EVENTS));
+		Assert.assertTrue(metrics.getCount(FrameworkMetrics.RESOLVES) > 0);
+		Assert.assertTrue(metrics.getCount(FrameworkMetrics.STORAGE_WRITES) > 0);
+
+		final FrameworkMetrics.Latency resolves = metrics
+				.getLatency(FrameworkMetrics.RESOLVES);
+		Assert.assertEquals(metrics.getCount(FrameworkMetrics.RESOLVES),
+				resolves.getSamples());
+		Assert.assertTrue(resolves.getMax() > 0);
+		Assert.assertTrue(resolves.getPercentile(50) <= resolves.getMax());
+		Assert.assertNull(metrics.getLatency(FrameworkMetrics.SERVICE_LOOKUPS));
+
+		Assert.assertTrue(
+				metrics.export().contains(FrameworkMetrics.BUNDLE_STARTS + " 1\n"));
+	}
+
+	@Test
+	public void testCountsDefinedClasses() throws Exception {
+		final SyntheticBundleBuilder builder = SyntheticBundleBuilder
+				.newBuilder();
+		builder.bundleSymbolicName("MetricsTest.classes").bundleVersion("1.0.0")
+				.addFile("org/eclipse/concierge/MetricsTest$Loaded.class",
+						new File(Loaded.class
+								.getResource("MetricsTest$Loaded.class")
+								.toURI()));
+		final Bundle bundle = installBundle(builder);
+
+		try {
+			bundle.loadClass("org.eclipse.concierge.Missing");
+			Assert.fail("class should not be found");
+		} catch (final ClassNotFoundException cnfe) {
+			// expected
+		}
+		Assert.assertEquals(0, metrics.getCount(FrameworkMetrics.CLASS_LOADS));
+
+		final Class<?> clazz = bundle.loadClass(Loaded.class.getName());
+		Assert.assertNotSame(Loaded.class, clazz);
+		Assert.assertEquals(1, metrics.getCount(FrameworkMetrics.CLASS_LOADS));
+		Assert.assertEquals(1, metrics
+				.getLatency(FrameworkMetrics.CLASS_LOADS).getSamples());
+	}
+
+	@Test
+	public void testDisabledMetricsDoNotCount() throws Exception {
+		metrics.setEnabled(false);
+		bundleContext.getServiceReferences(Runnable.class, null);
+		Assert.assertEquals(0, metrics.getCount(FrameworkMetrics.SERVICE_LOOKUPS));
+
+		metrics.setEnabled(true);
+		bundleContext.getServiceReferences(Runnable.class, null);
+		Assert.assertEquals(1, metrics.getCount(FrameworkMetrics.SERVICE_LOOKUPS));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownMetric() throws Exception {
+		metrics.getCount("unknown");
+	}
+
+	/**
+	 * defined again by a bundle class loader.
+	 */
+	public static class Loaded {
+	}
+
+}
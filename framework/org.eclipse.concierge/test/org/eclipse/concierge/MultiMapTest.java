@@ -20,6 +20,7 @@ import java.util.List;
 import org.eclipse.concierge.ConciergeCollections.MultiMap;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 
 public class MultiMapTest {
@@ -76,4 +77,72 @@ public class MultiMapTest {
 		assertEquals("one", val3.get(0));
 	}
 
+	@Test
+	public void testRemove() {
+		map.insert("1", "one");
+		map.insert("2", "one");
+		map.insert("1", "two");
+		map.insert("3", "three");
+
+		map.remove("1", "one");
+		assertEquals(3, map.getAllValues().size());
+		assertTrue(map.containsValue("one"));
+
+		map.removeAll(new String[] { "2" }, "one");
+		assertFalse(map.containsValue("one"));
+		assertEquals(2, map.getAllValues().size());
+
+		map.remove("1");
+		assertFalse(map.containsValue("two"));
+		assertEquals(1, map.getAllValues().size());
+		assertEquals("three", map.getAllValues().get(0));
+
+		map.keySet().remove("3");
+		assertTrue(map.getAllValues().isEmpty());
+	}
+
+	@Test
+	public void testGetAllValuesIsSnapshot() {
+		map.insert("1", "one");
+		final List<String> values = map.getAllValues();
+		assertSame(values, map.getAllValues());
+
+		map.insert("1", "two");
+		assertEquals(1, values.size());
+		assertEquals(2, map.getAllValues().size());
+
+		map.remove("1", "one");
+		assertEquals(1, values.size());
+		assertEquals("two", map.getAllValues().get(0));
+	}
+
+	@Test
+	@Ignore("Move to performance tests")
+	public void testPerformance() {
+		final int n = 10000;
+		final String[] keys = { "a", "b", "c", "d" };
+
+		for (int round = 0; round < 3; round++) {
+			final long time = System.nanoTime();
+			for (int i = 0; i < n; i++) {
+				map.insert(keys[i % keys.length], "value" + i);
+			}
+			final long time1 = System.nanoTime();
+
+			// every removal is followed by a lookup of all values
+			int size = 0;
+			for (int i = 0; i < n; i++) {
+				map.remove(keys[i % keys.length], "value" + i);
+				size += map.getAllValues().size();
+			}
+			final long time2 = System.nanoTime();
+
+			assertTrue(map.getAllValues().isEmpty());
+
+			System.out.println("insert: " + (time1 - time) / 1000000
+					+ " ms, remove+getAllValues: " + (time2 - time1) / 1000000
+					+ " ms (" + size + ")");
+		}
+	}
+
 }
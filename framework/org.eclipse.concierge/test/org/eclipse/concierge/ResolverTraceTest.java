@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.concierge.api.ResolverMonitor;
+import org.eclipse.concierge.api.ResolverTrace;
+import org.eclipse.concierge.api.ResolverTrace.RequirementTrace;
+import org.eclipse.concierge.api.ResolverTraceListener;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.namespace.PackageNamespace;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+/**
+ * Tests the resolver trace facility.
+ */
+public class ResolverTraceTest extends AbstractConciergeTestCase {
+
+	private ResolverMonitor monitor;
+
+	@Before
+	public void setUp() throws Exception {
+		startFramework();
+		monitor = framework.adapt(ResolverMonitor.class);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private boolean resolve(final Bundle bundle) {
+		return framework.adapt(FrameworkWiring.class)
+				.resolveBundles(Collections.singleton(bundle));
+	}
+
+	@Test
+	public void testMonitorIsRegistered() throws Exception {
+		final ServiceReference<ResolverMonitor> ref = framework
+				.getBundleContext().getServiceReference(ResolverMonitor.class);
+		Assert.assertNotNull(ref);
+		Assert.assertSame(monitor,
+				framework.getBundleContext().getService(ref));
+	}
+
+	@Test
+	public void testTraceDisabledByDefault() throws Exception {
+		Assert.assertFalse(monitor.isEnabled());
+		install("exporter", "Export-Package", "p");
+		final Bundle importer = install("importer", "Import-Package", "p");
+		Assert.assertTrue(resolve(importer));
+		Assert.assertTrue(monitor.getTraces().isEmpty());
+	}
+
+	@Test
+	public void testTrace() throws Exception {
+		final List<ResolverTrace> notified = new ArrayList<ResolverTrace>();
+		monitor.addListener(new ResolverTraceListener() {
+			public void resolved(final ResolverTrace trace) {
+				notified.add(trace);
+			}
+		});
+		monitor.setEnabled(true);
+
+		install("exporter1", "Export-Package", "p;version=1.0");
+		install("exporter2", "Export-Package", "p;version=2.0");
+		final Bundle importer = install("importer", "Import-Package",
+				"p;version=\"[1.0,3.0)\"");
+		Assert.assertTrue(resolve(importer));
+
+		final List<ResolverTrace> traces = monitor.getTraces();
+		Assert.assertEquals(1, traces.size());
+		Assert.assertEquals(traces, notified);
+
+		final ResolverTrace trace = traces.get(0);
+		Assert.assertTrue(trace.isSuccessful());
+		Assert.assertTrue(trace.getDuration() > 0);
+		Assert.assertTrue(trace.getInvocations(ResolverTrace.FIND_PROVIDERS) > 0);
+		Assert.assertTrue(
+				trace.getInvocations(ResolverTrace.FILTER_WITH_INDEX) > 0);
+
+		RequirementTrace pkg = null;
+		for (final RequirementTrace req : trace.getRequirements()) {
+			if (PackageNamespace.PACKAGE_NAMESPACE
+					.equals(req.getRequirement().getNamespace())) {
+				pkg = req;
+			}
+		}
+		Assert.assertNotNull(pkg);
+		Assert.assertEquals(2, pkg.getCandidates());
+
+		final Bundle missing = install("missing", "Import-Package", "q");
+		Assert.assertFalse(resolve(missing));
+		Assert.assertEquals(2, monitor.getTraces().size());
+		Assert.assertFalse(monitor.getTraces().get(1).isSuccessful());
+
+		monitor.clear();
+		Assert.assertTrue(monitor.getTraces().isEmpty());
+	}
+
+}
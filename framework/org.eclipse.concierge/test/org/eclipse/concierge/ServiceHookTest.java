@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceFactory;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.hooks.service.FindHook;
+
+/**
+ * Tests the service hooks.
+ */
+public class ServiceHookTest extends AbstractConciergeTestCase {
+
+	@Before
+	public void setUp() throws Exception {
+		startFramework();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private ServiceRegistration<?> registerFindHook(final String name,
+			final int ranking, final List<String> calls,
+			final AtomicInteger gets, final AtomicInteger ungets) {
+		final Dictionary<String, Object> props = new Hashtable<String, Object>();
+		props.put(Constants.SERVICE_RANKING, new Integer(ranking));
+		return bundleContext.registerService(FindHook.class.getName(),
+				new ServiceFactory<FindHook>() {
+					public FindHook getService(final Bundle bundle,
+							final ServiceRegistration<FindHook> registration) {
+						gets.incrementAndGet();
+						return new FindHook() {
+							public void find(final BundleContext context,
+									final String name2, final String filter,
+									final boolean allServices,
+									final Collection<ServiceReference<?>> references) {
+								if (Runnable.class.getName().equals(name2)) {
+									calls.add(name);
+								}
+							}
+						};
+					}
+
+					public void ungetService(final Bundle bundle,
+							final ServiceRegistration<FindHook> registration,
+							final FindHook service) {
+						ungets.incrementAndGet();
+					}
+				}, props);
+	}
+
+	@Test
+	public void testHookServiceIsKept() throws Exception {
+		final List<String> calls = new ArrayList<String>();
+		final AtomicInteger gets = new AtomicInteger();
+		final AtomicInteger ungets = new AtomicInteger();
+		final ServiceRegistration<?> reg = registerFindHook("a", 0, calls,
+				gets, ungets);
+
+		for (int i = 0; i < 10; i++) {
+			bundleContext.getServiceReferences(Runnable.class.getName(), null);
+		}
+		Assert.assertEquals(10, calls.size());
+		Assert.assertEquals(1, gets.get());
+		Assert.assertEquals(0, ungets.get());
+
+		reg.unregister();
+		Assert.assertEquals(1, ungets.get());
+		bundleContext.getServiceReferences(Runnable.class.getName(), null);
+		Assert.assertEquals(10, calls.size());
+	}
+
+	@Test
+	public void testHooksFollowRanking() throws Exception {
+		final List<String> calls = new ArrayList<String>();
+		final AtomicInteger gets = new AtomicInteger();
+		final AtomicInteger ungets = new AtomicInteger();
+		registerFindHook("a", 1, calls, gets, ungets);
+		final ServiceRegistration<?> b = registerFindHook("b", 0, calls, gets,
+				ungets);
+
+		bundleContext.getServiceReferences(Runnable.class.getName(), null);
+		Assert.assertEquals("[a, b]", calls.toString());
+
+		final Dictionary<String, Object> props = new Hashtable<String, Object>();
+		props.put(Constants.SERVICE_RANKING, new Integer(2));
+		b.setProperties(props);
+		calls.clear();
+		bundleContext.getServiceReferences(Runnable.class.getName(), null);
+		Assert.assertEquals("[b, a]", calls.toString());
+		Assert.assertEquals(2, gets.get());
+		Assert.assertEquals(0, ungets.get());
+	}
+
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.eclipse.concierge.test.util.SyntheticBundleBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceFactory;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * Tests the use counting of services.
+ */
+public class ServiceUseCountTest extends AbstractConciergeTestCase {
+
+	private Bundle consumerBundle;
+
+	private BundleContext consumer;
+
+	@Before
+	public void setUp() throws Exception {
+		startFramework();
+		final SyntheticBundleBuilder builder = SyntheticBundleBuilder
+				.newBuilder();
+		builder.bundleSymbolicName("ServiceUseCountTest.consumer")
+				.bundleVersion("1.0.0");
+		consumerBundle = installBundle(builder);
+		consumerBundle.start();
+		consumer = consumerBundle.getBundleContext();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	@Test
+	public void testConcurrentGetAndUnget() throws Exception {
+		final ServiceRegistration<Runnable> reg = bundleContext
+				.registerService(Runnable.class, new Runnable() {
+					public void run() {
+					}
+				}, null);
+		final ServiceReference<Runnable> ref = reg.getReference();
+
+		final int threads = 4;
+		final CountDownLatch done = new CountDownLatch(threads);
+		final AtomicInteger failures = new AtomicInteger();
+		for (int t = 0; t < threads; t++) {
+			new Thread() {
+				public void run() {
+					for (int i = 0; i < 10000; i++) {
+						if (consumer.getService(ref) == null
+								|| !consumer.ungetService(ref)) {
+							failures.incrementAndGet();
+						}
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+		done.await();
+
+		Assert.assertEquals(0, failures.get());
+		Assert.assertNull(ref.getUsingBundles());
+		Assert.assertFalse(consumer.ungetService(ref));
+	}
+
+	@Test
+	public void testFactoryIsCalledOncePerBundle() throws Exception {
+		final AtomicInteger gets = new AtomicInteger();
+		final AtomicInteger ungets = new AtomicInteger();
+		final ServiceRegistration<?> reg = bundleContext.registerService(
+				Runnable.class.getName(), new ServiceFactory<Runnable>() {
+					public Runnable getService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration) {
+						gets.incrementAndGet();
+						return new Runnable() {
+							public void run() {
+							}
+						};
+					}
+
+					public void ungetService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration,
+							final Runnable service) {
+						ungets.incrementAndGet();
+					}
+				}, null);
+		final ServiceReference<?> ref = reg.getReference();
+
+		final Object first = consumer.getService(ref);
+		Assert.assertSame(first, consumer.getService(ref));
+		Assert.assertNotSame(first, bundleContext.getService(ref));
+		Assert.assertEquals(2, gets.get());
+		Assert.assertEquals(2, ref.getUsingBundles().length);
+
+		Assert.assertTrue(consumer.ungetService(ref));
+		Assert.assertEquals(0, ungets.get());
+		Assert.assertTrue(consumer.ungetService(ref));
+		Assert.assertEquals(1, ungets.get());
+		Assert.assertFalse(consumer.ungetService(ref));
+		Assert.assertEquals(1, ref.getUsingBundles().length);
+	}
+
+	@Test
+	public void testServicesInUse() throws Exception {
+		final ServiceRegistration<Runnable> reg = bundleContext
+				.registerService(Runnable.class, new Runnable() {
+					public void run() {
+					}
+				}, null);
+		final ServiceReference<Runnable> ref = reg.getReference();
+		Assert.assertNull(consumerBundle.getServicesInUse());
+
+		consumer.getService(ref);
+		consumer.getService(ref);
+		Assert.assertArrayEquals(new Object[] { ref },
+				consumerBundle.getServicesInUse());
+		Assert.assertArrayEquals(new Object[] { consumerBundle },
+				ref.getUsingBundles());
+
+		consumer.ungetService(ref);
+		Assert.assertEquals(1, consumerBundle.getServicesInUse().length);
+		consumer.ungetService(ref);
+		Assert.assertNull(consumerBundle.getServicesInUse());
+		Assert.assertNull(ref.getUsingBundles());
+	}
+
+	@Test
+	public void testStopReleasesServices() throws Exception {
+		final AtomicInteger ungets = new AtomicInteger();
+		final ServiceRegistration<?> reg = bundleContext.registerService(
+				Runnable.class.getName(), new ServiceFactory<Runnable>() {
+					public Runnable getService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration) {
+						return new Runnable() {
+							public void run() {
+							}
+						};
+					}
+
+					public void ungetService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration,
+							final Runnable service) {
+						ungets.incrementAndGet();
+					}
+				}, null);
+		final ServiceReference<?> ref = reg.getReference();
+
+		consumer.getService(ref);
+		consumer.getService(ref);
+		consumerBundle.stop();
+
+		Assert.assertEquals(1, ungets.get());
+		Assert.assertNull(ref.getUsingBundles());
+		Assert.assertNull(consumerBundle.getServicesInUse());
+	}
+
+	@Test
+	public void testUnregisterReleasesServices() throws Exception {
+		final AtomicInteger ungets = new AtomicInteger();
+		final ServiceRegistration<?> reg = bundleContext.registerService(
+				Runnable.class.getName(), new ServiceFactory<Runnable>() {
+					public Runnable getService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration) {
+						return new Runnable() {
+							public void run() {
+							}
+						};
+					}
+
+					public void ungetService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration,
+							final Runnable service) {
+						ungets.incrementAndGet();
+					}
+				}, null);
+		final ServiceReference<?> ref = reg.getReference();
+
+		consumer.getService(ref);
+		reg.unregister();
+
+		Assert.assertEquals(1, ungets.get());
+		Assert.assertNull(ref.getUsingBundles());
+		Assert.assertNull(consumerBundle.getServicesInUse());
+	}
+
+	@Test
+	public void testPooledFactoryReusesServices() throws Exception {
+		final AtomicInteger gets = new AtomicInteger();
+		final List<Bundle> ungets = new ArrayList<Bundle>();
+		final Dictionary<String, Object> props = new Hashtable<String, Object>();
+		props.put("org.eclipse.concierge.service.pool.size", new Integer(1));
+		final ServiceRegistration<?> reg = bundleContext.registerService(
+				Runnable.class.getName(), new ServiceFactory<Runnable>() {
+					public Runnable getService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration) {
+						gets.incrementAndGet();
+						return new Runnable() {
+							public void run() {
+							}
+						};
+					}
+
+					public void ungetService(final Bundle bundle,
+							final ServiceRegistration<Runnable> registration,
+							final Runnable service) {
+						ungets.add(bundle);
+					}
+				}, props);
+		final ServiceReference<?> ref = reg.getReference();
+
+		final Object first = consumer.getService(ref);
+		consumer.ungetService(ref);
+		Assert.assertSame(first, consumer.getService(ref));
+		consumer.ungetService(ref);
+		Assert.assertEquals(1, gets.get());
+		Assert.assertTrue(ungets.isEmpty());
+
+		// the idle service object is not handed out to another bundle
+		final Object second = bundleContext.getService(ref);
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals(2, gets.get());
+
+		// the pool holds one idle service object, the second is released
+		bundleContext.ungetService(ref);
+		Assert.assertEquals(1, ungets.size());
+		Assert.assertSame(bundleContext.getBundle(), ungets.get(0));
+
+		reg.unregister();
+		Assert.assertEquals(2, ungets.size());
+		Assert.assertSame(consumerBundle, ungets.get(1));
+	}
+
+}
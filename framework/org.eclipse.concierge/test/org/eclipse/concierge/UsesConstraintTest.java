@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.concierge.Resources.BundleCapabilityImpl;
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.namespace.PackageNamespace;
+import org.osgi.framework.wiring.BundleRevision;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+/**
+ * Tests that uses constraints are honored and that the cached uses closure of
+ * a capability is reused while the wirings it depends on are unchanged.
+ */
+public class UsesConstraintTest extends AbstractConciergeTestCase {
+
+	private FrameworkWiring frameworkWiring;
+
+	@Before
+	public void setUp() throws Exception {
+		startFramework();
+		frameworkWiring = framework.adapt(FrameworkWiring.class);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private Bundle getProvider(final Bundle bundle, final String pkg) {
+		final List<BundleWire> wires = bundle.adapt(BundleWiring.class)
+				.getRequiredWires(PackageNamespace.PACKAGE_NAMESPACE);
+		for (final BundleWire wire : wires) {
+			if (pkg.equals(wire.getCapability().getAttributes()
+					.get(PackageNamespace.PACKAGE_NAMESPACE))) {
+				return wire.getProvider().getBundle();
+			}
+		}
+		return null;
+	}
+
+	private BundleCapabilityImpl getExport(final Bundle bundle) {
+		return (BundleCapabilityImpl) bundle.adapt(BundleRevision.class)
+				.getDeclaredCapabilities(PackageNamespace.PACKAGE_NAMESPACE)
+				.get(0);
+	}
+
+	private void resolve(final Bundle bundle) {
+		Assert.assertTrue(frameworkWiring
+				.resolveBundles(Collections.singleton(bundle)));
+	}
+
+	@Test
+	public void testUsesConstraintIsCached() throws Exception {
+		final Bundle q1 = install("q1", "Export-Package", "q;version=1.0");
+		final Bundle a = install("a", "Export-Package", "p;uses:=q",
+				"Import-Package", "q");
+		resolve(a);
+		Assert.assertEquals(q1, getProvider(a, "q"));
+
+		install("q2", "Export-Package", "q;version=2.0");
+
+		final Bundle c1 = install("c1", "Import-Package", "p,q");
+		resolve(c1);
+		Assert.assertEquals(a, getProvider(c1, "p"));
+		Assert.assertEquals(q1, getProvider(c1, "q"));
+
+		final Concierge.UsesClosure closure = getExport(a).usesClosure;
+		Assert.assertNotNull(closure);
+		Assert.assertTrue(closure.isValid());
+
+		final Bundle c2 = install("c2", "Import-Package", "p,q");
+		resolve(c2);
+		Assert.assertEquals(q1, getProvider(c2, "q"));
+		Assert.assertSame(closure, getExport(a).usesClosure);
+	}
+
+	@Test
+	public void testUsesClosureIsInvalidatedByRefresh() throws Exception {
+		install("q1", "Export-Package", "q;version=1.0");
+		final Bundle a = install("a", "Export-Package", "p;uses:=q",
+				"Import-Package", "q");
+		resolve(a);
+		final Bundle c1 = install("c1", "Import-Package", "p,q");
+		resolve(c1);
+
+		// computed from the wiring of a
+		final Concierge.UsesClosure closure = getExport(a).usesClosure;
+		Assert.assertNotNull(closure);
+		Assert.assertTrue(closure.isValid());
+
+		final Bundle q2 = install("q2", "Export-Package", "q;version=2.0");
+		resolve(q2);
+		a.uninstall();
+		// the refresh is asynchronous
+		final CountDownLatch refreshed = new CountDownLatch(1);
+		frameworkWiring.refreshBundles(null, new FrameworkListener() {
+			public void frameworkEvent(final FrameworkEvent event) {
+				refreshed.countDown();
+			}
+		});
+		Assert.assertTrue(refreshed.await(10, TimeUnit.SECONDS));
+		Assert.assertFalse(closure.isValid());
+
+		final Bundle a2 = install("a2", "Export-Package", "p;uses:=q",
+				"Import-Package", "q");
+		final Bundle c2 = install("c2", "Import-Package", "p,q");
+		resolve(c2);
+		Assert.assertEquals(a2, getProvider(c2, "p"));
+		Assert.assertEquals(getProvider(a2, "q"), getProvider(c2, "q"));
+	}
+
+}
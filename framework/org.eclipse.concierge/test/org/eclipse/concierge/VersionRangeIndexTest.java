@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.concierge.test.util.AbstractConciergeTestCase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.namespace.PackageNamespace;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+/**
+ * Tests that imports with version ranges are wired to the preferred provider
+ * when many versions of a package are exported.
+ */
+public class VersionRangeIndexTest extends AbstractConciergeTestCase {
+
+	private static final String[] VERSIONS = { "2.5.0", "1.0.0", "3.0.0",
+			"2.0.0", "2.0.0", "1.5.0" };
+
+	private Bundle[] exporters;
+
+	@Before
+	public void setUp() throws Exception {
+		startFramework();
+		exporters = new Bundle[VERSIONS.length];
+		for (int i = 0; i < VERSIONS.length; i++) {
+			exporters[i] = install("exporter" + i, "Export-Package",
+					"p;version=" + VERSIONS[i]);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		stopFramework();
+	}
+
+	private Bundle importer(final String name, final String range)
+			throws Exception {
+		final Bundle importer = install(name, "Import-Package",
+				"p;version=\"" + range + "\"");
+		framework.adapt(FrameworkWiring.class)
+				.resolveBundles(Collections.singleton(importer));
+		return importer;
+	}
+
+	private Bundle getProvider(final Bundle importer) {
+		final BundleWiring wiring = importer.adapt(BundleWiring.class);
+		if (wiring == null) {
+			return null;
+		}
+		final List<BundleWire> wires = wiring
+				.getRequiredWires(PackageNamespace.PACKAGE_NAMESPACE);
+		return wires.isEmpty() ? null : wires.get(0).getProvider().getBundle();
+	}
+
+	@Test
+	public void testHighestVersionInRange() throws Exception {
+		Assert.assertEquals(exporters[2], getProvider(importer("a", "1.0")));
+		Assert.assertEquals(exporters[0], getProvider(importer("b", "[2.0,3.0)")));
+		Assert.assertEquals(exporters[2], getProvider(importer("c", "[2.0,3.0]")));
+		Assert.assertEquals(exporters[5], getProvider(importer("d", "(1.0,2.0)")));
+		Assert.assertEquals(exporters[1], getProvider(importer("e", "[1.0,1.0]")));
+	}
+
+	@Test
+	public void testEqualVersionsPreferLowerBundleId() throws Exception {
+		Assert.assertEquals(exporters[3], getProvider(importer("a", "[2.0,2.0]")));
+	}
+
+	@Test
+	public void testResolvedProviderIsPreferred() throws Exception {
+		Assert.assertEquals(exporters[5], getProvider(importer("a", "[1.5,1.5]")));
+		Assert.assertEquals(exporters[5], getProvider(importer("b", "[1.5,3.0)")));
+	}
+
+	@Test
+	public void testNoVersionInRange() throws Exception {
+		final Bundle importer = importer("a", "(3.0,4.0)");
+		assertBundleInstalled(importer);
+		Assert.assertNull(getProvider(importer));
+	}
+
+}
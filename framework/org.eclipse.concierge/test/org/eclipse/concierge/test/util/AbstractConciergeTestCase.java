@@ -337,6 +337,24 @@ public abstract class AbstractConciergeTestCase {
 		return b;
 	}
 
+	/**
+	 * Install a "pseudo" bundle with version 1.0.0 and the given manifest
+	 * headers, as pairs of name and value. Headers with a <code>null</code>
+	 * name or value are skipped.
+	 */
+	protected Bundle install(final String bsn, final String... headers)
+			throws BundleException {
+		final SyntheticBundleBuilder builder = SyntheticBundleBuilder
+				.newBuilder();
+		builder.bundleSymbolicName(bsn).bundleVersion("1.0.0");
+		for (int i = 0; i + 1 < headers.length; i += 2) {
+			if (headers[i] != null && headers[i + 1] != null) {
+				builder.addManifestHeader(headers[i], headers[i + 1]);
+			}
+		}
+		return installBundle(builder);
+	}
+
 	/** Get bundle with given symbolic name from a list of bundles. */
 	protected Bundle getBundleForBSN(Bundle[] bundles, String bsn) {
 		for (int i = 0; i < bundles.length; i++) {
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.eclipse.concierge.benchmark.payload.Payload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.Constants;
+
+/**
+ * Measures loading the payload classes through the class loader of a fresh
+ * bundle revision. The classes are stored in the bundle jar, in the exploded
+ * bundle content, or in a jar embedded into the bundle.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+public class ClassLoadingBenchmark extends FrameworkBenchmark {
+
+	private static final String EMBEDDED_JAR = "lib/payload.jar";
+
+	@Param({ "jar", "exploded", "embedded" })
+	public String layout;
+
+	private final List<String> classes = new ArrayList<String>();
+
+	private byte[] content;
+
+	private Bundle bundle;
+
+	@Override
+	protected Map<String, String> properties() {
+		final Map<String, String> properties = super.properties();
+		if ("exploded".equals(layout)) {
+			properties.put("org.eclipse.concierge.alwaysDecompress", "true");
+		}
+		return properties;
+	}
+
+	@Override
+	protected void prepare() throws Exception {
+		classes.add(Payload.class.getName());
+		for (final Class<?> clazz : Payload.class.getDeclaredClasses()) {
+			classes.add(clazz.getName());
+		}
+
+		final Manifest mf = new Manifest();
+		final Attributes attrs = mf.getMainAttributes();
+		attrs.put(Attributes.Name.MANIFEST_VERSION, "1");
+		attrs.putValue(Constants.BUNDLE_MANIFESTVERSION, "2");
+		attrs.putValue(Constants.BUNDLE_SYMBOLICNAME, "payload");
+		if ("embedded".equals(layout)) {
+			attrs.putValue(Constants.BUNDLE_CLASSPATH, EMBEDDED_JAR);
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final JarOutputStream jar = new JarOutputStream(out, mf);
+			jar.putNextEntry(new JarEntry(EMBEDDED_JAR));
+			jar.write(jar(null));
+			jar.closeEntry();
+			jar.close();
+			content = out.toByteArray();
+		} else {
+			content = jar(mf);
+		}
+	}
+
+	private byte[] jar(final Manifest mf) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final JarOutputStream jar = mf == null ? new JarOutputStream(out)
+				: new JarOutputStream(out, mf);
+		final byte[] buffer = new byte[4096];
+		for (final String clazz : classes) {
+			final String file = clazz.replace('.', '/') + ".class";
+			jar.putNextEntry(new JarEntry(file));
+			final InputStream in = Payload.class.getClassLoader()
+					.getResourceAsStream(file);
+			int len;
+			while ((len = in.read(buffer)) > 0) {
+				jar.write(buffer, 0, len);
+			}
+			in.close();
+			jar.closeEntry();
+		}
+		jar.close();
+		return out.toByteArray();
+	}
+
+	@Setup(Level.Iteration)
+	public void install() throws Exception {
+		bundle = context.installBundle("payload",
+				new ByteArrayInputStream(content));
+		bundle.start();
+	}
+
+	@Benchmark
+	public void loadClasses(final Blackhole blackhole) throws Exception {
+		for (final String clazz : classes) {
+			blackhole.consume(bundle.loadClass(clazz));
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void uninstall() throws Exception {
+		bundle.uninstall();
+	}
+
+}
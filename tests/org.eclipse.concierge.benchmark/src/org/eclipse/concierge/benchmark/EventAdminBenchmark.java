@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.concierge.service.eventadmin.EventAdminActivator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Measures the throughput of the EventAdmin with a given number of handlers.
+ * The EventAdmin is started on the system bundle, posted events are counted
+ * as delivered when the first handler has received them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventAdminBenchmark extends FrameworkBenchmark {
+
+	private static final int BATCH = 1000;
+
+	private static final String TOPIC = "org/eclipse/concierge/benchmark/EVENT";
+
+	@Param({ "1", "10" })
+	public int handlers;
+
+	private final EventAdminActivator activator = new EventAdminActivator();
+
+	private EventAdmin eventAdmin;
+
+	private Event event;
+
+	private final AtomicLong delivered = new AtomicLong();
+
+	private long posted;
+
+	@Override
+	protected void prepare() throws Exception {
+		activator.start(context);
+		eventAdmin = context
+				.getService(context.getServiceReference(EventAdmin.class));
+
+		for (int i = 0; i < handlers; i++) {
+			final boolean first = i == 0;
+			final Dictionary<String, Object> props = new Hashtable<String, Object>();
+			props.put(EventConstants.EVENT_TOPIC,
+					"org/eclipse/concierge/benchmark/*");
+			context.registerService(EventHandler.class, new EventHandler() {
+				public void handleEvent(final Event event) {
+					if (first) {
+						delivered.incrementAndGet();
+					}
+				}
+			}, props);
+		}
+
+		final Map<String, Object> props = new HashMap<String, Object>();
+		props.put("key", "value");
+		event = new Event(TOPIC, props);
+	}
+
+	@Override
+	protected void finish() throws Exception {
+		activator.stop(context);
+	}
+
+	@Benchmark
+	public void sendEvent() {
+		eventAdmin.sendEvent(event);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void postEvents() {
+		for (int i = 0; i < BATCH; i++) {
+			eventAdmin.postEvent(event);
+		}
+		posted += BATCH;
+		while (delivered.get() < posted) {
+			LockSupport.parkNanos(1000);
+		}
+	}
+
+}
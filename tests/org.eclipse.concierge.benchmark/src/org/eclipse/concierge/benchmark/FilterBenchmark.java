@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.osgi.framework.Constants;
+import org.osgi.framework.Filter;
+import org.osgi.framework.InvalidSyntaxException;
+
+/**
+ * Measures parsing filters and matching them against service properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FilterBenchmark extends FrameworkBenchmark {
+
+	@Param({ "(objectClass=java.lang.Runnable)",
+			"(&(objectClass=java.lang.Runnable)(service.ranking>=10)(|(name=foo*)(name=*bar)))" })
+	public String filter;
+
+	private Filter parsed;
+
+	private Dictionary<String, Object> properties;
+
+	@Override
+	protected void prepare() throws Exception {
+		parsed = context.createFilter(filter);
+		properties = new Hashtable<String, Object>();
+		properties.put(Constants.OBJECTCLASS,
+				new String[] { Runnable.class.getName() });
+		properties.put(Constants.SERVICE_RANKING, Integer.valueOf(20));
+		properties.put("name", "foobar");
+	}
+
+	@Benchmark
+	public Filter parse() throws InvalidSyntaxException {
+		return context.createFilter(filter);
+	}
+
+	@Benchmark
+	public boolean match() {
+		return parsed.match(properties);
+	}
+
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.concierge.Factory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.launch.Framework;
+
+/**
+ * Base of the benchmarks that run against a framework. The framework is
+ * launched in-process with a fresh storage once per trial.
+ */
+@State(Scope.Benchmark)
+public abstract class FrameworkBenchmark {
+
+	protected Framework framework;
+
+	protected BundleContext context;
+
+	private File storage;
+
+	@Setup(Level.Trial)
+	public void startFramework() throws Exception {
+		storage = createStorage();
+		framework = launch(storage, true, properties());
+		context = framework.getBundleContext();
+		prepare();
+	}
+
+	@TearDown(Level.Trial)
+	public void stopFramework() throws Exception {
+		try {
+			finish();
+		} finally {
+			stop(framework);
+			delete(storage);
+		}
+	}
+
+	/**
+	 * get the launch properties of the framework.
+	 * 
+	 * @return the properties.
+	 */
+	protected Map<String, String> properties() {
+		return new HashMap<String, String>();
+	}
+
+	/**
+	 * prepare the benchmark after the framework has been started.
+	 */
+	protected void prepare() throws Exception {
+	}
+
+	/**
+	 * clean up before the framework is stopped.
+	 */
+	protected void finish() throws Exception {
+	}
+
+	static File createStorage() throws IOException {
+		final File storage = File.createTempFile("concierge", "");
+		storage.delete();
+		storage.mkdirs();
+		return storage;
+	}
+
+	static Framework launch(final File storage, final boolean clean,
+			final Map<String, String> properties) throws Exception {
+		final Map<String, String> launchArgs = new HashMap<String, String>(
+				properties);
+		launchArgs.put(Constants.FRAMEWORK_STORAGE, storage.getAbsolutePath());
+		if (clean) {
+			launchArgs.put(Constants.FRAMEWORK_STORAGE_CLEAN,
+					Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+		}
+		final Framework framework = new Factory().newFramework(launchArgs);
+		framework.init();
+		framework.start();
+		return framework;
+	}
+
+	static void stop(final Framework framework) throws Exception {
+		if (framework != null) {
+			framework.stop();
+			framework.waitForStop(0);
+		}
+	}
+
+	static void delete(final File file) {
+		if (file == null) {
+			return;
+		}
+		final File[] files = file.listFiles();
+		if (files != null) {
+			for (final File child : files) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Measures the overhead of the framework metrics on the instrumented service
+ * registry paths, with the metrics disabled and enabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark extends FrameworkBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean metrics;
+
+	private final Runnable service = new Runnable() {
+		public void run() {
+		}
+	};
+
+	private ServiceReference<?> reference;
+
+	@Override
+	protected Map<String, String> properties() {
+		final Map<String, String> properties = super.properties();
+		properties.put("org.eclipse.concierge.metrics",
+				String.valueOf(metrics));
+		return properties;
+	}
+
+	@Override
+	protected void prepare() throws Exception {
+		context.addServiceListener(new ServiceListener() {
+			public void serviceChanged(final ServiceEvent event) {
+			}
+		});
+		reference = context.registerService(Runnable.class, service, null)
+				.getReference();
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] lookup() throws InvalidSyntaxException {
+		return context.getServiceReferences(Runnable.class.getName(), null);
+	}
+
+	@Benchmark
+	public void registerUnregister() {
+		context.registerService(Runnable.class, service, null).unregister();
+	}
+
+	@Benchmark
+	public boolean getUngetService() {
+		context.getService(reference);
+		return context.ungetService(reference);
+	}
+
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.concierge.stresstest.ResolverStressTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+/**
+ * Measures resolving the generated topologies of the ResolverStressTest. Every
+ * iteration installs a new topology, resolves it once, and uninstalls it
+ * again.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ResolveBenchmark extends FrameworkBenchmark {
+
+	@Param({ "100", "1000" })
+	public int bundles;
+
+	private FrameworkWiring wiring;
+
+	private int iteration;
+
+	private List<Bundle> topology;
+
+	@Override
+	protected void prepare() throws Exception {
+		wiring = framework.adapt(FrameworkWiring.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void install() throws Exception {
+		// the topology only depends on the sequence of calls
+		topology = Arrays.asList(new ResolverStressTest().installBundles(
+				context, "bench" + iteration++ + ".bundle", bundles));
+	}
+
+	@Benchmark
+	public boolean resolve() {
+		return wiring.resolveBundles(topology);
+	}
+
+	@TearDown(Level.Iteration)
+	public void uninstall() throws Exception {
+		for (final Bundle bundle : topology) {
+			bundle.uninstall();
+		}
+		final CountDownLatch latch = new CountDownLatch(1);
+		wiring.refreshBundles(topology, new FrameworkListener() {
+			public void frameworkEvent(final FrameworkEvent event) {
+				if (event.getType() == FrameworkEvent.PACKAGES_REFRESHED) {
+					latch.countDown();
+				}
+			}
+		});
+		latch.await();
+	}
+
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceRegistration;
+
+/**
+ * Measures the dispatch of service events to a given number of service
+ * listeners. Half of the listeners match the modified service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceEventBenchmark extends FrameworkBenchmark {
+
+	@Param({ "0", "1", "10", "100" })
+	public int listeners;
+
+	private ServiceRegistration<Runnable> registration;
+
+	private final Dictionary<String, Object> properties = new Hashtable<String, Object>();
+
+	private int modification;
+
+	volatile int events;
+
+	@Override
+	protected void prepare() throws Exception {
+		for (int i = 0; i < listeners; i++) {
+			// a listener object can only be added once
+			final ServiceListener listener = new ServiceListener() {
+				public void serviceChanged(final ServiceEvent event) {
+					events++;
+				}
+			};
+			context.addServiceListener(listener, i % 2 == 0
+					? "(objectClass=" + Runnable.class.getName() + ")"
+					: "(objectClass=java.lang.Object)");
+		}
+		registration = context.registerService(Runnable.class,
+				new Runnable() {
+					public void run() {
+					}
+				}, null);
+	}
+
+	@Benchmark
+	public void modify() {
+		properties.put("modification", Integer.valueOf(modification++));
+		registration.setProperties(properties);
+	}
+
+}
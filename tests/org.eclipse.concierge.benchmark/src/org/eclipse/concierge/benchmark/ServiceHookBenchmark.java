@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.hooks.service.EventListenerHook;
+import org.osgi.framework.hooks.service.FindHook;
+import org.osgi.framework.hooks.service.ListenerHook.ListenerInfo;
+
+/**
+ * Measures service lookups and service events with a given number of find
+ * hooks and event listener hooks registered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceHookBenchmark extends FrameworkBenchmark {
+
+	@Param({ "0", "1", "5" })
+	public int hooks;
+
+	private final Runnable service = new Runnable() {
+		public void run() {
+		}
+	};
+
+	@Override
+	protected void prepare() throws Exception {
+		for (int i = 0; i < hooks; i++) {
+			context.registerService(FindHook.class, new FindHook() {
+				public void find(final BundleContext context,
+						final String name, final String filter,
+						final boolean allServices,
+						final Collection<ServiceReference<?>> references) {
+				}
+			}, null);
+			context.registerService(EventListenerHook.class,
+					new EventListenerHook() {
+						public void event(final ServiceEvent event,
+								final Map<BundleContext, Collection<ListenerInfo>> listeners) {
+						}
+					}, null);
+		}
+		context.registerService(Runnable.class, service, null);
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] lookup() throws InvalidSyntaxException {
+		return context.getServiceReferences(Runnable.class.getName(), null);
+	}
+
+	@Benchmark
+	public void registerUnregister() {
+		context.registerService(Runnable.class, service, null).unregister();
+	}
+
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Measures registering, looking up, and getting services with a given number
+ * of services already registered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceRegistryBenchmark extends FrameworkBenchmark {
+
+	@Param({ "1", "100", "10000" })
+	public int services;
+
+	private final Runnable service = new Runnable() {
+		public void run() {
+		}
+	};
+
+	private String filter;
+
+	private ServiceReference<?> reference;
+
+	@Override
+	protected void prepare() throws Exception {
+		for (int i = 0; i < services; i++) {
+			final Dictionary<String, Object> props = new Hashtable<String, Object>();
+			props.put("index", Integer.valueOf(i));
+			context.registerService(Runnable.class, service, props);
+		}
+		filter = "(index=" + services / 2 + ")";
+		reference = context.getServiceReferences(Runnable.class.getName(),
+				filter)[0];
+	}
+
+	@Benchmark
+	public void registerUnregister() {
+		context.registerService(Runnable.class, service, null).unregister();
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] lookup() throws InvalidSyntaxException {
+		return context.getServiceReferences(Runnable.class.getName(), null);
+	}
+
+	@Benchmark
+	public ServiceReference<?>[] lookupFiltered()
+			throws InvalidSyntaxException {
+		return context.getServiceReferences(Runnable.class.getName(), filter);
+	}
+
+	@Benchmark
+	public boolean getUngetService() {
+		context.getService(reference);
+		return context.ungetService(reference);
+	}
+
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.concierge.stresstest.ResolverStressTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.launch.Framework;
+
+/**
+ * Measures launching the framework. A cold start begins with an empty
+ * storage, a warm start restores the bundles installed into the storage
+ * during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class StartupBenchmark {
+
+	@Param({ "cold", "warm" })
+	public String start;
+
+	@Param({ "100" })
+	public int bundles;
+
+	private File storage;
+
+	private Framework framework;
+
+	@Setup(Level.Trial)
+	public void createStorage() throws Exception {
+		storage = FrameworkBenchmark.createStorage();
+		if ("warm".equals(start)) {
+			final Framework framework = FrameworkBenchmark.launch(storage,
+					true, new HashMap<String, String>());
+			new ResolverStressTest().installBundles(
+					framework.getBundleContext(), "startup.bundle", bundles);
+			FrameworkBenchmark.stop(framework);
+		}
+	}
+
+	@Benchmark
+	public Framework launch() throws Exception {
+		framework = FrameworkBenchmark.launch(storage, "cold".equals(start),
+				new HashMap<String, String>());
+		return framework;
+	}
+
+	@TearDown(Level.Iteration)
+	public void stop() throws Exception {
+		FrameworkBenchmark.stop(framework);
+		framework = null;
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteStorage() {
+		FrameworkBenchmark.delete(storage);
+	}
+
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v1.0 which accompany this distribution.
+ * The Eclipse Public License is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *     Eclipse Concierge contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.concierge.benchmark.payload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The classes that the ClassLoadingBenchmark packs into a bundle and loads
+ * through the bundle class loader.
+ */
+public class Payload {
+
+	private final List<Object> items = new ArrayList<Object>();
+
+	public void add(final Object item) {
+		items.add(item);
+	}
+
+	public int size() {
+		return items.size();
+	}
+
+	public static class Alpha extends Payload {
+		public String name() {
+			return "alpha";
+		}
+	}
+
+	public static class Beta extends Payload {
+		public String name() {
+			return "beta";
+		}
+	}
+
+	public static class Gamma extends Payload {
+		public String name() {
+			return "gamma";
+		}
+	}
+
+	public static class Delta extends Payload {
+		public String name() {
+			return "delta";
+		}
+	}
+
+	public static class Epsilon extends Payload {
+		public String name() {
+			return "epsilon";
+		}
+	}
+
+	public static class Zeta extends Payload {
+		public String name() {
+			return "zeta";
+		}
+	}
+
+	public static class Eta extends Payload {
+		public String name() {
+			return "eta";
+		}
+	}
+
+	public static class Theta extends Payload {
+		public String name() {
+			return "theta";
+		}
+	}
+
+}
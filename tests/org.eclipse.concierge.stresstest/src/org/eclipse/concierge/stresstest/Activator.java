@@ -17,6 +17,8 @@ public class Activator implements BundleActivator {
 		new ServiceRegistryStressTest().run(context);
 		System.out.println("Timestamp");
 		new ResolverStressTest().run(context);
+		System.out.println("Timestamp");
+		new ResolverBenchmark().run(context);
 	}
 
 	/*
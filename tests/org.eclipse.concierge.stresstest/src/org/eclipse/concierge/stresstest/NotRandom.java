@@ -20,13 +20,19 @@ public class NotRandom {
 	}
 
 	public int nextInt(int max) {
-		int num = (Math.abs(bytes[++p]) % max); 
+		int num = (Math.abs(bytes[next()]) % max); 
 		if (num > max) throw new IllegalStateException();
 		return num;
 	}
 
 	public boolean nextBoolean() {
-		return (bytes[++p] % 2) == 1;
+		return (bytes[next()] % 2) == 1;
+	}
+
+	private int next() {
+		// wrap around for large topologies
+		p = (p + 1) % bytes.length;
+		return p;
 	}
 
 	public static void main(String... args) {
@@ -0,0 +1,87 @@
+package org.eclipse.concierge.stresstest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+/**
+ * Measures the resolver on the topologies of the ResolverStressTest for
+ * increasing numbers of bundles: the initial resolve, resolving again without
+ * any change, and resolving after a few more bundles have been installed.
+ */
+public class ResolverBenchmark {
+
+	private static final int[] SIZES = { 1000, 5000, 20000 };
+
+	private static final int NUM_ADDED = 10;
+
+	public void run(final BundleContext context) throws Exception {
+		final FrameworkWiring fw = context.getBundle(0).adapt(
+				FrameworkWiring.class);
+
+		for (final int size : SIZES) {
+			final ResolverStressTest topology = new ResolverStressTest();
+
+			long time = System.nanoTime();
+			final Bundle[] bundles = topology.installBundles(context,
+					"bench" + size + ".bundle", size);
+			System.err.println(size + " BUNDLES: INSTALLATION TIME "
+					+ (System.nanoTime() - time) / 1000000);
+
+			time = System.nanoTime();
+			fw.resolveBundles(Arrays.asList(bundles));
+			System.err.println(size + " BUNDLES: RESOLVE TIME "
+					+ (System.nanoTime() - time) / 1000000);
+
+			time = System.nanoTime();
+			fw.resolveBundles(null);
+			System.err.println(size + " BUNDLES: RESOLVE AGAIN TIME "
+					+ (System.nanoTime() - time) / 1000000);
+
+			final Bundle[] added = topology.installBundles(context, "bench"
+					+ size + ".added", NUM_ADDED);
+			time = System.nanoTime();
+			fw.resolveBundles(null);
+			System.err.println(size + " BUNDLES: RESOLVE " + NUM_ADDED
+					+ " ADDED TIME " + (System.nanoTime() - time) / 1000000);
+
+			int resolved = 0;
+			for (final Bundle bundle : bundles) {
+				if (bundle.getState() != Bundle.INSTALLED) {
+					resolved++;
+				}
+			}
+			System.err.println(size + " BUNDLES: " + resolved + " RESOLVED");
+
+			final List<Bundle> all = new ArrayList<Bundle>(
+					Arrays.asList(bundles));
+			all.addAll(Arrays.asList(added));
+			uninstall(fw, all);
+		}
+	}
+
+	private void uninstall(final FrameworkWiring fw, final List<Bundle> bundles)
+			throws Exception {
+		for (final Bundle bundle : bundles) {
+			bundle.uninstall();
+		}
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		fw.refreshBundles(bundles, new FrameworkListener() {
+			public void frameworkEvent(final FrameworkEvent event) {
+				if (event.getType() == FrameworkEvent.PACKAGES_REFRESHED) {
+					latch.countDown();
+				}
+			}
+		});
+		latch.await();
+	}
+
+}
@@ -34,12 +34,32 @@ public class ResolverStressTest {
 
 	public void run(final BundleContext context) throws BundleException,
 			IOException {
-		final Bundle[] bundles = new Bundle[NUM];
+		final long time0 = System.nanoTime();
+		final Bundle[] bundles = installBundles(context, "bundle", NUM);
+		System.err.println("INSTALLATION TIME "
+				+ (System.nanoTime() - time0) / 1000000);
 
-		long installationTime = 0;
+		final FrameworkWiring fw = context.getBundle(0).adapt(
+				FrameworkWiring.class);
+
+		System.err.println("RESOLVING");
+		final long time = System.nanoTime();
+		fw.resolveBundles(Arrays.asList(bundles));
+		System.err.println("RESOLVE TIME " + (System.nanoTime() - time)
+				/ 1000000);
+
+	}
+
+	/**
+	 * install a random topology of bundles importing and exporting packages.
+	 * The topology only depends on the sequence of calls.
+	 */
+	public Bundle[] installBundles(final BundleContext context, final String prefix,
+			final int num) throws BundleException, IOException {
+		final Bundle[] bundles = new Bundle[num];
 
-		for (int i = 0; i < NUM; i++) {
-			final BundleGenerator gen = new BundleGenerator("bundle" + i,
+		for (int i = 0; i < num; i++) {
+			final BundleGenerator gen = new BundleGenerator(prefix + i,
 					new Version(1, 0, i));
 
 			final int dirs = random.nextInt(MAX_IMPORTS_EXPORTS);
@@ -79,22 +99,10 @@ public class ResolverStressTest {
 				}
 			}
 
-			final long t = System.nanoTime();
 			bundles[i] = gen.install(context);
-			installationTime += (System.nanoTime() - t);
 		}
 
-		System.err.println("INSTALLATION TIME " + (installationTime / 1000000));
-
-		final FrameworkWiring fw = context.getBundle(0).adapt(
-				FrameworkWiring.class);
-
-		System.err.println("RESOLVING");
-		final long time = System.nanoTime();
-		fw.resolveBundles(Arrays.asList(bundles));
-		System.err.println("RESOLVE TIME " + (System.nanoTime() - time)
-				/ 1000000);
-
+		return bundles;
 	}
 
 	private String drawPackage(final Set<String> history) {
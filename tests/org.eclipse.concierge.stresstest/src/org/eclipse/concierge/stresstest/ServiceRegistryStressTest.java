@@ -3,6 +3,7 @@ package org.eclipse.concierge.stresstest;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
@@ -13,6 +14,8 @@ public class ServiceRegistryStressTest {
 
 	private static final String CLS_NAME = Object.class.getName();
 
+	private static final int[] THREADS = { 1, 2, 4, 8 };
+
 	private Random random = new Random();
 
 	public void run(final BundleContext context) throws Exception {
@@ -55,6 +58,63 @@ public class ServiceRegistryStressTest {
 		System.out.println("elapsed time for unregistration: "
 				+ (System.nanoTime() - time3) / 1000000);
 
+		for (int i = 0; i < THREADS.length; i++) {
+			runConcurrent(context, THREADS[i]);
+		}
+	}
+
+	/**
+	 * every thread registers its share of the services, looks up services by
+	 * class and by filter, and unregisters its services again.
+	 */
+	private void runConcurrent(final BundleContext context, final int threads)
+			throws Exception {
+		final int share = NUM / threads;
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final Throwable[] failure = new Throwable[1];
+
+		for (int t = 0; t < threads; t++) {
+			final int offset = t * share;
+			new Thread("ServiceRegistryStressTest-" + t) {
+				public void run() {
+					try {
+						start.await();
+						final ServiceRegistration<?>[] regs = new ServiceRegistration[share];
+						for (int i = 0; i < share; i++) {
+							final Dictionary<String, Object> props = new Hashtable<String, Object>();
+							props.put("key", Integer.valueOf(offset + i));
+							regs[i] = context.registerService(CLS_NAME,
+									new Object(), props);
+							if (i % 10 == 0) {
+								context.getServiceReferences(CLS_NAME,
+										"(key=" + (offset + i) + ")");
+								context.getServiceReference(CLS_NAME);
+							}
+						}
+						for (int i = 0; i < share; i++) {
+							regs[i].unregister();
+						}
+					} catch (final Throwable t) {
+						failure[0] = t;
+					} finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+
+		final long time = System.nanoTime();
+		start.countDown();
+		done.await();
+		final long elapsed = (System.nanoTime() - time) / 1000000;
+		if (failure[0] != null) {
+			failure[0].printStackTrace();
+		}
+		System.out.println("elapsed time for concurrent register/lookup/"
+				+ "unregister with " + threads + " threads: " + elapsed
+				+ " (" + (elapsed == 0 ? NUM : NUM * 1000L / elapsed)
+				+ " services/s)");
 	}
 
 }